@@ -0,0 +1,144 @@
+package com.taylorsuniversity.ev;
+
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationController;
+import com.taylorsuniversity.ev.routeplanning.TripPlannerController;
+import com.taylorsuniversity.ev.usermanagement.UserController;
+import com.taylorsuniversity.ev.vehiclemanagement.VehicleController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared controllers for the whole process, created on first use instead of by each panel. None
+ * of them touch AWT, so batch jobs and the API server can use this with java.awt.headless set.
+ * Each phase records how long its own work took, not counting time spent waiting for the phases
+ * it depends on; startAsync runs the independent ones in parallel.
+ */
+public final class ApplicationServices {
+    private static final Logger LOGGER = Logger.getLogger(ApplicationServices.class.getName());
+    private static ApplicationServices instance;
+
+    private final Map<String, Long> phaseNanos = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Phase<ChargingStationController> stations = new Phase<>("stations", ChargingStationController::new);
+    private final Phase<UserController> users = new Phase<>("users", () -> {
+        UserController controller = new UserController();
+        controller.open();
+        return controller;
+    });
+    private final Phase<VehicleController> vehicles = new Phase<>("vehicles", VehicleController::new);
+    // The route graph is built from the repository, so stations must be loaded first
+    private final Phase<TripPlannerController> routes = new Phase<>("routes", TripPlannerController::new, stations);
+    private CompletableFuture<Void> startup; // Guarded by this
+
+    public static synchronized ApplicationServices getInstance() {
+        if (instance == null) instance = new ApplicationServices();
+        return instance;
+    }
+
+    public ChargingStationController stations() { return stations.get(); }
+    public UserController users() { return users.get(); }
+    public VehicleController vehicles() { return vehicles.get(); }
+    public TripPlannerController tripPlanner() { return routes.get(); }
+
+    // The user controller once its phase has run, for callers such as the EDT that must not wait for it
+    public CompletableFuture<UserController> usersAsync() {
+        return users.async();
+    }
+
+    /**
+     * Initializes every phase in the background, each on its own thread, and logs the timings
+     * once all are done. Calling it again returns the same future.
+     */
+    public synchronized CompletableFuture<Void> startAsync() {
+        if (startup != null) return startup;
+        long startNanos = System.nanoTime();
+        List<Phase<?>> phases = List.of(stations, users, vehicles, routes);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(phases.size(), runnable -> {
+            Thread thread = new Thread(runnable, "startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (Phase<?> phase : phases) futures.add(CompletableFuture.runAsync(phase::get, executor));
+        startup = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            executor.shutdown();
+            if (error != null) {
+                LOGGER.log(Level.SEVERE, "Startup failed", error);
+            } else {
+                LOGGER.log(Level.INFO, "Started in {0} ms ({1})",
+                        new Object[]{String.format("%.1f", (System.nanoTime() - startNanos) / 1e6), describeTimings()});
+            }
+        });
+        return startup;
+    }
+
+    // Milliseconds spent in each phase that has run so far, in the order they finished
+    public Map<String, Double> getPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        synchronized (phaseNanos) {
+            for (Map.Entry<String, Long> entry : phaseNanos.entrySet()) millis.put(entry.getKey(), entry.getValue() / 1e6);
+        }
+        return millis;
+    }
+
+    public String describeTimings() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Double> entry : getPhaseMillis().entrySet()) {
+            if (out.length() > 0) out.append(", ");
+            out.append(entry.getKey()).append(' ').append(String.format("%.1f", entry.getValue())).append(" ms");
+        }
+        return out.toString();
+    }
+
+    /** A value built once, on first use, with the build time recorded under its name. */
+    private final class Phase<T> {
+        private final String name;
+        private final Supplier<T> factory;
+        private final Phase<?>[] dependencies;
+        private volatile T value;
+        private final CompletableFuture<T> ready = new CompletableFuture<>();
+
+        Phase(String name, Supplier<T> factory, Phase<?>... dependencies) {
+            this.name = name;
+            this.factory = factory;
+            this.dependencies = dependencies;
+        }
+
+        T get() {
+            T current = value;
+            if (current != null) return current;
+            for (Phase<?> dependency : dependencies) dependency.get();
+            synchronized (this) {
+                if (value == null) {
+                    long startNanos = System.nanoTime();
+                    try {
+                        value = factory.get();
+                    } catch (RuntimeException | Error e) {
+                        ready.completeExceptionally(e);
+                        throw e;
+                    }
+                    phaseNanos.put(name, System.nanoTime() - startNanos);
+                    ready.complete(value);
+                }
+                return value;
+            }
+        }
+
+        // Completes when the value is built; starts every phase in the background if none has started
+        CompletableFuture<T> async() {
+            if (value == null) startAsync();
+            return ready;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.taylorsuniversity.ev;
+
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStation;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationController;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationDTO;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationRepository;
+import com.taylorsuniversity.ev.charginginfrastructure.StationEvent;
+import com.taylorsuniversity.ev.charginginfrastructure.StationEventBus;
+import com.taylorsuniversity.ev.routeplanning.TripPlannerController;
+import com.taylorsuniversity.ev.usermanagement.User;
+import com.taylorsuniversity.ev.util.Location;
+import com.taylorsuniversity.ev.vehiclemanagement.Vehicle;
+
+import javax.swing.*;
+import java.awt.Image;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads panel data off the event dispatch thread. Panels ask for data by key, get a future,
+ * and hand it to deliver(), which runs their callback on the EDT. Results are cached by key so
+ * switching back to a panel shows data at once; station results are dropped whenever a station
+ * changes status or the repository adds, replaces or removes one, and vehicle results whenever a
+ * vehicle is saved through here. Port counts alone do not drop them; the lists only display
+ * those, and they refresh with the next repository change. Login prefetches what the first
+ * panels need. Each panel can also report its time to first paint and to data.
+ */
+public final class PanelDataLoader {
+    private static final Logger LOGGER = Logger.getLogger(PanelDataLoader.class.getName());
+    private static final int THREADS = 2;
+    private static final String STATIONS = "stations:";
+    private static final String VEHICLES = "vehicles";
+    private static final String[] MENU_ICONS = {"dashboard.png", "user.png", "trip.png", "charging.png",
+            "cost.png", "environment.png", "vehicles.png", "logout.png"};
+    private static PanelDataLoader instance;
+
+    private final ApplicationServices services;
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<?>> cache = new ConcurrentHashMap<>();
+    private final Map<String, PanelTiming> timings = new ConcurrentHashMap<>();
+    private final Map<String, ImageIcon> icons = new ConcurrentHashMap<>();
+    private final Map<String, Long> stationVersions = new ConcurrentHashMap<>(); // Repository version each station result was read at
+    private final Map<String, String> stationStatuses = new ConcurrentHashMap<>(); // Last status seen per station
+    private volatile ChargingStationRepository stationRepository; // Known once the first station result loads
+
+    PanelDataLoader(ApplicationServices services) {
+        this.services = services;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "panel-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        StationEventBus.getInstance().subscribe(this::onStationEvent);
+    }
+
+    public static synchronized PanelDataLoader getInstance() {
+        if (instance == null) instance = new PanelDataLoader(ApplicationServices.getInstance());
+        return instance;
+    }
+
+    // Warms the cache for the panels a user usually opens first
+    public void prefetch(User user) {
+        stations("AVAILABLE");
+        vehicles();
+        tripPlanner();
+        submit(() -> {
+            for (String iconFile : MENU_ICONS) icon("/icons/" + iconFile, 28, 28);
+            return null;
+        });
+        LOGGER.log(Level.FINE, "Prefetching panel data for {0}", user != null ? user.getEmail() : null);
+    }
+
+    public CompletableFuture<List<ChargingStationDTO>> stations(String filter) {
+        String normalized = filter != null ? filter.toUpperCase() : "ALL";
+        return fetchStations(STATIONS + normalized, controller -> controller.getFilteredChargingStations(normalized));
+    }
+
+    // Not cached: the result depends on where the user is
+    public CompletableFuture<List<ChargingStationDTO>> nearbyStations(Location location, double maxDistanceKm) {
+        return submit(() -> services.stations().getNearbyStations(location, maxDistanceKm));
+    }
+
+    // The live repository snapshot, for panels that draw every station
+    public CompletableFuture<List<ChargingStation>> allStations() {
+        return fetchStations(STATIONS + "*", controller -> controller.getRepository().findAll());
+    }
+
+    public CompletableFuture<ChargingStationController> stationController() {
+        return submit(services::stations);
+    }
+
+    public CompletableFuture<TripPlannerController> tripPlanner() {
+        return submit(services::tripPlanner);
+    }
+
+    public CompletableFuture<List<Vehicle>> vehicles() {
+        return fetch(VEHICLES, () -> Collections.unmodifiableList(services.vehicles().getAllVehicles()));
+    }
+
+    // Runs a vehicle change in the background and drops the cached list once it is saved
+    public <T> CompletableFuture<T> updateVehicles(Supplier<T> change) {
+        return submit(() -> {
+            try {
+                return change.get();
+            } finally {
+                invalidate(VEHICLES);
+            }
+        });
+    }
+
+    /**
+     * Classpath icon scaled to the given size, decoded once and then shared by every panel; each
+     * panel used to read and scale its own sidebar icons on the EDT. Returns null if it is missing.
+     */
+    public ImageIcon icon(String path, int width, int height) {
+        String key = path + "@" + width + "x" + height;
+        ImageIcon icon = icons.get(key);
+        if (icon != null) return icon;
+        try {
+            java.net.URL imgURL = PanelDataLoader.class.getResource(path);
+            if (imgURL == null) {
+                LOGGER.warning("Icon not found: " + path);
+                return null;
+            }
+            Image scaledImage = new ImageIcon(imgURL).getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
+            icon = new ImageIcon(scaledImage);
+        } catch (Exception e) {
+            LOGGER.severe("Error loading icon " + path + ": " + e.getMessage());
+            return null;
+        }
+        ImageIcon existing = icons.putIfAbsent(key, icon);
+        return existing != null ? existing : icon;
+    }
+
+    // Like fetch, but also reloads once the repository's station set has changed since the result was read
+    private <T> CompletableFuture<T> fetchStations(String key, Function<ChargingStationController, T> source) {
+        ChargingStationRepository repository = stationRepository;
+        Long readAt = stationVersions.get(key);
+        if (repository != null && readAt != null && readAt != repository.getVersion()) invalidate(key);
+        return fetch(key, () -> {
+            ChargingStationController controller = services.stations();
+            stationRepository = controller.getRepository();
+            stationVersions.put(key, stationRepository.getVersion()); // Read first, so a change during the load is caught next time
+            for (ChargingStation station : stationRepository.findAll()) {
+                stationStatuses.putIfAbsent(station.getStationId(), station.getStatus());
+            }
+            return source.apply(controller);
+        });
+    }
+
+    // Port events arrive far more often than status changes and leave the filtered lists as they were
+    private void onStationEvent(StationEvent event) {
+        String previous = stationStatuses.put(event.getStationId(), event.getStatus());
+        if (previous != null && !Objects.equals(previous, event.getStatus())) invalidatePrefix(STATIONS);
+        // A station with no previous status was added since the last load; the version check covers that
+    }
+
+    // Result of source, computed once per key until invalidated; a failed load is not kept
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> fetch(String key, Supplier<T> source) {
+        CompletableFuture<T> future = (CompletableFuture<T>) cache.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(source, executor));
+        future.whenComplete((value, error) -> {
+            if (error != null) cache.remove(key, future);
+        });
+        return future;
+    }
+
+    // Background work that is not cached, such as saves
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    public void invalidate(String key) {
+        cache.remove(key);
+    }
+
+    private void invalidatePrefix(String prefix) {
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Calls onLoaded with the result on the EDT, or onError with the underlying failure. A null
+     * onError logs the failure instead.
+     */
+    public <T> void deliver(CompletableFuture<T> future, Consumer<? super T> onLoaded, Consumer<Throwable> onError) {
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null) {
+                onLoaded.accept(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (onError != null) onError.accept(cause);
+            else LOGGER.log(Level.SEVERE, "Panel data load failed", cause);
+        }));
+    }
+
+    public <T> void deliver(CompletableFuture<T> future, Consumer<? super T> onLoaded) {
+        deliver(future, onLoaded, null);
+    }
+
+    /**
+     * Starts timing a panel; call from its constructor. First paint is taken on the first EDT
+     * turn after the panel is showing, and data time when the panel calls dataShown().
+     */
+    public PanelTimer startTimer(JComponent panel, String name) {
+        PanelTimer timer = new PanelTimer(name);
+        panel.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && panel.isShowing()) {
+                    panel.removeHierarchyListener(this);
+                    SwingUtilities.invokeLater(timer::painted);
+                }
+            }
+        });
+        return timer;
+    }
+
+    // Latest and worst timings per panel name
+    public Map<String, PanelTiming> getPanelTimings() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(timings));
+    }
+
+    public final class PanelTimer {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private boolean dataShown; // Touched only on the EDT
+
+        private PanelTimer(String name) {
+            this.name = name;
+        }
+
+        private void painted() {
+            double millis = (System.nanoTime() - startNanos) / 1e6;
+            timing().recordPaint(millis);
+            LOGGER.log(Level.INFO, "{0} first paint in {1} ms", new Object[]{name, String.format("%.1f", millis)});
+        }
+
+        // Call on the EDT once the panel shows loaded data; only the first call counts
+        public void dataShown() {
+            if (dataShown) return;
+            dataShown = true;
+            double millis = (System.nanoTime() - startNanos) / 1e6;
+            timing().recordData(millis);
+            LOGGER.log(Level.INFO, "{0} data shown in {1} ms", new Object[]{name, String.format("%.1f", millis)});
+        }
+
+        private PanelTiming timing() {
+            return timings.computeIfAbsent(name, PanelTiming::new);
+        }
+    }
+
+    public static final class PanelTiming {
+        private final String panel;
+        private int opened;
+        private double lastPaintMillis;
+        private double maxPaintMillis;
+        private double lastDataMillis;
+        private double maxDataMillis;
+
+        PanelTiming(String panel) {
+            this.panel = panel;
+        }
+
+        synchronized void recordPaint(double millis) {
+            opened++;
+            lastPaintMillis = millis;
+            maxPaintMillis = Math.max(maxPaintMillis, millis);
+        }
+
+        synchronized void recordData(double millis) {
+            lastDataMillis = millis;
+            maxDataMillis = Math.max(maxDataMillis, millis);
+        }
+
+        public String getPanel() { return panel; }
+        public synchronized int getOpened() { return opened; }
+        public synchronized double getLastPaintMillis() { return lastPaintMillis; }
+        public synchronized double getMaxPaintMillis() { return maxPaintMillis; }
+        public synchronized double getLastDataMillis() { return lastDataMillis; }
+        public synchronized double getMaxDataMillis() { return maxDataMillis; }
+    }
+}
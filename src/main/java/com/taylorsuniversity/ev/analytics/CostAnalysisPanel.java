@@ -1,5 +1,6 @@
 package com.taylorsuniversity.ev.analytics;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationPanel;
 import com.taylorsuniversity.ev.routeplanning.TripPlanningPanel;
 import com.taylorsuniversity.ev.usermanagement.*;
@@ -111,19 +112,7 @@ public class CostAnalysisPanel extends JPanel {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        try {
-            java.net.URL imgURL = getClass().getResource(path);
-            if (imgURL != null) {
-                ImageIcon icon = new ImageIcon(imgURL);
-                Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            LOGGER.warning("Icon not found: " + path);
-            return null;
-        } catch (Exception e) {
-            LOGGER.severe("Error loading icon " + path + ": " + e.getMessage());
-            return null;
-        }
+        return PanelDataLoader.getInstance().icon(path, width, height);
     }
 
     private JPanel createRightPanel() {
@@ -0,0 +1,179 @@
+package com.taylorsuniversity.ev.api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load harness for ApiServer. Each of the given number of virtual-thread clients
+ * sends a request, waits for the answer and sends the next, for the given duration; the mix is
+ * mostly station reads with some nearest-station and vehicle lookups, plus trip plans when an
+ * email and password are supplied. Prints throughput and p50/p99/max latency per endpoint.
+ *
+ * Usage: ApiLoadGenerator baseUrl [clients] [seconds] [email password]
+ */
+public class ApiLoadGenerator {
+    private static final String[] ENDPOINTS = {"stations", "station", "nearest", "vehicles", "trip"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ApiLoadGenerator baseUrl [clients] [seconds] [email password]");
+            System.exit(1);
+        }
+        String baseUrl = args[0].endsWith("/") ? args[0].substring(0, args[0].length() - 1) : args[0];
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<String> stationIds = stationIds(http, baseUrl);
+        if (stationIds.size() < 2) throw new IllegalStateException("Server has fewer than two stations");
+        String token = args.length > 4 ? login(http, baseUrl, args[3], args[4]) : null;
+
+        Recorder[] recorders = new Recorder[ENDPOINTS.length];
+        for (int i = 0; i < recorders.length; i++) recorders[i] = new Recorder();
+        AtomicLong errors = new AtomicLong();
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + seconds * 1_000_000_000L;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < endNanos) {
+                        int endpoint = pick(random, token != null);
+                        HttpRequest request = request(baseUrl, ENDPOINTS[endpoint], stationIds, token, random);
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() >= 500) errors.incrementAndGet();
+                            recorders[endpoint].record(System.nanoTime() - sent);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        Recorder all = new Recorder();
+        System.out.printf("%-10s %9s %10s %10s %10s%n", "endpoint", "requests", "p50 ms", "p99 ms", "max ms");
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            if (recorders[i].count() == 0) continue;
+            print(ENDPOINTS[i], recorders[i]);
+            all.addAll(recorders[i]);
+        }
+        if (all.count() > 0) print("all", all);
+        else System.out.println("No request completed");
+        System.out.printf("%d clients, %.1f s, %.0f requests/s, %d errors%n",
+                clients, elapsedSeconds, all.count() / elapsedSeconds, errors.get());
+    }
+
+    // 50% station list, 20% single station, 15% nearest, 10% vehicles, 5% trip plans when signed in
+    private static int pick(ThreadLocalRandom random, boolean signedIn) {
+        int roll = random.nextInt(signedIn ? 100 : 95);
+        if (roll < 50) return 0;
+        if (roll < 70) return 1;
+        if (roll < 85) return 2;
+        if (roll < 95) return 3;
+        return 4;
+    }
+
+    private static HttpRequest request(String baseUrl, String endpoint, List<String> stationIds, String token,
+                                       ThreadLocalRandom random) {
+        String stationId = stationIds.get(random.nextInt(stationIds.size()));
+        switch (endpoint) {
+            case "stations":
+                return get(baseUrl + "/api/stations?filter=AVAILABLE");
+            case "station":
+                return get(baseUrl + "/api/stations/" + stationId);
+            case "nearest":
+                return get(baseUrl + "/api/stations?lat=" + random.nextDouble(26.5, 30.0)
+                        + "&lon=" + random.nextDouble(80.5, 88.0) + "&nearest=5");
+            case "vehicles":
+                return get(baseUrl + "/api/vehicles");
+            default:
+                String endId = stationIds.get(random.nextInt(stationIds.size()));
+                String body = Json.write(Map.of("startStationId", stationId, "endStationId", endId));
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/trips"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static List<String> stationIds(HttpClient http, String baseUrl) throws Exception {
+        HttpResponse<String> response = http.send(get(baseUrl + "/api/stations"), HttpResponse.BodyHandlers.ofString());
+        List<String> ids = new ArrayList<>();
+        for (Object station : (List<?>) Json.parse(response.body())) {
+            ids.add((String) ((Map<?, ?>) station).get("stationId"));
+        }
+        return ids;
+    }
+
+    private static String login(HttpClient http, String baseUrl, String email, String password) throws Exception {
+        String body = Json.write(Map.of("email", email, "password", password));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) throw new IllegalStateException("Login failed: " + response.body());
+        return (String) Json.parseObject(response.body()).get("token");
+    }
+
+    private static void print(String name, Recorder recorder) {
+        long[] sorted = recorder.sorted();
+        System.out.printf("%-10s %9d %10.2f %10.2f %10.2f%n", name, sorted.length,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    // Latencies in nanoseconds, appended from many clients
+    private static final class Recorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+        }
+
+        synchronized int count() {
+            return size;
+        }
+
+        synchronized void addAll(Recorder other) {
+            long[] theirs = other.sorted();
+            for (long value : theirs) record(value);
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.taylorsuniversity.ev.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.taylorsuniversity.ev.ApplicationServices;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStation;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationController;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationDTO;
+import com.taylorsuniversity.ev.charginginfrastructure.FleetPortTotals;
+import com.taylorsuniversity.ev.routeplanning.RouteGraphBuilder;
+import com.taylorsuniversity.ev.routeplanning.Trip;
+import com.taylorsuniversity.ev.routeplanning.TripDTO;
+import com.taylorsuniversity.ev.routeplanning.TripPlannerController;
+import com.taylorsuniversity.ev.usermanagement.PasswordVerifier;
+import com.taylorsuniversity.ev.usermanagement.User;
+import com.taylorsuniversity.ev.usermanagement.UserController;
+import com.taylorsuniversity.ev.usermanagement.UserDTO;
+import com.taylorsuniversity.ev.util.Location;
+import com.taylorsuniversity.ev.vehiclemanagement.Vehicle;
+import com.taylorsuniversity.ev.vehiclemanagement.VehicleController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless JSON API over the existing controllers, on the JDK HttpServer. Every request runs on
+ * its own virtual thread, so a request blocked on file I/O or a password check parks without
+ * holding a platform thread. Nothing here touches AWT or Swing; main sets java.awt.headless
+ * before any controller is loaded.
+ *
+ * Endpoints (all under /api):
+ *   GET    /health
+ *   GET    /stations[?filter=|?lat=&lon=&radiusKm=|?lat=&lon=&nearest=]
+ *   GET    /stations/{id}
+ *   POST   /login                     {email, password} -> {token, user}
+ *   GET    /trips                     trips of the signed-in user
+ *   POST   /trips                     {startStationId, endStationId, timeOptimal?}
+ *   GET    /vehicles, /vehicles/{id}
+ *   POST   /vehicles                  {id, model, manufacturer, batteryCapacity, range}
+ *   POST   /vehicles/{id}/charge      {amount}
+ *   POST   /vehicles/{id}/travel      {distance}
+ *   DELETE /vehicles/{id}
+ * Trip endpoints need "Authorization: Bearer <token>" from /login.
+ */
+public class ApiServer {
+    private static final Logger LOGGER = Logger.getLogger(ApiServer.class.getName());
+    private static final int DEFAULT_PORT = 8080;
+    private static final long SESSION_MILLIS = 8 * 60 * 60 * 1000L;
+    private static final long SESSION_SWEEP_MILLIS = 60 * 1000L;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final int port;
+    private final ChargingStationController stationController;
+    private final TripPlannerController tripPlannerController;
+    private final UserController userController;
+    private final VehicleController vehicleController;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionSweep = new AtomicLong(); // Millis; logins sweep expired sessions at most this often
+    private final Object vehicleLock = new Object(); // Charge and travel read, update and save the vehicle
+    private final SecureRandom random = new SecureRandom();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ApiServer(int port) {
+        this(port, ApplicationServices.getInstance());
+    }
+
+    public ApiServer(int port, ApplicationServices services) {
+        if (port < 0 || port > 65535) throw new IllegalArgumentException("Invalid port: " + port);
+        if (services == null) throw new IllegalArgumentException("Services cannot be null");
+        this.port = port;
+        this.stationController = services.stations();
+        this.tripPlannerController = services.tripPlanner();
+        this.userController = services.users();
+        this.vehicleController = services.vehicles();
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) throw new IllegalStateException("Server already started");
+        // Headers and body go out as separate writes; with Nagle on, each response waits ~40 ms for a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+        LOGGER.log(Level.INFO, "API listening on port {0}", String.valueOf(getPort()));
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        Object body;
+        try {
+            body = route(exchange);
+            status = body instanceof Response ? ((Response) body).status : 200;
+            if (body instanceof Response) body = ((Response) body).body;
+        } catch (NotFoundException e) {
+            status = 404;
+            body = error(e.getMessage());
+        } catch (UnauthorizedException e) {
+            status = 401;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (IllegalStateException e) {
+            status = 422;
+            body = error(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            status = 503;
+            body = error("Server busy, try again");
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Request failed: " + exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+            status = 500;
+            body = error("Internal error");
+        }
+        if (status == 204) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Object route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String resource = path[0];
+        String id = path.length > 1 ? path[1] : null;
+        String action = path.length > 2 ? path[2] : null;
+
+        switch (path.length > 3 ? "" : resource) {
+            case "health":
+                if (method.equals("GET") && id == null) return health();
+                break;
+            case "stations":
+                if (method.equals("GET") && id == null) return stations(query);
+                if (method.equals("GET") && action == null) return station(id);
+                break;
+            case "login":
+                if (method.equals("POST") && id == null) return login(readBody(exchange));
+                break;
+            case "trips":
+                if (method.equals("GET") && id == null) return trips(authenticate(exchange));
+                if (method.equals("POST") && id == null) return planTrip(authenticate(exchange), readBody(exchange));
+                break;
+            case "vehicles":
+                if (method.equals("GET") && id == null) return vehicles();
+                if (method.equals("POST") && id == null) return addVehicle(readBody(exchange));
+                if (method.equals("GET") && action == null) return vehicle(id);
+                if (method.equals("DELETE") && action == null) return deleteVehicle(id);
+                if (method.equals("POST") && "charge".equals(action)) return chargeVehicle(id, readBody(exchange));
+                if (method.equals("POST") && "travel".equals(action)) return travelVehicle(id, readBody(exchange));
+                break;
+            default:
+        }
+        throw new NotFoundException("No endpoint for " + method + " " + exchange.getRequestURI().getPath());
+    }
+
+    private Map<String, Object> health() {
+        PasswordVerifier.Stats logins = userController.getLoginStats();
+        FleetPortTotals ports = stationController.getRepository().getPortTotals();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("status", "UP");
+        out.put("sessions", sessions.size());
+        out.put("availablePorts", ports.getAvailablePorts());
+        out.put("totalPorts", ports.getTotalPorts());
+        out.put("loginQueueDepth", logins.getQueueDepth());
+        out.put("loginsRejected", logins.getRejected());
+        out.put("averageLoginMillis", logins.getAverageVerifyMillis());
+        out.put("routePlanCacheHitRate", tripPlannerController.getPlanCacheStats().getHitRate());
+        RouteGraphBuilder.BuildStats graph = tripPlannerController.getGraphStats();
+        out.put("routeGraphEdges", graph.getEdges());
+        out.put("routeGraphBuildMillis", graph.getBuildMillis());
+        return out;
+    }
+
+    private List<Map<String, Object>> stations(Map<String, String> query) {
+        List<ChargingStationDTO> stations;
+        if (query.containsKey("lat") || query.containsKey("lon")) {
+            Location origin = new Location("Search origin", number(query, "lat"), number(query, "lon"));
+            if (query.containsKey("nearest")) {
+                stations = stationController.getNearestStations(origin, (int) number(query, "nearest"));
+            } else {
+                stations = stationController.getNearbyStations(origin, number(query, "radiusKm"));
+            }
+        } else {
+            stations = stationController.getFilteredChargingStations(query.get("filter"));
+        }
+        List<Map<String, Object>> out = new ArrayList<>(stations.size());
+        for (ChargingStationDTO station : stations) out.add(toJson(station));
+        return out;
+    }
+
+    private Map<String, Object> station(String stationId) {
+        ChargingStation station = stationController.getRepository().findById(stationId);
+        if (station == null) throw new NotFoundException("Unknown station: " + stationId);
+        return toJson(new ChargingStationDTO(station));
+    }
+
+    private Map<String, Object> login(Map<String, Object> body) {
+        String email = string(body, "email");
+        String password = string(body, "password");
+        UserDTO user;
+        try {
+            user = userController.loginAsync(email, password).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        if (user == null) throw new UnauthorizedException("Invalid email or password");
+
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = System.currentTimeMillis();
+        sweepExpiredSessions(now);
+        sessions.put(token, new Session(user.getEmail(), now + SESSION_MILLIS));
+
+        Map<String, Object> userJson = new LinkedHashMap<>();
+        userJson.put("fullName", user.getFullName());
+        userJson.put("email", user.getEmail());
+        userJson.put("phoneNumber", user.getPhoneNumber());
+        userJson.put("vehicleNumber", user.getVehicleNumber());
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("token", token);
+        out.put("user", userJson);
+        return out;
+    }
+
+    private List<Map<String, Object>> trips(User user) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (TripDTO trip : tripPlannerController.getUserTrips(user.getEmail())) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("tripId", trip.getTripId());
+            json.put("start", toJson(trip.getStartLocation()));
+            json.put("end", toJson(trip.getEndLocation()));
+            json.put("distanceKm", trip.getDistance());
+            json.put("energyKWh", trip.getEnergyConsumption());
+            json.put("chargingStops", trip.getChargingStops().size());
+            json.put("startTime", trip.getStartTime() != null ? trip.getStartTime().toString() : null);
+            out.add(json);
+        }
+        return out;
+    }
+
+    private Response planTrip(User user, Map<String, Object> body) {
+        Location start = stationNode(string(body, "startStationId"));
+        Location end = stationNode(string(body, "endStationId"));
+        boolean timeOptimal = Boolean.TRUE.equals(body.get("timeOptimal"));
+        Trip trip = timeOptimal ? tripPlannerController.planTimeOptimalTrip(user, start, end)
+                : tripPlannerController.planTrip(user, start, end);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("tripId", trip.getTripId());
+        json.put("start", toJson(trip.getStartLocation()));
+        json.put("end", toJson(trip.getEndLocation()));
+        json.put("distanceKm", trip.getDistance());
+        json.put("energyKWh", trip.getEnergyConsumption());
+        json.put("estimatedHours", tripPlannerController.estimateTripTime(trip.getDistance()));
+        List<Map<String, Object>> stops = new ArrayList<>();
+        for (ChargingStation stop : trip.getChargingStops()) {
+            Map<String, Object> stopJson = new LinkedHashMap<>();
+            stopJson.put("stationId", stop.getStationId());
+            stopJson.put("name", stop.getName());
+            stopJson.put("latitude", stop.getLatitude());
+            stopJson.put("longitude", stop.getLongitude());
+            stops.add(stopJson);
+        }
+        json.put("chargingStops", stops);
+        return new Response(201, json);
+    }
+
+    private Location stationNode(String stationId) {
+        Location node = tripPlannerController.getStationNode(stationId);
+        if (node == null) throw new NotFoundException("Unknown station: " + stationId);
+        return node;
+    }
+
+    private List<Map<String, Object>> vehicles() {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Vehicle vehicle : vehicleController.getAllVehicles()) out.add(toJson(vehicle));
+        return out;
+    }
+
+    private Map<String, Object> vehicle(String vehicleId) {
+        Vehicle vehicle = vehicleController.getVehicle(vehicleId);
+        if (vehicle == null) throw new NotFoundException("Unknown vehicle: " + vehicleId);
+        return toJson(vehicle);
+    }
+
+    private Response addVehicle(Map<String, Object> body) {
+        String vehicleId = string(body, "id");
+        if (vehicleId.contains(",")) throw new IllegalArgumentException("Vehicle ID cannot contain commas");
+        Vehicle vehicle = new Vehicle(vehicleId, string(body, "model"), string(body, "manufacturer"),
+                positive(body, "batteryCapacity"), positive(body, "range"));
+        synchronized (vehicleLock) {
+            if (vehicleController.getVehicle(vehicleId) != null) {
+                throw new IllegalStateException("Vehicle already exists: " + vehicleId);
+            }
+            vehicleController.addVehicle(vehicle);
+        }
+        return new Response(201, toJson(vehicle));
+    }
+
+    private Map<String, Object> chargeVehicle(String vehicleId, Map<String, Object> body) {
+        double amount = positive(body, "amount");
+        synchronized (vehicleLock) {
+            vehicle(vehicleId);
+            vehicleController.chargeVehicle(vehicleId, amount);
+            return vehicle(vehicleId);
+        }
+    }
+
+    private Map<String, Object> travelVehicle(String vehicleId, Map<String, Object> body) {
+        double distance = positive(body, "distance");
+        synchronized (vehicleLock) {
+            vehicle(vehicleId);
+            vehicleController.travelVehicle(vehicleId, distance);
+            return vehicle(vehicleId);
+        }
+    }
+
+    private Response deleteVehicle(String vehicleId) {
+        synchronized (vehicleLock) {
+            vehicle(vehicleId);
+            vehicleController.deleteVehicle(vehicleId);
+        }
+        return new Response(204, null);
+    }
+
+    // Tokens that are never presented again would otherwise stay in the map for the life of the server
+    private void sweepExpiredSessions(long now) {
+        long due = nextSessionSweep.get();
+        if (now < due || !nextSessionSweep.compareAndSet(due, now + SESSION_SWEEP_MILLIS)) return;
+        sessions.values().removeIf(session -> session.expiresAt < now);
+    }
+
+    private User authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) throw new UnauthorizedException("Missing bearer token");
+        String token = header.substring("Bearer ".length()).trim();
+        Session session = sessions.get(token);
+        if (session == null || session.expiresAt < System.currentTimeMillis()) {
+            if (session != null) sessions.remove(token);
+            throw new UnauthorizedException("Invalid or expired token");
+        }
+        User user = userController.getUser(session.email);
+        if (user == null) throw new UnauthorizedException("User no longer exists");
+        return user;
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) throw new IllegalArgumentException("Request body too large");
+            if (bytes.length == 0) throw new IllegalArgumentException("Request body required");
+            return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static double number(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing query parameter: " + name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+        }
+    }
+
+    private static String string(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return ((String) value).trim();
+    }
+
+    private static double positive(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Double) || !((Double) value > 0) || ((Double) value).isInfinite()) {
+            throw new IllegalArgumentException("Field must be a positive number: " + name);
+        }
+        return (Double) value;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("error", message);
+        return out;
+    }
+
+    private static Map<String, Object> toJson(ChargingStationDTO station) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("stationId", station.getStationId());
+        out.put("name", station.getName());
+        out.put("status", station.getStatus());
+        out.put("chargerType", station.getChargerType());
+        out.put("powerOutput", station.getPowerOutput());
+        out.put("availablePorts", station.getAvailablePorts());
+        out.put("latitude", station.getLatitude());
+        out.put("longitude", station.getLongitude());
+        out.put("costPerKWh", station.getCostPerKWh());
+        return out;
+    }
+
+    private static Map<String, Object> toJson(Location location) {
+        if (location == null) return null;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("name", location.getName());
+        out.put("latitude", location.getLatitude());
+        out.put("longitude", location.getLongitude());
+        return out;
+    }
+
+    private static Map<String, Object> toJson(Vehicle vehicle) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", vehicle.getId());
+        out.put("model", vehicle.getModel());
+        out.put("manufacturer", vehicle.getManufacturer());
+        out.put("batteryCapacity", vehicle.getBatteryCapacity());
+        out.put("remainingRange", vehicle.getBatteryMonitoring().getRemainingRange());
+        out.put("healthStatus", vehicle.getBatteryMonitoring().getHealthStatus());
+        return out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ApplicationServices services = ApplicationServices.getInstance();
+        services.startAsync().join();
+        ApiServer api = new ApiServer(port, services);
+        Runtime.getRuntime().addShutdownHook(new Thread(api::stop, "api-shutdown"));
+        api.start();
+    }
+
+    private static final class Session {
+        final String email;
+        final long expiresAt;
+
+        Session(String email, long expiresAt) {
+            this.email = email;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final Object body;
+
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class NotFoundException extends RuntimeException {
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class UnauthorizedException extends RuntimeException {
+        UnauthorizedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -2,10 +2,17 @@ package com.taylorsuniversity.ev.charginginfrastructure;
 
 import com.taylorsuniversity.ev.util.Location;
 import com.taylorsuniversity.ev.util.Observer;
+import com.taylorsuniversity.ev.util.BinaryCodec;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ChargingStation implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -16,10 +23,11 @@ public class ChargingStation implements Serializable {
     private String status;
     private String chargerType;
     private String powerOutput;
-    private String availablePorts;
+    private String availablePorts; // As last set or read; the live value is in ports
+    private transient AtomicReference<PortState> ports; // Live port counts, updated lock-free
     private Location location;
     private double costPerKWh;
-    private List<Observer> observers; // List of observers
+    private transient Map<Observer, StationEventBus.Subscription> observers; // Created on first addObserver
 
     public ChargingStation(String stationId, String name, String status, String chargerType,
                            String powerOutput, String availablePorts, double latitude, double longitude, double costPerKWh) {
@@ -29,9 +37,9 @@ public class ChargingStation implements Serializable {
         this.chargerType = chargerType;
         this.powerOutput = powerOutput;
         this.availablePorts = availablePorts;
+        this.ports = new AtomicReference<>(PortState.parse(availablePorts, null));
         this.location = new Location(name, latitude, longitude);
         this.costPerKWh = costPerKWh >= 0 ? costPerKWh : 0;
-        this.observers = new ArrayList<>();
     }
 
     public ChargingStation(String stationId, Location location) {
@@ -41,36 +49,41 @@ public class ChargingStation implements Serializable {
         this.chargerType = "CCS";
         this.powerOutput = "50kW";
         this.availablePorts = "2/2";
+        this.ports = new AtomicReference<>(PortState.parse(availablePorts, null));
         this.location = location;
         this.costPerKWh = 0.25;
-        this.observers = new ArrayList<>();
         if (location == null) {
             throw new IllegalArgumentException("Location cannot be null");
         }
     }
 
+    private ChargingStation() {
+    }
+
     public ChargingStation(String name, double latitude, double longitude) {
         this.name = name;
+        this.ports = new AtomicReference<>(PortState.parse(null, null));
     }
 
-    // Add an observer
-    public void addObserver(Observer observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
+    // Add an observer; it is called on the event bus thread with this station's updates
+    public synchronized void addObserver(Observer observer) {
+        if (observer == null) return;
+        if (observers == null) observers = new HashMap<>();
+        if (!observers.containsKey(observer)) {
+            observers.put(observer, StationEventBus.getInstance().subscribe(stationId, event -> observer.update(event.toMessage())));
         }
     }
 
     // Remove an observer
-    public void removeObserver(Observer observer) {
-        observers.remove(observer);
+    public synchronized void removeObserver(Observer observer) {
+        StationEventBus.Subscription subscription = observers != null ? observers.remove(observer) : null;
+        if (subscription != null) subscription.unsubscribe();
     }
 
-    // Notify all observers of a change
+    // Hands a snapshot to the event bus; delivery happens on the bus's own threads
     private void notifyObservers() {
-        String message = "Charging Station " + stationId + " - Status: " + status + ", Ports: " + availablePorts;
-        for (Observer observer : observers) {
-            observer.update(message);
-        }
+        StationEventBus bus = StationEventBus.getInstance();
+        if (bus.hasSubscribers()) bus.publish(new StationEvent(this));
     }
 
     // Modified setters to notify observers
@@ -81,7 +94,81 @@ public class ChargingStation implements Serializable {
 
     public void setAvailablePorts(String availablePorts) {
         this.availablePorts = availablePorts;
+        PortState current;
+        PortState updated;
+        do {
+            current = ports.get();
+            updated = PortState.parse(availablePorts, current.totals);
+        } while (!ports.compareAndSet(current, updated));
+        moveTotals(current, updated);
+        notifyObservers();
+    }
+
+    /**
+     * Takes one free port. Returns false when none is free or the port string could not be
+     * parsed. Safe to call from any thread without locking.
+     */
+    public boolean reservePort() {
+        PortState current;
+        PortState updated;
+        do {
+            current = ports.get();
+            if (current.raw != null || current.available == 0) return false;
+            updated = current.withAvailable(current.available - 1);
+        } while (!ports.compareAndSet(current, updated));
+        if (current.totals != null) current.totals.sessionChanged(-1);
+        notifyObservers();
+        return true;
+    }
+
+    // Gives a reserved port back; returns false when every port is already free
+    public boolean releasePort() {
+        PortState current;
+        PortState updated;
+        do {
+            current = ports.get();
+            if (current.raw != null || current.available == current.total) return false;
+            updated = current.withAvailable(current.available + 1);
+        } while (!ports.compareAndSet(current, updated));
+        if (current.totals != null) current.totals.sessionChanged(1);
         notifyObservers();
+        return true;
+    }
+
+    // 0 when the port string is not of the form "available/total"
+    public int getAvailablePortCount() { return ports.get().available; }
+
+    public int getTotalPortCount() { return ports.get().total; }
+
+    /**
+     * Makes this station's counts part of the given fleet totals (or of none, with null). The
+     * switch and the count snapshot happen in one compare-and-set, so a reservation racing with
+     * it is counted exactly once.
+     */
+    void attachTotals(FleetPortTotals totals) {
+        PortState current;
+        PortState updated;
+        do {
+            current = ports.get();
+            if (current.totals == totals) return;
+            updated = current.withTotals(totals);
+        } while (!ports.compareAndSet(current, updated));
+        moveTotals(current, updated);
+    }
+
+    private static void moveTotals(PortState before, PortState after) {
+        if (before.totals != null) before.totals.add(-before.available, -before.total);
+        if (after.totals != null) after.totals.add(after.available, after.total);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        availablePorts = getAvailablePorts();
+        out.defaultWriteObject();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        ports = new AtomicReference<>(PortState.parse(availablePorts, null));
     }
 
     // Existing getters and setters (unchanged)
@@ -94,7 +181,10 @@ public class ChargingStation implements Serializable {
     public void setChargerType(String chargerType) { this.chargerType = chargerType; }
     public String getPowerOutput() { return powerOutput; }
     public void setPowerOutput(String powerOutput) { this.powerOutput = powerOutput; }
-    public String getAvailablePorts() { return availablePorts; }
+    public String getAvailablePorts() {
+        PortState state = ports.get();
+        return state.raw != null ? state.raw : state.available + "/" + state.total;
+    }
     public Location getLocation() { return location; }
     public void setLocation(Location location) {
         if (location == null) throw new IllegalArgumentException("Location cannot be null");
@@ -108,7 +198,72 @@ public class ChargingStation implements Serializable {
     @Override
     public String toString() {
         return stationId + "," + name + "," + status + "," + chargerType + "," +
-                powerOutput + "," + availablePorts + "," + location.getLatitude() + "," +
+                powerOutput + "," + getAvailablePorts() + "," + location.getLatitude() + "," +
                 location.getLongitude() + "," + costPerKWh;
     }
-}
\ No newline at end of file
+
+    // Binary form used by BinaryCodec
+    public void writeTo(DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, stationId);
+        BinaryCodec.writeString(out, name);
+        BinaryCodec.writeString(out, status);
+        BinaryCodec.writeString(out, chargerType);
+        BinaryCodec.writeString(out, powerOutput);
+        BinaryCodec.writeString(out, getAvailablePorts());
+        BinaryCodec.writeNullable(out, location, Location::writeTo);
+        out.writeDouble(costPerKWh);
+    }
+
+    public static ChargingStation readFrom(DataInput in, int version) throws IOException {
+        ChargingStation station = new ChargingStation();
+        station.stationId = BinaryCodec.readString(in);
+        station.name = BinaryCodec.readString(in);
+        station.status = BinaryCodec.readString(in);
+        station.chargerType = BinaryCodec.readString(in);
+        station.powerOutput = BinaryCodec.readString(in);
+        station.availablePorts = BinaryCodec.readString(in);
+        station.ports = new AtomicReference<>(PortState.parse(station.availablePorts, null));
+        station.location = BinaryCodec.readNullable(in, version, Location::readFrom);
+        station.costPerKWh = in.readDouble();
+        return station;
+    }
+
+    // Immutable so counts and the totals they feed always change together in one compare-and-set
+    private static final class PortState {
+        final int available;
+        final int total;
+        final String raw; // Port string kept verbatim when it is not "available/total", else null
+        final FleetPortTotals totals;
+
+        PortState(int available, int total, String raw, FleetPortTotals totals) {
+            this.available = available;
+            this.total = total;
+            this.raw = raw;
+            this.totals = totals;
+        }
+
+        static PortState parse(String ports, FleetPortTotals totals) {
+            if (ports != null) {
+                int slash = ports.indexOf('/');
+                try {
+                    if (slash > 0) {
+                        int available = Integer.parseInt(ports.substring(0, slash).trim());
+                        int total = Integer.parseInt(ports.substring(slash + 1).trim());
+                        if (available >= 0 && available <= total) return new PortState(available, total, null, totals);
+                    }
+                } catch (NumberFormatException e) {
+                    // Kept verbatim below
+                }
+            }
+            return new PortState(0, 0, ports, totals);
+        }
+
+        PortState withAvailable(int newAvailable) {
+            return new PortState(newAvailable, total, null, totals);
+        }
+
+        PortState withTotals(FleetPortTotals newTotals) {
+            return new PortState(available, total, raw, newTotals);
+        }
+    }
+}
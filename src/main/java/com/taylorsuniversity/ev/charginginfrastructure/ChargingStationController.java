@@ -1,7 +1,9 @@
 package com.taylorsuniversity.ev.charginginfrastructure;
 
+import com.taylorsuniversity.ev.util.GeoMath;
 import com.taylorsuniversity.ev.util.Location;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
@@ -10,23 +12,28 @@ import java.util.stream.Collectors;
 
 public class ChargingStationController {
     private static final Logger LOGGER = Logger.getLogger(ChargingStationController.class.getName());
-    private final ChargingStationDAO dao;
+    private final ChargingStationRepository repository;
 
     public ChargingStationController() {
-        this.dao = new ChargingStationDAO();
+        this(ChargingStationRepository.getInstance());
     }
 
-    public ChargingStationDAO getDao() {
-        return dao;
+    public ChargingStationController(ChargingStationRepository repository) {
+        if (repository == null) throw new IllegalArgumentException("Repository cannot be null");
+        this.repository = repository;
+    }
+
+    public ChargingStationRepository getRepository() {
+        return repository;
     }
 
     public List<ChargingStationDTO> getAllChargingStations() {
-        List<ChargingStation> stations = dao.readChargingStations();
+        List<ChargingStation> stations = repository.findAll();
         return stations.stream().map(ChargingStationDTO::new).collect(Collectors.toList());
     }
 
     public List<ChargingStationDTO> getFilteredChargingStations(String filter) {
-        List<ChargingStation> stations = dao.readChargingStations();
+        List<ChargingStation> stations = repository.findAll();
         List<ChargingStation> filteredStations = new ArrayList<>();
         if (filter == null) filter = "ALL";
 
@@ -55,25 +62,21 @@ public class ChargingStationController {
     public List<ChargingStationDTO> getNearbyStations(Location userLocation, double maxDistanceKm) {
         if (userLocation == null) throw new IllegalArgumentException("User location cannot be null");
         if (maxDistanceKm < 0) throw new IllegalArgumentException("Max distance cannot be negative");
-        List<ChargingStation> stations = dao.readChargingStations();
-        return stations.stream()
-                .filter(station -> calculateDistance(userLocation, station.getLocation()) <= maxDistanceKm)
+        return repository.findWithinRadius(userLocation.getLatitude(), userLocation.getLongitude(), maxDistanceKm).stream()
+                .map(ChargingStationDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    public List<ChargingStationDTO> getNearestStations(Location userLocation, int count) {
+        if (userLocation == null) throw new IllegalArgumentException("User location cannot be null");
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative");
+        return repository.findNearest(userLocation.getLatitude(), userLocation.getLongitude(), count).stream()
                 .map(ChargingStationDTO::new)
                 .collect(Collectors.toList());
     }
 
     public double calculateDistance(Location userLocation, Location stationLocation) {
-        if (userLocation == null || stationLocation == null) return Double.MAX_VALUE;
-        double lat1 = Math.toRadians(userLocation.getLatitude());
-        double lon1 = Math.toRadians(userLocation.getLongitude());
-        double lat2 = Math.toRadians(stationLocation.getLatitude());
-        double lon2 = Math.toRadians(stationLocation.getLongitude());
-        double dLat = lat2 - lat1;
-        double dLon = lon2 - lon1;
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return 6371 * c; // Earth's radius in km
+        return GeoMath.haversine(userLocation, stationLocation);
     }
 
     public double estimateChargingTime(ChargingStationDTO station, double batteryCapacityKWh, double currentChargePercentage) {
@@ -96,32 +99,52 @@ public class ChargingStationController {
         return chargingTimeHours * 60; // Convert to minutes
     }
 
+    /**
+     * Books a port from start for as long as estimateChargingTime says the session will take,
+     * with at least minimumMinutes. Returns null when the station is fully booked for that window.
+     */
+    public Reservation bookCharging(String stationId, String userEmail, LocalDateTime start,
+                                    double batteryCapacityKWh, double currentChargePercentage, long minimumMinutes) {
+        ChargingStation station = repository.findById(stationId);
+        if (station == null) throw new IllegalArgumentException("Unknown station: " + stationId);
+        double minutes = estimateChargingTime(new ChargingStationDTO(station), batteryCapacityKWh, currentChargePercentage);
+        long duration = Math.max(minimumMinutes, (long) Math.ceil(minutes));
+        if (duration <= 0) throw new IllegalArgumentException("Charging session must last at least a minute");
+        return repository.getReservationScheduler().book(stationId, userEmail, start, start.plusMinutes(duration));
+    }
+
+    public boolean cancelReservation(String reservationId) {
+        return repository.getReservationScheduler().cancel(reservationId);
+    }
+
+    public List<Reservation> getUserReservations(String userEmail) {
+        return repository.getReservationScheduler().getReservationsByUser(userEmail);
+    }
+
     public int getTotalAvailablePorts() {
-        return dao.readChargingStations().stream()
-                .mapToInt(station -> {
-                    try {
-                        return Integer.parseInt(station.getAvailablePorts().split("/")[0]);
-                    } catch (Exception e) {
-                        return 0;
-                    }
-                })
-                .sum();
+        return (int) repository.getPortTotals().getAvailablePorts();
     }
 
     public int getTotalPorts() {
-        return dao.readChargingStations().stream()
-                .mapToInt(station -> {
-                    try {
-                        return Integer.parseInt(station.getAvailablePorts().split("/")[1]);
-                    } catch (Exception e) {
-                        return 0;
-                    }
-                })
-                .sum();
+        return (int) repository.getPortTotals().getTotalPorts();
+    }
+
+    /**
+     * Takes a free port at the station for a charging session. Counts are live state: the first
+     * change after a flush schedules the next one, which writes every count changed meanwhile.
+     */
+    public boolean reservePort(String stationId) {
+        ChargingStation station = repository.findById(stationId);
+        return station != null && station.reservePort();
+    }
+
+    public boolean releasePort(String stationId) {
+        ChargingStation station = repository.findById(stationId);
+        return station != null && station.releasePort();
     }
 
     public double calculateCarbonOffsetToday() {
-        List<ChargingStation> stations = dao.readChargingStations();
+        List<ChargingStation> stations = repository.findAll();
         double totalKWh = stations.size() * 100.0; // Arbitrary daily usage per station
         return totalKWh * 0.5; // 0.5 kg CO2 per kWh (example value)
     }
@@ -8,16 +8,34 @@ import java.util.logging.Level;
 
 public class ChargingStationDAO {
     private static final String FILE_PATH = "src/main/resources/charging_stations.txtcharging_stations.txt";
+    // Columnar copy of FILE_PATH, see StationColumnFile; generated, so kept with the other runtime data files
+    private static final String BINARY_FILE_PATH = "charging_stations.bin";
     private static final Logger LOGGER = Logger.getLogger(ChargingStationDAO.class.getName());
 
+    private final File textFile;
+    private final File binaryFile;
+
+    public ChargingStationDAO() {
+        this(new File(FILE_PATH), new File(BINARY_FILE_PATH));
+    }
+
+    // Other locations, so harnesses can work on generated files without touching the real ones
+    ChargingStationDAO(File textFile, File binaryFile) {
+        this.textFile = textFile;
+        this.binaryFile = binaryFile;
+    }
+
     public List<ChargingStation> readChargingStations() {
         List<ChargingStation> stations = new ArrayList<>();
-        File file = new File(FILE_PATH);
+        File file = textFile;
 
         if (!file.exists()) {
             initializeSampleData();
         }
 
+        List<ChargingStation> cached = readBinaryCopy(file);
+        if (cached != null) return cached;
+
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -34,11 +52,33 @@ public class ChargingStationDAO {
             LOGGER.log(Level.SEVERE, "Error reading charging stations", e);
             throw new RuntimeException("Failed to read charging stations: " + e.getMessage(), e);
         }
+        writeBinaryCopy(stations, file);
         return stations;
     }
 
+    // Returns null when the binary copy is missing, unreadable or was not made from the text file as it is now
+    private List<ChargingStation> readBinaryCopy(File textFile) {
+        if (!binaryFile.exists()) return null;
+        try {
+            StationColumnFile columns = StationColumnFile.open(binaryFile.toPath());
+            return columns.isCopyOf(textFile.toPath()) ? columns.readAll() : null;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable " + binaryFile + ", falling back to text", e);
+            return null;
+        }
+    }
+
+    // The binary copy is only a cache of the text file, so failing to write it is not fatal
+    private void writeBinaryCopy(List<ChargingStation> stations, File textFile) {
+        try {
+            StationColumnFile.write(stations, binaryFile.toPath(), textFile.toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error writing " + binaryFile, e);
+        }
+    }
+
     public void saveChargingStations(List<ChargingStation> stations) {
-        File file = new File(FILE_PATH);
+        File file = textFile;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
             for (ChargingStation station : stations) {
                 writer.write(station.toString());
@@ -48,6 +88,7 @@ public class ChargingStationDAO {
             LOGGER.log(Level.SEVERE, "Error saving charging stations", e);
             throw new RuntimeException("Failed to save charging stations: " + e.getMessage(), e);
         }
+        writeBinaryCopy(stations, file);
     }
 
     private void initializeSampleData() {
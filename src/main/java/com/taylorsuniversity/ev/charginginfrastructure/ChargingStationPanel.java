@@ -1,10 +1,12 @@
 package com.taylorsuniversity.ev.charginginfrastructure;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
 import com.taylorsuniversity.ev.analytics.CostAnalysisPanel;
 import com.taylorsuniversity.ev.analytics.EnvironmentalPanel;
-import com.taylorsuniversity.ev.routeplanning.TripPlannerController;
+import com.taylorsuniversity.ev.routeplanning.Trip;
 import com.taylorsuniversity.ev.routeplanning.TripPlanningPanel;
 import com.taylorsuniversity.ev.usermanagement.*;
+import com.taylorsuniversity.ev.util.GeoPoints;
 import com.taylorsuniversity.ev.util.Location;
 import com.taylorsuniversity.ev.vehiclemanagement.VehiclePanel;
 import org.jxmapviewer.JXMapViewer;
@@ -25,13 +27,17 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ChargingStationPanel extends JPanel {
     private static final long serialVersionUID = 1L;
     private final User user;
-    private final ChargingStationController controller;
-    private final TripPlannerController tripController;
+    private final PanelDataLoader loader = PanelDataLoader.getInstance();
+    private final PanelDataLoader.PanelTimer timer;
+    private ChargingStationController controller; // Set with the first station list
+    private int filterRequests; // Only the latest filter's result is shown; touched only on the EDT
     private List<ChargingStationDTO> chargingStations;
     private JXMapViewer mapViewer;
     private JPanel detailsPanel;
@@ -43,20 +49,21 @@ public class ChargingStationPanel extends JPanel {
 
     public ChargingStationPanel(User user) {
         this.user = user != null ? user : new User("Guest", "guest@example.com", "1234567890", "GUEST123", "ABC123", "password");
-        this.controller = new ChargingStationController();
-        this.tripController = new TripPlannerController();
+        this.timer = loader.startTimer(this, "Charging Stations");
         this.userLocation = new Location("User Location", 27.7172, 85.3240);
         setLayout(new BorderLayout());
         setBackground(new Color(245, 247, 250));
         setBorder(new EmptyBorder(30, 30, 30, 30)); // More breathing room
 
-        chargingStations = controller.getFilteredChargingStations("AVAILABLE");
+        chargingStations = new ArrayList<>();
 
         JPanel leftSidebar = createLeftSidebar();
         add(leftSidebar, BorderLayout.WEST);
 
         JPanel rightPanel = createRightPanel();
         add(rightPanel, BorderLayout.CENTER);
+
+        filterStations("AVAILABLE");
     }
 
     private JPanel createLeftSidebar() {
@@ -137,19 +144,7 @@ public class ChargingStationPanel extends JPanel {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        try {
-            java.net.URL imgURL = getClass().getResource(path);
-            if (imgURL != null) {
-                ImageIcon icon = new ImageIcon(imgURL);
-                Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            LOGGER.warning("Icon not found: " + path);
-            return null;
-        } catch (Exception e) {
-            LOGGER.severe("Error loading icon " + path + ": " + e.getMessage());
-            return null;
-        }
+        return PanelDataLoader.getInstance().icon(path, width, height);
     }
 
 
@@ -198,9 +193,7 @@ public class ChargingStationPanel extends JPanel {
         gbc.fill = GridBagConstraints.BOTH;
         gbc.weighty = 0.7;
         stationListModel = new DefaultListModel<>();
-        for (ChargingStationDTO station : chargingStations) {
-            stationListModel.addElement(station.getName() + " (" + station.getStatus() + ")");
-        }
+        fillStationList();
         stationList = new JList<>(stationListModel);
         stationList.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         stationList.addListSelectionListener(e -> {
@@ -233,8 +226,7 @@ public class ChargingStationPanel extends JPanel {
 
         gbc.gridx = 2;
         gbc.gridwidth = 2;
-        statsLabel = new JLabel("Available Ports: " + controller.getTotalAvailablePorts() + "/" + controller.getTotalPorts() +
-                " | Carbon Offset Today: " + String.format("%.1f kg", controller.calculateCarbonOffsetToday()));
+        statsLabel = new JLabel("Loading stations...");
         statsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         statsLabel.setForeground(new Color(34, 139, 87));
         rightPanel.add(statsLabel, gbc);
@@ -386,34 +378,73 @@ public class ChargingStationPanel extends JPanel {
         detailsPanel.repaint();
     }
 
-    private void filterStations(String filter) {
-        if ("NEARBY".equals(filter)) {
-            chargingStations = controller.getNearbyStations(userLocation, 50.0);
-        } else {
-            chargingStations = controller.getFilteredChargingStations(filter);
-        }
+    // One row per station with its distance from the user, all distances computed in one pass
+    private void fillStationList() {
         stationListModel.clear();
-        for (ChargingStationDTO station : chargingStations) {
-            stationListModel.addElement(station.getName() + " (" + station.getStatus() + ")");
+        int n = chargingStations.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = chargingStations.get(i).getLatitude();
+            longitudes[i] = chargingStations.get(i).getLongitude();
+        }
+        double[] distances = GeoPoints.of(latitudes, longitudes).distancesFrom(userLocation.getLatitude(), userLocation.getLongitude());
+        for (int i = 0; i < n; i++) {
+            ChargingStationDTO station = chargingStations.get(i);
+            stationListModel.addElement(String.format("%s (%s) - %.1f km", station.getName(), station.getStatus(), distances[i]));
         }
+    }
+
+    private void filterStations(String filter) {
+        int request = ++filterRequests;
+        CompletableFuture<List<ChargingStationDTO>> stations = "NEARBY".equals(filter)
+                ? loader.nearbyStations(userLocation, 50.0) : loader.stations(filter);
+        CompletableFuture<StationsLoaded> loaded = stations.thenCombine(loader.stationController(), StationsLoaded::new);
+        loader.deliver(loaded, result -> {
+            if (request == filterRequests) showStations(result);
+        }, error -> JOptionPane.showMessageDialog(this, "Could not load stations: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    private void showStations(StationsLoaded result) {
+        controller = result.controller;
+        chargingStations = result.stations;
+        fillStationList();
         statsLabel.setText("Available Ports: " + controller.getTotalAvailablePorts() + "/" + controller.getTotalPorts() +
                 " | Carbon Offset Today: " + String.format("%.1f kg", controller.calculateCarbonOffsetToday()));
         updateDetails(chargingStations.isEmpty() ? null : chargingStations.get(0));
         updateMap(chargingStations.isEmpty() ? null : chargingStations.get(0));
+        timer.dataShown();
     }
 
     private void navigateToStation(ChargingStationDTO station) {
         Location stationLocation = new Location(station.getName(), station.getLatitude(), station.getLongitude());
-        try {
-            tripController.planTrip(user, userLocation, stationLocation);
-            JOptionPane.showMessageDialog(this, "Trip to " + station.getName() + " planned successfully!", "Navigation", JOptionPane.INFORMATION_MESSAGE);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Failed to plan trip: " + e.getMessage());
-            // Fallback: Show direct line on map
-            updateMapWithFallback(station);
-            JOptionPane.showMessageDialog(this,
-                    "No valid route found to " + station.getName() + ". Showing direct distance instead.",
-                    "Navigation Warning", JOptionPane.WARNING_MESSAGE);
+        // Planning reads the route graph and saves the trip, so it runs off the EDT
+        CompletableFuture<Trip> trip = loader.tripPlanner()
+                .thenApply(planner -> planner.planTrip(user, userLocation, stationLocation));
+        loader.deliver(trip,
+                planned -> JOptionPane.showMessageDialog(this, "Trip to " + station.getName() + " planned successfully!", "Navigation", JOptionPane.INFORMATION_MESSAGE),
+                error -> {
+                    if (!(error instanceof IllegalArgumentException)) {
+                        LOGGER.log(Level.SEVERE, "Failed to plan trip", error);
+                        JOptionPane.showMessageDialog(this, "Error planning trip: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    System.err.println("Failed to plan trip: " + error.getMessage());
+                    // Fallback: Show direct line on map
+                    updateMapWithFallback(station);
+                    JOptionPane.showMessageDialog(this,
+                            "No valid route found to " + station.getName() + ". Showing direct distance instead.",
+                            "Navigation Warning", JOptionPane.WARNING_MESSAGE);
+                });
+    }
+
+    private static final class StationsLoaded {
+        final List<ChargingStationDTO> stations;
+        final ChargingStationController controller;
+
+        StationsLoaded(List<ChargingStationDTO> stations, ChargingStationController controller) {
+            this.stations = stations;
+            this.controller = controller;
         }
     }
 
@@ -0,0 +1,371 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import com.taylorsuniversity.ev.util.GeoGridIndex;
+import com.taylorsuniversity.ev.util.GeoMath;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resident store for charging stations. The station file is parsed once on first use and
+ * every read is served from memory. Changes are written back to disk by a background thread,
+ * batched so that a burst of updates results in a single file write.
+ */
+public class ChargingStationRepository {
+    private static final Logger LOGGER = Logger.getLogger(ChargingStationRepository.class.getName());
+    private static final long FLUSH_DELAY_MS = 500;
+    private static final int MAX_RETRY_DOUBLINGS = 6; // Failed writes are retried after 1, 2, 4 ... 32 s
+    private static volatile ChargingStationRepository instance;
+
+    private final ChargingStationDAO dao;
+    private final Map<String, ChargingStation> stations = new LinkedHashMap<>(); // Guarded by this
+    private final GeoGridIndex<String> spatialIndex = new GeoGridIndex<>(); // Station IDs, guarded by this
+    private final StationNeighborTable neighbors =
+            new StationNeighborTable(StationNeighborTable.DEFAULT_NEIGHBORS, spatialIndex, stations::get); // Guarded by this
+    private final FleetPortTotals portTotals = new FleetPortTotals();
+    private ReservationScheduler reservationScheduler; // Guarded by this, created on first use
+    private volatile List<ChargingStation> snapshot = Collections.emptyList(); // null until rebuilt after a change
+    private volatile NearestView nearestView; // null until rebuilt after a change
+    private final ScheduledExecutorService flusher;
+    private final Object writeLock = new Object(); // Keeps file writes in snapshot order
+    private boolean flushScheduled; // Guarded by this
+    private long pendingChanges; // Guarded by this
+    private int failedFlushes; // Guarded by this, consecutive
+    private final AtomicBoolean portCountsDirty = new AtomicBoolean(); // Session port counts differ from the file
+    private int flushSuspensions; // Guarded by this
+    private volatile long version; // Written under this
+
+    public ChargingStationRepository(ChargingStationDAO dao) {
+        if (dao == null) throw new IllegalArgumentException("DAO cannot be null");
+        this.dao = dao;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "station-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        portTotals.setSessionListener(this::portsChanged);
+        load();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "station-flusher-shutdown"));
+    }
+
+    // Shared instance so every controller works against the same in-memory data
+    public static ChargingStationRepository getInstance() {
+        if (instance == null) {
+            synchronized (ChargingStationRepository.class) {
+                if (instance == null) {
+                    instance = new ChargingStationRepository(new ChargingStationDAO());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private synchronized void load() {
+        long startNanos = System.nanoTime();
+        for (ChargingStation station : stations.values()) station.attachTotals(null);
+        stations.clear();
+        spatialIndex.clear();
+        neighbors.clear();
+        for (ChargingStation station : dao.readChargingStations()) {
+            put(station);
+            indexLocation(station);
+        }
+        snapshot = null;
+        nearestView = null;
+        version++;
+        LOGGER.log(Level.INFO, "Loaded {0} charging stations into memory in {1} ms",
+                new Object[]{stations.size(), (System.nanoTime() - startNanos) / 1_000_000});
+    }
+
+    // Discards in-memory state and re-reads the station file
+    public void reload() {
+        flush();
+        load();
+    }
+
+    // Returns an immutable view; the station objects themselves are shared, use save() after changing one
+    public List<ChargingStation> findAll() {
+        List<ChargingStation> current = snapshot;
+        return current != null ? current : rebuildSnapshot();
+    }
+
+    public synchronized ChargingStation findById(String stationId) {
+        return stationId != null ? stations.get(stationId) : null;
+    }
+
+    // Changes whenever a station is added, replaced or removed, so caches built from the stations can tell they are stale
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return stations.size();
+    }
+
+    // Adds or replaces a station; also call this after moving one so the spatial index follows
+    public synchronized void save(ChargingStation station) {
+        if (station == null || station.getStationId() == null) {
+            throw new IllegalArgumentException("Station and station ID cannot be null");
+        }
+        put(station);
+        indexLocation(station);
+        markChanged();
+    }
+
+    public synchronized void saveAll(List<ChargingStation> updated) {
+        if (updated == null) throw new IllegalArgumentException("Stations list cannot be null");
+        for (ChargingStation station : updated) {
+            if (station != null && station.getStationId() != null) {
+                put(station);
+                indexLocation(station);
+            }
+        }
+        markChanged();
+    }
+
+    public synchronized boolean remove(String stationId) {
+        ChargingStation removed = stationId != null ? stations.remove(stationId) : null;
+        if (removed == null) return false;
+        removed.attachTotals(null);
+        spatialIndex.remove(stationId);
+        neighbors.stationRemoved(stationId);
+        if (reservationScheduler != null) reservationScheduler.stationRemoved(stationId);
+        markChanged();
+        return true;
+    }
+
+    // Free and total ports over all stations, kept up to date as ports are reserved and released
+    public FleetPortTotals getPortTotals() {
+        return portTotals;
+    }
+
+    // Port bookings for the stations in this repository
+    public synchronized ReservationScheduler getReservationScheduler() {
+        if (reservationScheduler == null) reservationScheduler = new ReservationScheduler(this);
+        return reservationScheduler;
+    }
+
+    // Stations within radiusKm of the point, nearest first
+    public synchronized List<ChargingStation> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        return resolve(spatialIndex.withinRadius(latitude, longitude, radiusKm));
+    }
+
+    // The k stations closest to the point, nearest first
+    public synchronized List<ChargingStation> findNearest(double latitude, double longitude, int k) {
+        return resolve(spatialIndex.nearest(latitude, longitude, k));
+    }
+
+    /**
+     * Nearest station to the given one that passes the filter and lies within maxKm. Answered from
+     * the neighbour table, falling back to a radius search only when every listed neighbour in
+     * range is filtered out and the table does not cover the whole range. Reads a published view
+     * and takes no lock once the station's row is in it, so planners on many threads do not queue
+     * on the repository.
+     */
+    public NearbyStation findNearestFrom(String stationId, double maxKm, Predicate<ChargingStation> filter) {
+        if (stationId == null) return null;
+        NearestView view = nearestView();
+        ChargingStation origin = view.stations.get(stationId);
+        if (origin == null || origin.getLocation() == null) return null;
+        StationNeighborTable.Row row = view.rows.get(stationId);
+        if (row == null) row = loadRow(view, stationId);
+        for (int i = 0; i < row.size; i++) {
+            if (row.km[i] > maxKm) return null;
+            ChargingStation station = view.stations.get(row.ids[i]);
+            if (station != null && filter.test(station)) return new NearbyStation(station, row.km[i]);
+        }
+        if (row.complete) return null;
+        return view.nearestFrom(origin.getLatitude(), origin.getLongitude(), maxKm,
+                station -> !station.getStationId().equals(stationId) && filter.test(station));
+    }
+
+    // Nearest station to an arbitrary point that passes the filter and lies within maxKm; lock-free like the above
+    public NearbyStation findNearestFrom(double latitude, double longitude, double maxKm,
+                                         Predicate<ChargingStation> filter) {
+        return nearestView().nearestFrom(latitude, longitude, maxKm, filter);
+    }
+
+    // Writes pending changes to disk on the calling thread
+    public void flush() {
+        synchronized (writeLock) {
+            List<ChargingStation> toWrite;
+            synchronized (this) {
+                flushScheduled = false;
+                boolean portCounts = portCountsDirty.getAndSet(false);
+                if (pendingChanges == 0 && !portCounts) return;
+                pendingChanges = 0;
+                toWrite = findAll();
+            }
+            try {
+                dao.saveChargingStations(new ArrayList<>(toWrite));
+                synchronized (this) {
+                    failedFlushes = 0;
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingChanges++;
+                    failedFlushes++;
+                    long retryMs = FLUSH_DELAY_MS << Math.min(failedFlushes, MAX_RETRY_DOUBLINGS);
+                    LOGGER.log(Level.SEVERE, "Failed to flush charging stations, retrying in " + retryMs + " ms", e);
+                    scheduleFlush(retryMs);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams a registry file into the repository in batches (see StationImportPipeline). The
+     * write-behind flush is held back until the import finishes, so the file is rewritten once
+     * rather than every FLUSH_DELAY_MS while rows are still arriving.
+     */
+    public StationImportPipeline.Progress importFile(Path file, StationImportPipeline.ImportListener listener) throws IOException {
+        synchronized (this) {
+            flushSuspensions++;
+        }
+        try {
+            return new StationImportPipeline(this::saveAll).importFile(file, listener);
+        } finally {
+            synchronized (this) {
+                flushSuspensions--;
+                if (pendingChanges > 0 || portCountsDirty.get()) scheduleFlush();
+            }
+        }
+    }
+
+    private void markChanged() {
+        snapshot = null;
+        nearestView = null;
+        version++;
+        pendingChanges++;
+        scheduleFlush();
+    }
+
+    // Reservations and releases change no station record, only its live port count; the first since
+    // the last flush schedules one so the counts survive a restart without a write per session
+    private void portsChanged() {
+        if (portCountsDirty.get() || !portCountsDirty.compareAndSet(false, true)) return;
+        synchronized (this) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        scheduleFlush(FLUSH_DELAY_MS);
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (!flushScheduled && flushSuspensions == 0) {
+            flushScheduled = true;
+            flusher.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void put(ChargingStation station) {
+        ChargingStation previous = stations.put(station.getStationId(), station);
+        if (previous != null && previous != station) previous.attachTotals(null);
+        station.attachTotals(portTotals);
+    }
+
+    private void indexLocation(ChargingStation station) {
+        if (station.getLocation() == null) {
+            spatialIndex.remove(station.getStationId());
+            neighbors.stationRemoved(station.getStationId());
+            return;
+        }
+        spatialIndex.put(station.getStationId(), station.getLatitude(), station.getLongitude());
+        neighbors.stationSaved(station);
+    }
+
+    private List<ChargingStation> resolve(List<String> stationIds) {
+        List<ChargingStation> result = new ArrayList<>(stationIds.size());
+        for (String stationId : stationIds) {
+            ChargingStation station = stations.get(stationId);
+            if (station != null) result.add(station);
+        }
+        return result;
+    }
+
+    private NearestView nearestView() {
+        NearestView current = nearestView;
+        return current != null ? current : rebuildNearestView();
+    }
+
+    private synchronized NearestView rebuildNearestView() {
+        if (nearestView != null) return nearestView;
+        long startNanos = System.nanoTime();
+        Map<String, ChargingStation> copy = new HashMap<>(stations);
+        GeoGridIndex<String> index = new GeoGridIndex<>();
+        for (ChargingStation station : stations.values()) {
+            if (station.getLocation() != null) index.put(station.getStationId(), station.getLatitude(), station.getLongitude());
+        }
+        nearestView = new NearestView(copy, index);
+        LOGGER.log(Level.FINE, "Rebuilt nearest-station view of {0} stations in {1} ms",
+                new Object[]{copy.size(), (System.nanoTime() - startNanos) / 1_000_000});
+        return nearestView;
+    }
+
+    // Copies a row from the neighbour table, which keeps patched rows across changes, into the view
+    private synchronized StationNeighborTable.Row loadRow(NearestView view, String stationId) {
+        StationNeighborTable.Row row = neighbors.neighbors(stationId).copy();
+        if (nearestView == view) view.rows.put(stationId, row); // A newer table row must not enter an older view
+        return row;
+    }
+
+    private synchronized List<ChargingStation> rebuildSnapshot() {
+        if (snapshot == null) snapshot = Collections.unmodifiableList(new ArrayList<>(stations.values()));
+        return snapshot;
+    }
+
+    /**
+     * Stations and a spatial index as of one version, never modified once published, plus the
+     * neighbour rows copied in as they are first asked for.
+     */
+    private static final class NearestView {
+        private final Map<String, ChargingStation> stations;
+        private final GeoGridIndex<String> index;
+        private final Map<String, StationNeighborTable.Row> rows = new ConcurrentHashMap<>();
+
+        NearestView(Map<String, ChargingStation> stations, GeoGridIndex<String> index) {
+            this.stations = stations;
+            this.index = index;
+        }
+
+        NearbyStation nearestFrom(double latitude, double longitude, double maxKm, Predicate<ChargingStation> filter) {
+            for (String stationId : index.withinRadius(latitude, longitude, maxKm)) {
+                ChargingStation station = stations.get(stationId);
+                if (station != null && filter.test(station)) {
+                    return new NearbyStation(station, GeoMath.haversine(latitude, longitude, station.getLatitude(), station.getLongitude()));
+                }
+            }
+            return null;
+        }
+    }
+
+    /** A station together with its distance from the point or station it was searched from. */
+    public static class NearbyStation {
+        private final ChargingStation station;
+        private final double distanceKm;
+
+        NearbyStation(ChargingStation station, double distanceKm) {
+            this.station = station;
+            this.distanceKm = distanceKm;
+        }
+
+        public ChargingStation getStation() { return station; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+}
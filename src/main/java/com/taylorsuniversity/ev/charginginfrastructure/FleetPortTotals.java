@@ -0,0 +1,38 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Free and total port counts summed over every station in a repository. Stations push their
+ * own deltas as ports are reserved, released or reconfigured, so reading the totals costs the
+ * same however many stations there are. Striped adders keep concurrent session events from
+ * contending on a single counter.
+ */
+public class FleetPortTotals {
+    private final LongAdder available = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private volatile Runnable sessionListener;
+
+    void add(int availableDelta, int totalDelta) {
+        if (availableDelta != 0) available.add(availableDelta);
+        if (totalDelta != 0) total.add(totalDelta);
+    }
+
+    // A port taken or freed by a charging session, as opposed to a station being added or reconfigured
+    void sessionChanged(int availableDelta) {
+        add(availableDelta, 0);
+        Runnable listener = sessionListener;
+        if (listener != null) listener.run();
+    }
+
+    // Told about every session change, e.g. so the owning repository can persist the new counts
+    void setSessionListener(Runnable listener) {
+        this.sessionListener = listener;
+    }
+
+    public long getAvailablePorts() { return available.sum(); }
+
+    public long getTotalPorts() { return total.sum(); }
+
+    public long getOccupiedPorts() { return total.sum() - available.sum(); }
+}
@@ -0,0 +1,35 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.time.LocalDateTime;
+
+/** A booking of one port on a station for the half-open window [start, end). */
+public class Reservation {
+    private final String reservationId;
+    private final String stationId;
+    private final String userEmail;
+    private final int port;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    Reservation(String reservationId, String stationId, String userEmail, int port, LocalDateTime start, LocalDateTime end) {
+        this.reservationId = reservationId;
+        this.stationId = stationId;
+        this.userEmail = userEmail;
+        this.port = port;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getReservationId() { return reservationId; }
+    public String getStationId() { return stationId; }
+    public String getUserEmail() { return userEmail; }
+    // Zero-based port number within the station
+    public int getPort() { return port; }
+    public LocalDateTime getStart() { return start; }
+    public LocalDateTime getEnd() { return end; }
+
+    @Override
+    public String toString() {
+        return reservationId + " " + stationId + "#" + port + " " + start + " - " + end + " (" + userEmail + ")";
+    }
+}
@@ -0,0 +1,134 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evening-peak load harness for ReservationScheduler, run against an in-memory repository so the
+ * station file is never touched. Every station has 4 ports. Each thread books 30-90 minute
+ * windows starting between 17:00 and 22:00, 70% of them at the first 10% of stations (the busy
+ * centre), and cancels one of its own bookings after about every tenth attempt. Prints
+ * throughput, booked/full/cancelled counts and p50/p99/max booking latency, then checks that no
+ * port holds overlapping bookings; exits with status 1 if one does.
+ *
+ * Usage: ReservationLoadTest [stations] [threads] [attemptsPerThread]
+ */
+public class ReservationLoadTest {
+    private static final int PORTS = 4;
+    private static final int HOTSPOT_PERCENT = 70;
+    private static final LocalDateTime PEAK_START = LocalDate.now().plusDays(1).atTime(17, 0); // Future, so no booking is pruned
+
+    public static void main(String[] args) throws Exception {
+        int stationCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int attemptsPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 25_000;
+        if (stationCount < 10 || threads < 1 || attemptsPerThread < 1) {
+            System.err.println("Usage: ReservationLoadTest [stations >= 10] [threads] [attemptsPerThread]");
+            System.exit(1);
+        }
+
+        ChargingStationRepository repository = new ChargingStationRepository(new ChargingStationDAO() {
+            @Override
+            public List<ChargingStation> readChargingStations() {
+                return new ArrayList<>();
+            }
+
+            @Override
+            public void saveChargingStations(List<ChargingStation> stations) {
+                // In memory only
+            }
+        });
+        List<ChargingStation> stations = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            stations.add(new ChargingStation(stationId(i), "Load Test " + i, "AVAILABLE", "CCS", "50kW",
+                    PORTS + "/" + PORTS, 27.6 + i * 1e-4, 85.3, 15.0));
+        }
+        repository.saveAll(stations);
+        ReservationScheduler scheduler = repository.getReservationScheduler();
+
+        AtomicLong booked = new AtomicLong();
+        AtomicLong full = new AtomicLong();
+        AtomicLong cancelled = new AtomicLong();
+        long[][] latencies = new long[threads][attemptsPerThread];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(thread);
+                String user = "loadtest" + thread + "@example.com";
+                List<String> mine = new ArrayList<>();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    int station = random.nextInt(100) < HOTSPOT_PERCENT
+                            ? random.nextInt(stationCount / 10) : random.nextInt(stationCount);
+                    LocalDateTime start = PEAK_START.plusMinutes(5 * random.nextInt(60));
+                    LocalDateTime end = start.plusMinutes(30 + 5 * random.nextInt(13));
+                    long sent = System.nanoTime();
+                    Reservation reservation = scheduler.book(stationId(station), user, start, end);
+                    latencies[thread][i] = System.nanoTime() - sent;
+                    if (reservation != null) {
+                        booked.incrementAndGet();
+                        mine.add(reservation.getReservationId());
+                    } else {
+                        full.incrementAndGet();
+                    }
+                    if (random.nextInt(10) == 0 && !mine.isEmpty()
+                            && scheduler.cancel(mine.remove(random.nextInt(mine.size())))) {
+                        cancelled.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        pool.shutdown();
+
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long attempts = sorted.length;
+        System.out.printf("%d attempts from %d threads at %d stations in %.2f s: %.0f attempts/s%n",
+                attempts, threads, stationCount, elapsedSeconds, attempts / elapsedSeconds);
+        System.out.printf("booked %d, full %d, cancelled %d%n", booked.get(), full.get(), cancelled.get());
+        System.out.printf("latency p50 %.1f us, p99 %.1f us, max %.2f ms%n",
+                percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.99) / 1e3, sorted[sorted.length - 1] / 1e6);
+
+        long overlaps = countOverlaps(scheduler, stationCount);
+        System.out.printf("overlapping bookings on one port: %d%n", overlaps);
+        if (overlaps > 0) System.exit(1);
+    }
+
+    private static String stationId(int index) {
+        return "LT" + index;
+    }
+
+    // Pairs of bookings on the same port whose windows intersect; must be zero
+    private static long countOverlaps(ReservationScheduler scheduler, int stationCount) {
+        long overlaps = 0;
+        for (int i = 0; i < stationCount; i++) {
+            List<Reservation> reservations = new ArrayList<>(
+                    scheduler.getReservations(stationId(i), PEAK_START.minusHours(1), PEAK_START.plusHours(8)));
+            reservations.sort(Comparator.comparing(Reservation::getPort).thenComparing(Reservation::getStart));
+            for (int j = 1; j < reservations.size(); j++) {
+                Reservation previous = reservations.get(j - 1);
+                Reservation current = reservations.get(j);
+                if (current.getPort() == previous.getPort() && current.getStart().isBefore(previous.getEnd())) overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,242 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Books station ports for time windows. Each station has its own schedule and lock, so bookers
+ * at different stations never wait on each other. A schedule keeps one interval index per port:
+ * bookings on a port never overlap, so an ordered map from start time to booking answers "is
+ * [start, end) free" with a floor and a ceiling lookup, O(log n) in the port's bookings.
+ * Booking picks, among the free ports, the one whose previous booking ends closest before the
+ * window, which keeps the gaps left on the other ports as long as possible. Bookings that ended
+ * more than RETENTION ago are dropped whenever the station takes a new booking, and a station's
+ * schedule goes when the repository removes the station.
+ */
+public class ReservationScheduler {
+    private static final Logger LOGGER = Logger.getLogger(ReservationScheduler.class.getName());
+    static final Duration RETENTION = Duration.ofDays(1); // Ended bookings stay visible this long
+
+    private final ChargingStationRepository repository;
+    private final Map<String, StationSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> reservationsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Use ChargingStationRepository.getReservationScheduler() so every caller shares one schedule
+    ReservationScheduler(ChargingStationRepository repository) {
+        if (repository == null) throw new IllegalArgumentException("Repository cannot be null");
+        this.repository = repository;
+    }
+
+    /**
+     * Books a free port for [start, end). Returns null when every port of the station is taken
+     * for some part of the window.
+     */
+    public Reservation book(String stationId, String userEmail, LocalDateTime start, LocalDateTime end) {
+        if (userEmail == null || userEmail.trim().isEmpty()) throw new IllegalArgumentException("User email cannot be null or empty");
+        checkWindow(start, end);
+        StationSchedule schedule = scheduleFor(stationId);
+        String reservationId = "RES_" + System.currentTimeMillis() + "_" + sequence.incrementAndGet();
+        List<Reservation> expired = new ArrayList<>();
+        Reservation reservation = schedule.book(reservationId, userEmail, start, end,
+                key(LocalDateTime.now().minus(RETENTION)), expired);
+        forget(expired);
+        if (reservation == null) {
+            LOGGER.log(Level.FINE, "No free port at {0} for {1} - {2}", new Object[]{stationId, start, end});
+            return null;
+        }
+        reservations.put(reservationId, reservation);
+        // compute, not computeIfAbsent, so the set cannot be dropped as empty between lookup and add
+        reservationsByUser.compute(userEmail, (email, ids) -> {
+            Set<String> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            updated.add(reservationId);
+            return updated;
+        });
+        return reservation;
+    }
+
+    public boolean cancel(String reservationId) {
+        Reservation reservation = reservationId != null ? reservations.remove(reservationId) : null;
+        if (reservation == null) return false;
+        StationSchedule schedule = schedules.get(reservation.getStationId());
+        if (schedule != null) schedule.cancel(reservation);
+        removeFromUser(reservation);
+        return true;
+    }
+
+    // Called by the repository after it removes the station; its bookings go with it
+    void stationRemoved(String stationId) {
+        StationSchedule schedule = stationId != null ? schedules.remove(stationId) : null;
+        if (schedule == null) return;
+        List<Reservation> dropped = schedule.close();
+        forget(dropped);
+        LOGGER.log(Level.FINE, "Dropped {0} bookings for removed station {1}", new Object[]{dropped.size(), stationId});
+    }
+
+    private void forget(List<Reservation> dropped) {
+        for (Reservation reservation : dropped) {
+            if (reservations.remove(reservation.getReservationId(), reservation)) removeFromUser(reservation);
+        }
+    }
+
+    private void removeFromUser(Reservation reservation) {
+        reservationsByUser.computeIfPresent(reservation.getUserEmail(), (email, ids) -> {
+            ids.remove(reservation.getReservationId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    public Reservation findById(String reservationId) {
+        return reservationId != null ? reservations.get(reservationId) : null;
+    }
+
+    // True when at least one port is free for the whole window
+    public boolean isAvailable(String stationId, LocalDateTime start, LocalDateTime end) {
+        return getFreePortCount(stationId, start, end) > 0;
+    }
+
+    public int getFreePortCount(String stationId, LocalDateTime start, LocalDateTime end) {
+        checkWindow(start, end);
+        return scheduleFor(stationId).freePorts(key(start), key(end));
+    }
+
+    // Bookings at the station that overlap [from, to), ordered by port then start
+    public List<Reservation> getReservations(String stationId, LocalDateTime from, LocalDateTime to) {
+        checkWindow(from, to);
+        StationSchedule schedule = schedules.get(stationId);
+        return schedule != null ? schedule.overlapping(key(from), key(to)) : new ArrayList<>();
+    }
+
+    public List<Reservation> getReservationsByUser(String userEmail) {
+        Set<String> ids = userEmail != null ? reservationsByUser.get(userEmail) : null;
+        if (ids == null) return new ArrayList<>();
+        List<Reservation> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Reservation reservation = reservations.get(id);
+            if (reservation != null) result.add(reservation);
+        }
+        result.sort((a, b) -> a.getStart().compareTo(b.getStart()));
+        return result;
+    }
+
+    private StationSchedule scheduleFor(String stationId) {
+        ChargingStation station = repository.findById(stationId);
+        if (station == null) throw new IllegalArgumentException("Unknown station: " + stationId);
+        StationSchedule schedule = schedules.computeIfAbsent(stationId, StationSchedule::new);
+        schedule.ensurePorts(station.getTotalPortCount());
+        return schedule;
+    }
+
+    private static void checkWindow(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) throw new IllegalArgumentException("Start and end cannot be null");
+        if (!end.isAfter(start)) throw new IllegalArgumentException("End must be after start");
+    }
+
+    // Only used for ordering, so any fixed offset will do
+    private static long key(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static class StationSchedule {
+        private final String stationId;
+        private final List<NavigableMap<Long, Reservation>> ports = new ArrayList<>(); // Guarded by this
+        private boolean closed; // Guarded by this; set once the station is removed
+
+        StationSchedule(String stationId) {
+            this.stationId = stationId;
+        }
+
+        // A station can gain ports; bookings on ports it later loses are kept
+        synchronized void ensurePorts(int count) {
+            while (ports.size() < count) ports.add(new TreeMap<>());
+        }
+
+        // Also moves bookings that ended at or before expiredBefore into expired
+        synchronized Reservation book(String reservationId, String userEmail, LocalDateTime start, LocalDateTime end,
+                                      long expiredBefore, List<Reservation> expired) {
+            if (closed) return null;
+            pruneEnded(expiredBefore, expired);
+            long from = key(start);
+            long to = key(end);
+            int chosen = -1;
+            long chosenGap = Long.MAX_VALUE;
+            for (int port = 0; port < ports.size(); port++) {
+                NavigableMap<Long, Reservation> bookings = ports.get(port);
+                if (!isFree(bookings, from, to)) continue;
+                Map.Entry<Long, Reservation> before = bookings.lowerEntry(from);
+                long gap = before != null ? from - key(before.getValue().getEnd()) : Long.MAX_VALUE - 1;
+                if (gap < chosenGap) {
+                    chosen = port;
+                    chosenGap = gap;
+                }
+            }
+            if (chosen < 0) return null;
+            Reservation reservation = new Reservation(reservationId, stationId, userEmail, chosen, start, end);
+            ports.get(chosen).put(from, reservation);
+            return reservation;
+        }
+
+        // Bookings on a port are disjoint, so they end in start order and the ended ones lead the map
+        private void pruneEnded(long expiredBefore, List<Reservation> expired) {
+            for (NavigableMap<Long, Reservation> bookings : ports) {
+                Map.Entry<Long, Reservation> first = bookings.firstEntry();
+                while (first != null && key(first.getValue().getEnd()) <= expiredBefore) {
+                    expired.add(bookings.pollFirstEntry().getValue());
+                    first = bookings.firstEntry();
+                }
+            }
+        }
+
+        synchronized List<Reservation> close() {
+            closed = true;
+            List<Reservation> dropped = new ArrayList<>();
+            for (NavigableMap<Long, Reservation> bookings : ports) dropped.addAll(bookings.values());
+            ports.clear();
+            return dropped;
+        }
+
+        synchronized void cancel(Reservation reservation) {
+            if (reservation.getPort() < ports.size()) {
+                ports.get(reservation.getPort()).remove(key(reservation.getStart()), reservation);
+            }
+        }
+
+        synchronized int freePorts(long from, long to) {
+            int free = 0;
+            for (NavigableMap<Long, Reservation> bookings : ports) {
+                if (isFree(bookings, from, to)) free++;
+            }
+            return free;
+        }
+
+        synchronized List<Reservation> overlapping(long from, long to) {
+            List<Reservation> result = new ArrayList<>();
+            for (NavigableMap<Long, Reservation> bookings : ports) {
+                Map.Entry<Long, Reservation> before = bookings.lowerEntry(from);
+                if (before != null && key(before.getValue().getEnd()) > from) result.add(before.getValue());
+                result.addAll(bookings.subMap(from, true, to, false).values());
+            }
+            return result;
+        }
+
+        // Bookings on one port are disjoint, so only the neighbours of the window can overlap it
+        private static boolean isFree(NavigableMap<Long, Reservation> bookings, long from, long to) {
+            Map.Entry<Long, Reservation> before = bookings.floorEntry(from);
+            if (before != null && key(before.getValue().getEnd()) > from) return false;
+            Long next = bookings.ceilingKey(from);
+            return next == null || next >= to;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only, memory-mapped view of a binary station catalog. The file holds one fixed-width
+ * column per field so a row is read by index without parsing:
+ * <pre>
+ *   header     int magic, int version, int rowCount, int dictionarySize,
+ *              long sourceSize, long sourceModifiedMillis (-1 when not converted from a file)
+ *   latitude   double[rowCount]
+ *   longitude  double[rowCount]
+ *   cost       double[rowCount]
+ *   ports      int[rowCount] available, int[rowCount] total
+ *   strings    int[rowCount] each for id, name, status, charger type, power output (dictionary codes)
+ *   dictionary int[dictionarySize + 1] byte offsets, then the UTF-8 bytes
+ * </pre>
+ * A port string that is not of the form "available/total" is kept verbatim: available is stored
+ * as -1 and total holds its dictionary code. Opening only maps the file and checks the header;
+ * dictionary strings are decoded on first use. The source file's size and modification time are
+ * recorded so a cached copy can tell whether its text file has been replaced, even by an older one.
+ */
+public class StationColumnFile {
+    private static final Logger LOGGER = Logger.getLogger(StationColumnFile.class.getName());
+    private static final int MAGIC = 0x45565343; // "EVSC"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int TEXT_FIELDS = 9;
+    private static final int RAW_PORTS = -1;
+
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final int dictionarySize;
+    private final long sourceSize;
+    private final long sourceModifiedMillis;
+    private final int latitudeAt;
+    private final int longitudeAt;
+    private final int costAt;
+    private final int availableAt;
+    private final int totalAt;
+    private final int stringsAt;
+    private final int dictionaryOffsetsAt;
+    private final int dictionaryBytesAt;
+    private final String[] decoded;
+
+    private StationColumnFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) throw new IOException("Not a station column file");
+        if (buffer.getInt(4) != VERSION) throw new IOException("Unsupported station column file version " + buffer.getInt(4));
+        rowCount = buffer.getInt(8);
+        dictionarySize = buffer.getInt(12);
+        sourceSize = buffer.getLong(16);
+        sourceModifiedMillis = buffer.getLong(24);
+        latitudeAt = HEADER_BYTES;
+        longitudeAt = latitudeAt + 8 * rowCount;
+        costAt = longitudeAt + 8 * rowCount;
+        availableAt = costAt + 8 * rowCount;
+        totalAt = availableAt + 4 * rowCount;
+        stringsAt = totalAt + 4 * rowCount;
+        dictionaryOffsetsAt = stringsAt + 4 * 5 * rowCount;
+        dictionaryBytesAt = dictionaryOffsetsAt + 4 * (dictionarySize + 1);
+        if (rowCount < 0 || dictionarySize < 0 || dictionaryBytesAt > buffer.capacity()
+                || dictionaryBytesAt + buffer.getInt(dictionaryOffsetsAt + 4 * dictionarySize) != buffer.capacity()) {
+            throw new IOException("Truncated or corrupt station column file");
+        }
+        decoded = new String[dictionarySize];
+    }
+
+    public static StationColumnFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Station column file too large: " + path);
+            return new StationColumnFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() { return rowCount; }
+
+    // True when the source file still has the size and modification time recorded at conversion
+    public boolean isCopyOf(Path source) throws IOException {
+        return sourceSize >= 0 && Files.size(source) == sourceSize
+                && Files.getLastModifiedTime(source).toMillis() == sourceModifiedMillis;
+    }
+
+    public double latitude(int row) { return buffer.getDouble(latitudeAt + 8 * checkRow(row)); }
+
+    public double longitude(int row) { return buffer.getDouble(longitudeAt + 8 * checkRow(row)); }
+
+    public double costPerKWh(int row) { return buffer.getDouble(costAt + 8 * checkRow(row)); }
+
+    // -1 when the port string was not of the form "available/total"
+    public int availablePortCount(int row) { return buffer.getInt(availableAt + 4 * checkRow(row)); }
+
+    public int totalPortCount(int row) {
+        return availablePortCount(row) == RAW_PORTS ? -1 : buffer.getInt(totalAt + 4 * row);
+    }
+
+    public String stationId(int row) { return string(row, 0); }
+
+    public String name(int row) { return string(row, 1); }
+
+    public String status(int row) { return string(row, 2); }
+
+    public String chargerType(int row) { return string(row, 3); }
+
+    public String powerOutput(int row) { return string(row, 4); }
+
+    public String availablePorts(int row) {
+        int available = availablePortCount(row);
+        int total = buffer.getInt(totalAt + 4 * row);
+        return available == RAW_PORTS ? dictionary(total) : available + "/" + total;
+    }
+
+    public ChargingStation station(int row) {
+        return new ChargingStation(stationId(row), name(row), status(row), chargerType(row), powerOutput(row),
+                availablePorts(row), latitude(row), longitude(row), costPerKWh(row));
+    }
+
+    public List<ChargingStation> readAll() {
+        List<ChargingStation> stations = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) stations.add(station(row));
+        return stations;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= rowCount) throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        return row;
+    }
+
+    private String string(int row, int field) {
+        return dictionary(buffer.getInt(stringsAt + 4 * (field * rowCount + checkRow(row))));
+    }
+
+    private synchronized String dictionary(int code) {
+        String value = decoded[code];
+        if (value == null) {
+            int start = buffer.getInt(dictionaryOffsetsAt + 4 * code);
+            int end = buffer.getInt(dictionaryOffsetsAt + 4 * (code + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(dictionaryBytesAt + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[code] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Writes the stations to a temp file beside the target and renames it into place, so readers
+     * never map a half-written catalog.
+     */
+    public static void write(List<ChargingStation> stations, Path path) throws IOException {
+        write(stations, path, null);
+    }
+
+    // As write, recording the size and modification time of the text file the stations came from
+    public static void write(List<ChargingStation> stations, Path path, Path source) throws IOException {
+        long sourceSize = source != null ? Files.size(source) : -1;
+        long sourceModifiedMillis = source != null ? Files.getLastModifiedTime(source).toMillis() : -1;
+        int n = stations.size();
+        Map<String, Integer> codes = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        int[] strings = new int[5 * n];
+        int[] available = new int[n];
+        int[] total = new int[n];
+        for (int row = 0; row < n; row++) {
+            ChargingStation station = stations.get(row);
+            strings[row] = code(station.getStationId(), codes, dictionary);
+            strings[n + row] = code(station.getName(), codes, dictionary);
+            strings[2 * n + row] = code(station.getStatus(), codes, dictionary);
+            strings[3 * n + row] = code(station.getChargerType(), codes, dictionary);
+            strings[4 * n + row] = code(station.getPowerOutput(), codes, dictionary);
+            int[] ports = parsePorts(station.getAvailablePorts());
+            if (ports != null) {
+                available[row] = ports[0];
+                total[row] = ports[1];
+            } else {
+                available[row] = RAW_PORTS;
+                total[row] = code(station.getAvailablePorts(), codes, dictionary);
+            }
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(dictionary.size());
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModifiedMillis);
+            for (ChargingStation station : stations) out.writeDouble(station.getLocation().getLatitude());
+            for (ChargingStation station : stations) out.writeDouble(station.getLocation().getLongitude());
+            for (ChargingStation station : stations) out.writeDouble(station.getCostPerKWh());
+            for (int value : available) out.writeInt(value);
+            for (int value : total) out.writeInt(value);
+            for (int value : strings) out.writeInt(value);
+            int offset = 0;
+            out.writeInt(0);
+            for (byte[] bytes : dictionary) {
+                offset += bytes.length;
+                out.writeInt(offset);
+            }
+            for (byte[] bytes : dictionary) out.write(bytes);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Text rows use the same nine comma-separated fields as ChargingStationDAO
+    public static List<ChargingStation> readText(Path textFile) throws IOException {
+        List<ChargingStation> stations = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(textFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] parts = line.split(",");
+                if (parts.length != TEXT_FIELDS) {
+                    if (!line.trim().isEmpty()) LOGGER.warning("Skipping line " + lineNumber + ": expected 9 fields");
+                    continue;
+                }
+                try {
+                    stations.add(new ChargingStation(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5],
+                            Double.parseDouble(parts[6]), Double.parseDouble(parts[7]), Double.parseDouble(parts[8])));
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.WARNING, "Skipping line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return stations;
+    }
+
+    public static void writeText(List<ChargingStation> stations, Path textFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(textFile, StandardCharsets.UTF_8)) {
+            for (ChargingStation station : stations) {
+                writer.write(station.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    public static int convertTextToBinary(Path textFile, Path binaryFile) throws IOException {
+        List<ChargingStation> stations = readText(textFile);
+        write(stations, binaryFile, textFile);
+        return stations.size();
+    }
+
+    public static int convertBinaryToText(Path binaryFile, Path textFile) throws IOException {
+        List<ChargingStation> stations = open(binaryFile).readAll();
+        writeText(stations, textFile);
+        return stations.size();
+    }
+
+    private static int code(String value, Map<String, Integer> codes, List<byte[]> dictionary) {
+        if (value == null) value = "null"; // Matches how toString writes a missing field to the text file
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            codes.put(value, code);
+            dictionary.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return code;
+    }
+
+    // Returns {available, total} only when formatting them back gives the identical string
+    private static int[] parsePorts(String ports) {
+        if (ports == null) return null;
+        int slash = ports.indexOf('/');
+        if (slash <= 0 || slash == ports.length() - 1) return null;
+        try {
+            int available = Integer.parseInt(ports.substring(0, slash));
+            int total = Integer.parseInt(ports.substring(slash + 1));
+            if (available < 0 || total < 0 || !(available + "/" + total).equals(ports)) return null;
+            return new int[]{available, total};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
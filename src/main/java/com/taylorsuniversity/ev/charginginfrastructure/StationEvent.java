@@ -0,0 +1,49 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+/**
+ * State of a station right after a status or port change. Events for the same station may be
+ * coalesced before delivery, so listeners should treat each one as the latest snapshot rather
+ * than as a single change.
+ */
+public class StationEvent {
+    private final String stationId;
+    private final String name;
+    private final String status;
+    private final String powerOutput;
+    private final String availablePorts;
+    private final int availablePortCount;
+    private final int totalPortCount;
+    private final long timestampMillis;
+    final long publishedNanos; // For delivery latency
+
+    StationEvent(ChargingStation station) {
+        this.stationId = station.getStationId();
+        this.name = station.getName();
+        this.status = station.getStatus();
+        this.powerOutput = station.getPowerOutput();
+        this.availablePorts = station.getAvailablePorts();
+        this.availablePortCount = station.getAvailablePortCount();
+        this.totalPortCount = station.getTotalPortCount();
+        this.timestampMillis = System.currentTimeMillis();
+        this.publishedNanos = System.nanoTime();
+    }
+
+    public String getStationId() { return stationId; }
+    public String getName() { return name; }
+    public String getStatus() { return status; }
+    public String getPowerOutput() { return powerOutput; }
+    public String getAvailablePorts() { return availablePorts; }
+    public int getAvailablePortCount() { return availablePortCount; }
+    public int getTotalPortCount() { return totalPortCount; }
+    public long getTimestampMillis() { return timestampMillis; }
+
+    // The text Observer.update used to receive
+    public String toMessage() {
+        return "Charging Station " + stationId + " - Status: " + status + ", Ports: " + availablePorts;
+    }
+
+    @Override
+    public String toString() {
+        return toMessage();
+    }
+}
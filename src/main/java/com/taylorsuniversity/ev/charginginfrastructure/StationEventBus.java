@@ -0,0 +1,250 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers station events to listeners on a dedicated pool, never on the thread that changed
+ * the station. Each subscriber has its own pending queue keyed by station: a newer event for a
+ * station already waiting replaces the older one, and the queue is drained one coalescing
+ * window after its first event arrives. A subscriber's queue holds at most queueCapacity
+ * stations; events for further stations are dropped and counted, so a slow listener loses
+ * updates instead of slowing the publisher or other listeners. A listener is never called
+ * concurrently with itself.
+ */
+public class StationEventBus {
+    private static final Logger LOGGER = Logger.getLogger(StationEventBus.class.getName());
+    private static final long DEFAULT_WINDOW_MS = 100;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static StationEventBus instance;
+
+    private final long windowMs;
+    private final int queueCapacity;
+    private final ScheduledThreadPoolExecutor executor;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Counters totals = new Counters();
+
+    @FunctionalInterface
+    public interface StationEventListener {
+        void onEvent(StationEvent event);
+    }
+
+    public StationEventBus(long windowMs, int queueCapacity, int threads) {
+        if (windowMs < 0) throw new IllegalArgumentException("Coalescing window cannot be negative");
+        if (queueCapacity <= 0 || threads <= 0) throw new IllegalArgumentException("Queue capacity and threads must be positive");
+        this.windowMs = windowMs;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "station-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized StationEventBus getInstance() {
+        if (instance == null) {
+            instance = new StationEventBus(DEFAULT_WINDOW_MS, DEFAULT_QUEUE_CAPACITY,
+                    Math.max(2, Runtime.getRuntime().availableProcessors()));
+        }
+        return instance;
+    }
+
+    // Receives events for every station
+    public Subscription subscribe(StationEventListener listener) {
+        return subscribe(null, listener);
+    }
+
+    // Receives events for one station only, or for every station when stationId is null
+    public Subscription subscribe(String stationId, StationEventListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Listener cannot be null");
+        Subscription subscription = new Subscription(stationId, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    // Never blocks; safe to call while holding locks
+    public void publish(StationEvent event) {
+        if (event == null) throw new IllegalArgumentException("Event cannot be null");
+        totals.published.increment();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.stationId == null || subscription.stationId.equals(event.getStationId())) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public Stats getStats() {
+        int queued = 0;
+        for (Subscription subscription : subscriptions) queued += subscription.queued();
+        return totals.toStats(queued);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public final class Subscription {
+        private final String stationId;
+        private final StationEventListener listener;
+        private final Counters counters = new Counters();
+        private Map<String, StationEvent> pending = new LinkedHashMap<>(); // Guarded by this
+        private boolean drainScheduled; // Guarded by this
+        private volatile boolean active = true;
+
+        private Subscription(String stationId, StationEventListener listener) {
+            this.stationId = stationId;
+            this.listener = listener;
+        }
+
+        public void unsubscribe() {
+            active = false;
+            subscriptions.remove(this);
+            synchronized (this) {
+                pending.clear();
+            }
+        }
+
+        public Stats getStats() {
+            return counters.toStats(queued());
+        }
+
+        private synchronized int queued() {
+            return pending.size();
+        }
+
+        private void offer(StationEvent event) {
+            counters.published.increment();
+            boolean schedule;
+            synchronized (this) {
+                if (!active) return;
+                if (pending.containsKey(event.getStationId())) {
+                    pending.put(event.getStationId(), event);
+                    counters.coalesced.increment();
+                    totals.coalesced.increment();
+                } else if (pending.size() >= queueCapacity) {
+                    counters.dropped.increment();
+                    totals.dropped.increment();
+                    return;
+                } else {
+                    pending.put(event.getStationId(), event);
+                }
+                schedule = !drainScheduled;
+                drainScheduled = true;
+            }
+            if (schedule) scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            try {
+                executor.schedule(this::drain, windowMs, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // Bus shut down; nothing more will be delivered
+                synchronized (this) {
+                    drainScheduled = false;
+                }
+            }
+        }
+
+        private void drain() {
+            Map<String, StationEvent> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            for (StationEvent event : batch.values()) {
+                if (!active) break;
+                // Measured from the publish of the event delivered, i.e. the age of the snapshot
+                long latencyNanos = System.nanoTime() - event.publishedNanos;
+                try {
+                    listener.onEvent(event);
+                    counters.record(latencyNanos);
+                    totals.record(latencyNanos);
+                } catch (RuntimeException e) {
+                    counters.failed.increment();
+                    totals.failed.increment();
+                    LOGGER.log(Level.WARNING, "Station event listener failed for " + event.getStationId(), e);
+                }
+            }
+            boolean again;
+            synchronized (this) {
+                again = active && !pending.isEmpty();
+                drainScheduled = again;
+            }
+            if (again) scheduleDrain();
+        }
+    }
+
+    private static class Counters {
+        final LongAdder published = new LongAdder();
+        final LongAdder delivered = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder totalLatencyNanos = new LongAdder();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        void record(long latencyNanos) {
+            delivered.increment();
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+
+        Stats toStats(int queued) {
+            long done = delivered.sum();
+            return new Stats(published.sum(), delivered.sum(), coalesced.sum(), dropped.sum(), failed.sum(), queued,
+                    done > 0 ? totalLatencyNanos.sum() / 1e6 / done : 0.0, maxLatencyNanos.get() / 1e6);
+        }
+    }
+
+    public static class Stats {
+        private final long published;
+        private final long delivered;
+        private final long coalesced;
+        private final long dropped;
+        private final long failed;
+        private final int queued;
+        private final double averageLatencyMillis;
+        private final double maxLatencyMillis;
+
+        Stats(long published, long delivered, long coalesced, long dropped, long failed, int queued,
+              double averageLatencyMillis, double maxLatencyMillis) {
+            this.published = published;
+            this.delivered = delivered;
+            this.coalesced = coalesced;
+            this.dropped = dropped;
+            this.failed = failed;
+            this.queued = queued;
+            this.averageLatencyMillis = averageLatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+        }
+
+        // On the bus, the count of publish calls; on a subscription, the events offered to it
+        public long getPublished() { return published; }
+        public long getDelivered() { return delivered; }
+        public long getCoalesced() { return coalesced; }
+        public long getDropped() { return dropped; }
+        public long getFailed() { return failed; }
+        public int getQueued() { return queued; }
+        public double getAverageLatencyMillis() { return averageLatencyMillis; }
+        public double getMaxLatencyMillis() { return maxLatencyMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("published=%d delivered=%d coalesced=%d dropped=%d failed=%d queued=%d avgLatency=%.1fms max=%.1fms",
+                    published, delivered, coalesced, dropped, failed, queued, averageLatencyMillis, maxLatencyMillis);
+        }
+    }
+}
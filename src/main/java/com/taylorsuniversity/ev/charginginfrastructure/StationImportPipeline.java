@@ -0,0 +1,304 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a station registry in the nine-field text format into a sink in batches. The calling
+ * thread reads chunks of lines; worker threads parse and validate them. Chunks are handed to the
+ * sink in file order, so a station id that appears twice ends up with its last row, and at most
+ * two chunks per worker are held in memory at any time regardless of file size.
+ */
+public class StationImportPipeline {
+    private static final Logger LOGGER = Logger.getLogger(StationImportPipeline.class.getName());
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final int MAX_REJECTS_KEPT = 1000;
+    private static final int FIELDS = 9;
+    private static final Pattern POWER = Pattern.compile("\\d+(\\.\\d+)?\\s*[kK][wW]");
+
+    private final Consumer<List<ChargingStation>> sink;
+    private final int threads;
+    private final int batchSize;
+
+    public interface ImportListener {
+        // Called on the importing thread after each batch reaches the sink
+        default void onProgress(Progress progress) {
+        }
+
+        // Called on the importing thread for every rejected row, in line order
+        default void onReject(Reject reject) {
+        }
+    }
+
+    public StationImportPipeline(Consumer<List<ChargingStation>> sink) {
+        this(sink, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public StationImportPipeline(Consumer<List<ChargingStation>> sink, int threads, int batchSize) {
+        if (sink == null) throw new IllegalArgumentException("Sink cannot be null");
+        if (threads <= 0 || batchSize <= 0) throw new IllegalArgumentException("Threads and batch size must be positive");
+        this.sink = sink;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    public Progress importFile(Path file, ImportListener listener) throws IOException {
+        ImportListener events = listener != null ? listener : new ImportListener() { };
+        long totalBytes = Files.size(file);
+        long startNanos = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "station-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Tally tally = new Tally(totalBytes, startNanos);
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(counted, StandardCharsets.UTF_8), 1 << 16)) {
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(batchSize);
+            long firstLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    submit(workers, inFlight, lines, firstLine);
+                    lines = new ArrayList<>(batchSize);
+                    firstLine = lineNumber + 1;
+                    // Back-pressure: wait for the oldest chunk before reading further ahead
+                    while (inFlight.size() >= 2 * threads) deliver(inFlight.poll(), tally, counted, events);
+                }
+            }
+            if (!lines.isEmpty()) submit(workers, inFlight, lines, firstLine);
+            while (!inFlight.isEmpty()) deliver(inFlight.poll(), tally, counted, events);
+        } finally {
+            workers.shutdownNow();
+        }
+        tally.bytesRead = totalBytes;
+        Progress result = tally.toProgress(tally.keptRejects);
+        LOGGER.log(Level.INFO, "Imported {0} stations from {1} ({2} rejected) in {3} ms",
+                new Object[]{result.getAccepted(), file, result.getRejected(), result.getElapsedMillis()});
+        return result;
+    }
+
+    private void submit(ExecutorService workers, ArrayDeque<Future<Chunk>> inFlight, List<String> lines, long firstLine) {
+        inFlight.add(workers.submit(() -> parse(lines, firstLine)));
+    }
+
+    private void deliver(Future<Chunk> future, Tally tally, CountingInputStream counted, ImportListener events) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Station import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Station import worker failed", e.getCause());
+        }
+        if (!chunk.stations.isEmpty()) sink.accept(chunk.stations);
+        for (Reject reject : chunk.rejects) {
+            events.onReject(reject);
+            if (tally.keptRejects.size() < MAX_REJECTS_KEPT) tally.keptRejects.add(reject);
+        }
+        tally.lines += chunk.lines;
+        tally.accepted += chunk.stations.size();
+        tally.rejected += chunk.rejects.size();
+        tally.bytesRead = counted.count;
+        events.onProgress(tally.toProgress(Collections.emptyList()));
+    }
+
+    private static Chunk parse(List<String> lines, long firstLine) {
+        Chunk chunk = new Chunk(lines.size());
+        String[] fields = new String[FIELDS];
+        double[] numbers = new double[3];
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            long lineNumber = firstLine + i;
+            if (line.trim().isEmpty()) continue;
+            String problem = split(line, fields);
+            if (problem == null) problem = validate(fields, numbers);
+            if (problem != null) {
+                chunk.rejects.add(new Reject(lineNumber, problem, line));
+                continue;
+            }
+            chunk.stations.add(new ChargingStation(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5],
+                    numbers[0], numbers[1], numbers[2]));
+        }
+        return chunk;
+    }
+
+    // Splits on commas without a regex; returns a problem description or null
+    private static String split(String line, String[] fields) {
+        int start = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            int comma = line.indexOf(',', start);
+            if (field == FIELDS - 1) {
+                if (comma >= 0) return "Expected 9 fields, found more";
+                comma = line.length();
+            } else if (comma < 0) {
+                return "Expected 9 fields, found " + (field + 1);
+            }
+            fields[field] = line.substring(start, comma).trim();
+            start = comma + 1;
+        }
+        return null;
+    }
+
+    // Leaves latitude, longitude and cost in numbers when the row is valid
+    private static String validate(String[] fields, double[] numbers) {
+        if (fields[0].isEmpty()) return "Missing station ID";
+        if (fields[1].isEmpty()) return "Missing station name";
+        if (!POWER.matcher(fields[4]).matches()) return "Invalid power output: " + fields[4];
+        if (!validPorts(fields[5])) return "Invalid port count: " + fields[5];
+        try {
+            numbers[0] = Double.parseDouble(fields[6]);
+            numbers[1] = Double.parseDouble(fields[7]);
+            numbers[2] = Double.parseDouble(fields[8]);
+        } catch (NumberFormatException e) {
+            return "Invalid number: " + e.getMessage();
+        }
+        double latitude = numbers[0];
+        double longitude = numbers[1];
+        double cost = numbers[2];
+        if (!(latitude >= -90 && latitude <= 90)) return "Latitude out of range: " + fields[6];
+        if (!(longitude >= -180 && longitude <= 180)) return "Longitude out of range: " + fields[7];
+        if (!(cost >= 0) || Double.isInfinite(cost)) return "Invalid cost per kWh: " + fields[8];
+        return null;
+    }
+
+    // "available/total" with 0 <= available <= total
+    private static boolean validPorts(String ports) {
+        int slash = ports.indexOf('/');
+        if (slash <= 0 || slash == ports.length() - 1) return false;
+        try {
+            int available = Integer.parseInt(ports.substring(0, slash).trim());
+            int total = Integer.parseInt(ports.substring(slash + 1).trim());
+            return available >= 0 && available <= total;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static class Reject {
+        private final long lineNumber;
+        private final String reason;
+        private final String line;
+
+        Reject(long lineNumber, String reason, String line) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.line = line;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getReason() { return reason; }
+        public String getLine() { return line; }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+
+    public static class Progress {
+        private final long linesRead;
+        private final long accepted;
+        private final long rejected;
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long elapsedMillis;
+        private final List<Reject> sampleRejects;
+
+        Progress(long linesRead, long accepted, long rejected, long bytesRead, long totalBytes, long elapsedMillis,
+                 List<Reject> sampleRejects) {
+            this.linesRead = linesRead;
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.elapsedMillis = elapsedMillis;
+            this.sampleRejects = sampleRejects;
+        }
+
+        public long getLinesRead() { return linesRead; }
+        public long getAccepted() { return accepted; }
+        public long getRejected() { return rejected; }
+        public long getBytesRead() { return bytesRead; }
+        public long getTotalBytes() { return totalBytes; }
+        public double getFractionDone() { return totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : 1.0; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        // The first rejects in line order, capped so a bad file cannot exhaust memory; empty in progress updates
+        public List<Reject> getSampleRejects() { return sampleRejects; }
+    }
+
+    private static class Chunk {
+        final List<ChargingStation> stations;
+        final List<Reject> rejects = new ArrayList<>();
+        final int lines;
+
+        Chunk(int lines) {
+            this.lines = lines;
+            this.stations = new ArrayList<>(lines);
+        }
+    }
+
+    // Running totals, touched only by the importing thread
+    private static class Tally {
+        final long totalBytes;
+        final long startNanos;
+        final List<Reject> keptRejects = new ArrayList<>();
+        long lines;
+        long accepted;
+        long rejected;
+        long bytesRead;
+
+        Tally(long totalBytes, long startNanos) {
+            this.totalBytes = totalBytes;
+            this.startNanos = startNanos;
+        }
+
+        Progress toProgress(List<Reject> samples) {
+            return new Progress(lines, accepted, rejected, bytesRead, totalBytes, (System.nanoTime() - startNanos) / 1_000_000,
+                    Collections.unmodifiableList(new ArrayList<>(samples)));
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import com.taylorsuniversity.ev.util.GeoGridIndex;
+import com.taylorsuniversity.ev.util.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Sparse station-to-station distance table: for each station, its k nearest neighbours and their
+ * distances, nearest first. A row is computed from the spatial index the first time it is asked
+ * for and kept until a change makes it wrong. When a station is added or moved, rows that now
+ * have it among their k nearest get it inserted in place; only rows that listed it at its old
+ * position are dropped and recomputed on next use. Status and price updates leave the table alone.
+ * Not thread-safe; the repository calls it under its own lock.
+ */
+class StationNeighborTable {
+    static final int DEFAULT_NEIGHBORS = 16;
+
+    private final int k;
+    private final GeoGridIndex<String> index;
+    private final Function<String, ChargingStation> lookup;
+    private final Map<String, Row> rows = new HashMap<>();
+    private final Map<String, Set<String>> listedBy = new HashMap<>(); // Station ID -> rows that contain it
+    private final Map<String, double[]> positions = new HashMap<>(); // Of row owners and listed stations, as cached
+    private int shortRows; // Rows with fewer than k entries; any new station belongs in them
+    private double maxRowRadiusKm; // Upper bound on the k-th distance of any full row
+    private long hits;
+    private long misses;
+
+    StationNeighborTable(int k, GeoGridIndex<String> index, Function<String, ChargingStation> lookup) {
+        if (k <= 0) throw new IllegalArgumentException("Neighbour count must be positive");
+        this.k = k;
+        this.index = index;
+        this.lookup = lookup;
+    }
+
+    // Neighbours of the station nearest first; empty when it is unknown or has no location
+    Row neighbors(String stationId) {
+        Row row = rows.get(stationId);
+        if (row != null) {
+            hits++;
+            return row;
+        }
+        misses++;
+        ChargingStation station = lookup.apply(stationId);
+        if (station == null || station.getLocation() == null) return Row.EMPTY;
+        double latitude = station.getLatitude();
+        double longitude = station.getLongitude();
+
+        List<String> nearest = index.nearest(latitude, longitude, k + 1);
+        row = new Row(k);
+        for (String other : nearest) {
+            if (other.equals(stationId) || row.size == k) continue;
+            ChargingStation neighbor = lookup.apply(other);
+            if (neighbor == null || neighbor.getLocation() == null) continue;
+            row.append(other, (float) GeoMath.haversine(latitude, longitude, neighbor.getLatitude(), neighbor.getLongitude()));
+            list(other, stationId, neighbor.getLatitude(), neighbor.getLongitude());
+        }
+        // Fewer than k+1 hits means the index holds no station outside the row
+        row.complete = nearest.size() <= k;
+        positions.put(stationId, new double[]{latitude, longitude});
+        rows.put(stationId, row);
+        if (row.size < k) shortRows++;
+        else maxRowRadiusKm = Math.max(maxRowRadiusKm, row.lastKm());
+        return row;
+    }
+
+    // Call after a station is added or saved, once the index holds its new position; only a move touches the table
+    void stationSaved(ChargingStation station) {
+        String stationId = station.getStationId();
+        if (station.getLocation() == null) {
+            stationRemoved(stationId);
+            return;
+        }
+        double latitude = station.getLatitude();
+        double longitude = station.getLongitude();
+        double[] before = positions.get(stationId);
+        if (before != null && before[0] == latitude && before[1] == longitude) return;
+
+        stationRemoved(stationId);
+        if (rows.isEmpty()) return;
+        List<String> candidates = shortRows > 0 ? new ArrayList<>(rows.keySet())
+                : index.withinRadius(latitude, longitude, maxRowRadiusKm);
+        for (String ownerId : candidates) {
+            Row row = rows.get(ownerId);
+            if (row == null || ownerId.equals(stationId)) continue;
+            double[] owner = positions.get(ownerId);
+            float distance = (float) GeoMath.haversine(owner[0], owner[1], latitude, longitude);
+            if (!row.accepts(distance)) continue;
+            boolean wasShort = row.size < k;
+            String evicted = row.insert(stationId, distance);
+            list(stationId, ownerId, latitude, longitude);
+            if (evicted != null) unlist(evicted, ownerId);
+            if (wasShort && row.size == k) shortRows--;
+            if (row.size == k) maxRowRadiusKm = Math.max(maxRowRadiusKm, row.lastKm());
+        }
+    }
+
+    // Rows that listed the station cannot be patched without their k+1-th neighbour, so they are dropped
+    void stationRemoved(String stationId) {
+        Set<String> owners = listedBy.remove(stationId);
+        if (owners != null) {
+            for (String ownerId : owners) dropRow(ownerId);
+        }
+        dropRow(stationId);
+        positions.remove(stationId);
+    }
+
+    void clear() {
+        rows.clear();
+        listedBy.clear();
+        positions.clear();
+        shortRows = 0;
+        maxRowRadiusKm = 0;
+    }
+
+    int cachedRows() { return rows.size(); }
+    long getHits() { return hits; }
+    long getMisses() { return misses; }
+
+    private void dropRow(String ownerId) {
+        Row row = rows.remove(ownerId);
+        if (row == null) return;
+        if (row.size < k) shortRows--;
+        for (int i = 0; i < row.size; i++) unlist(row.ids[i], ownerId);
+        if (!listedBy.containsKey(ownerId)) positions.remove(ownerId);
+    }
+
+    private void list(String stationId, String ownerId, double latitude, double longitude) {
+        listedBy.computeIfAbsent(stationId, id -> new HashSet<>()).add(ownerId);
+        positions.putIfAbsent(stationId, new double[]{latitude, longitude});
+    }
+
+    private void unlist(String stationId, String ownerId) {
+        Set<String> owners = listedBy.get(stationId);
+        if (owners == null) return;
+        owners.remove(ownerId);
+        if (owners.isEmpty()) {
+            listedBy.remove(stationId);
+            if (!rows.containsKey(stationId)) positions.remove(stationId);
+        }
+    }
+
+    /** One station's neighbours in two parallel arrays sorted by distance. */
+    static final class Row {
+        static final Row EMPTY = new Row(0);
+
+        final String[] ids;
+        final float[] km;
+        int size;
+        boolean complete = true; // True when no station outside the row exists
+
+        Row(int capacity) {
+            ids = new String[capacity];
+            km = new float[capacity];
+        }
+
+        void append(String id, float distance) {
+            ids[size] = id;
+            km[size] = distance;
+            size++;
+        }
+
+        // Independent copy for publishing to readers that do not hold the repository lock
+        Row copy() {
+            Row copy = new Row(size);
+            System.arraycopy(ids, 0, copy.ids, 0, size);
+            System.arraycopy(km, 0, copy.km, 0, size);
+            copy.size = size;
+            copy.complete = complete;
+            return copy;
+        }
+
+        float lastKm() {
+            return size > 0 ? km[size - 1] : 0f;
+        }
+
+        boolean accepts(float distance) {
+            return size < ids.length || distance < km[size - 1];
+        }
+
+        // Inserts in distance order and returns the ID pushed off the end, if any; check accepts() first
+        String insert(String id, float distance) {
+            String evicted = size == ids.length ? ids[size - 1] : null;
+            int at = size;
+            while (at > 0 && km[at - 1] > distance) at--;
+            int moved = Math.min(size, ids.length - 1) - at;
+            System.arraycopy(ids, at, ids, at + 1, moved);
+            System.arraycopy(km, at, km, at + 1, moved);
+            ids[at] = id;
+            km[at] = distance;
+            if (evicted != null) complete = false;
+            else size++;
+            return evicted;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(Arrays.copyOf(ids, size));
+        }
+    }
+}
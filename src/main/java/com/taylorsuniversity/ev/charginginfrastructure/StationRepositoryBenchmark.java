@@ -0,0 +1,92 @@
+package com.taylorsuniversity.ev.charginginfrastructure;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares ChargingStationRepository with reading through ChargingStationDAO on every call, as
+ * ChargingStationController used to. Each size gets generated station files in a temporary
+ * directory, so the real station file is never touched. One dashboard refresh is six full reads,
+ * each summing available ports over every station; both sides do the same work per read. Prints
+ * the repository's load time and the mean time per refresh for each side.
+ *
+ * Usage: StationRepositoryBenchmark [stations...] (default 10000 100000)
+ */
+public class StationRepositoryBenchmark {
+    private static final int READS_PER_REFRESH = 6;
+    private static final int WARMUP_REFRESHES = 3;
+    private static final int REFRESHES = 10;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[]{10_000, 100_000};
+        for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        for (int size : sizes) {
+            if (size < 1) {
+                System.err.println("Usage: StationRepositoryBenchmark [stations >= 1 ...]");
+                System.exit(1);
+            }
+            Path directory = Files.createTempDirectory("station-repository-bench");
+            try {
+                run(size, directory);
+            } finally {
+                Files.deleteIfExists(directory.resolve("charging_stations.txt"));
+                Files.deleteIfExists(directory.resolve("charging_stations.bin"));
+                Files.deleteIfExists(directory);
+            }
+        }
+    }
+
+    private static void run(int size, Path directory) {
+        ChargingStationDAO dao = new ChargingStationDAO(new File(directory.toFile(), "charging_stations.txt"),
+                new File(directory.toFile(), "charging_stations.bin"));
+        dao.saveChargingStations(stations(size));
+
+        double daoMillis = timeRefreshes(dao::readChargingStations);
+
+        long startNanos = System.nanoTime();
+        ChargingStationRepository repository = new ChargingStationRepository(dao);
+        double loadMillis = (System.nanoTime() - startNanos) / 1e6;
+        double repositoryMillis = timeRefreshes(repository::findAll);
+
+        System.out.printf("%d stations: DAO %.1f ms/refresh, repository %.3f ms/refresh (%.0fx), repository load %.1f ms%n",
+                size, daoMillis, repositoryMillis, daoMillis / repositoryMillis, loadMillis);
+    }
+
+    // Mean milliseconds per refresh after a warm-up
+    private static double timeRefreshes(Supplier<List<ChargingStation>> read) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_REFRESHES; i++) checksum += refresh(read);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < REFRESHES; i++) checksum += refresh(read);
+        double millis = (System.nanoTime() - startNanos) / 1e6 / REFRESHES;
+        if (checksum < 0) System.out.println(checksum); // Keeps the reads from being optimised away
+        return millis;
+    }
+
+    private static long refresh(Supplier<List<ChargingStation>> read) {
+        long availablePorts = 0;
+        for (int i = 0; i < READS_PER_REFRESH; i++) {
+            for (ChargingStation station : read.get()) availablePorts += station.getAvailablePortCount();
+        }
+        return availablePorts;
+    }
+
+    private static List<ChargingStation> stations(int size) {
+        Random random = new Random(size);
+        String[] statuses = {"AVAILABLE", "AVAILABLE", "OCCUPIED", "MAINTENANCE", "OFFLINE"};
+        List<ChargingStation> stations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int total = 1 + random.nextInt(8);
+            stations.add(new ChargingStation("BM" + i, "Benchmark Station " + i, statuses[random.nextInt(statuses.length)],
+                    "CCS", random.nextBoolean() ? "50kW" : "22kW", random.nextInt(total + 1) + "/" + total,
+                    26.3 + random.nextDouble() * 4.2, 80.0 + random.nextDouble() * 8.2, 14 + random.nextInt(3)));
+        }
+        return stations;
+    }
+}
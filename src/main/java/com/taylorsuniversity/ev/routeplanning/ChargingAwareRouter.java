@@ -0,0 +1,226 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import com.taylorsuniversity.ev.util.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimum total-time routing (driving plus charging) over (node, state-of-charge) labels.
+ * State of charge is tracked in integer steps of the battery capacity; consumption is rounded
+ * up and regeneration down, so every returned route is feasible. Labels are settled in order
+ * of elapsed time plus a great-circle driving-time bound, and a label is dropped when an
+ * earlier label at the same node already had at least as much charge, so no route is lost to
+ * pruning.
+ */
+public class ChargingAwareRouter {
+    private static final int SOC_STEPS = 10_000; // 0.01% resolution for energy bookkeeping
+    private static final int CHARGE_OPTION_STEPS = 1_000; // offer charging to every 10% level
+    private static final double STOP_OVERHEAD_HOURS = 0.1; // pulling in, plugging in, paying
+    private static final double CLIMB_KWH_PER_METER = 0.005; // ~1.8 t vehicle lifted 1 m, motor losses included
+    private static final double REGEN_EFFICIENCY = 0.6;
+    private static final double TAPER_START = 0.8; // charger power halves above 80%
+
+    private final double speedKmh;
+    private final double energyPerKmKWh;
+
+    public ChargingAwareRouter(double speedKmh, double energyPerKmKWh) {
+        if (speedKmh <= 0 || energyPerKmKWh <= 0) throw new IllegalArgumentException("Speed and consumption must be positive");
+        this.speedKmh = speedKmh;
+        this.energyPerKmKWh = energyPerKmKWh;
+    }
+
+    /**
+     * @param chargerPowerKw charger power per node id, 0 where the node cannot be used to charge
+     * @param startSocPercent charge level at the source, 0-100
+     */
+    public ChargingRoute route(RoutingGraph graph, double[] chargerPowerKw, int source, int target,
+                               double batteryCapacityKWh, double startSocPercent) {
+        if (graph == null || chargerPowerKw == null) throw new IllegalArgumentException("Graph and charger powers cannot be null");
+        int n = graph.nodeCount();
+        if (source < 0 || source >= n || target < 0 || target >= n) {
+            throw new IllegalArgumentException("Node id out of range: source=" + source + ", target=" + target);
+        }
+        if (chargerPowerKw.length < n) throw new IllegalArgumentException("Charger power array shorter than node count");
+        if (batteryCapacityKWh <= 0) throw new IllegalArgumentException("Battery capacity must be positive");
+        if (startSocPercent < 0 || startSocPercent > 100) throw new IllegalArgumentException("Charge level must be between 0 and 100");
+
+        double kWhPerStep = batteryCapacityKWh / SOC_STEPS;
+        double scale = graph.heuristicScale();
+        double targetLat = graph.latitude(target);
+        double targetLon = graph.longitude(target);
+
+        Labels labels = new Labels();
+        IndexMinHeap heap = new IndexMinHeap();
+        int[] bestSettledSoc = new int[n];
+        Arrays.fill(bestSettledSoc, -1);
+
+        int startSoc = (int) Math.floor(startSocPercent / 100.0 * SOC_STEPS);
+        heap.push(0.0, labels.add(source, 0.0, startSoc, -1, 0.0, 0));
+
+        while (!heap.isEmpty()) {
+            int label = heap.pop();
+            int node = labels.node[label];
+            int soc = labels.soc[label];
+            if (soc <= bestSettledSoc[node]) continue; // An earlier (not slower) label had as much charge
+            bestSettledSoc[node] = soc;
+            double time = labels.time[label];
+            if (node == target) return buildRoute(labels, label, kWhPerStep, startSoc);
+
+            double remaining = scale * GeoMath.haversine(graph.latitude(node), graph.longitude(node), targetLat, targetLon) / speedKmh;
+            double power = chargerPowerKw[node];
+            if (power > 0 && soc < SOC_STEPS) {
+                int level = (soc / CHARGE_OPTION_STEPS + 1) * CHARGE_OPTION_STEPS;
+                for (; level <= SOC_STEPS; level += CHARGE_OPTION_STEPS) {
+                    double hours = STOP_OVERHEAD_HOURS + chargingHours(soc, level, power, kWhPerStep);
+                    heap.push(time + hours + remaining,
+                            labels.add(node, time + hours, level, label, labels.distance[label], level - soc));
+                }
+            }
+
+            int degree = graph.degree(node);
+            for (int i = 0; i < degree; i++) {
+                int next = graph.neighbor(node, i);
+                double distance = graph.edgeDistance(node, i);
+                int nextSoc = Math.min(SOC_STEPS, soc - consumptionSteps(distance, graph.edgeElevation(node, i), kWhPerStep));
+                if (nextSoc < 0 || nextSoc <= bestSettledSoc[next]) continue;
+                double nextTime = time + distance / speedKmh;
+                double h = scale * GeoMath.haversine(graph.latitude(next), graph.longitude(next), targetLat, targetLon) / speedKmh;
+                heap.push(nextTime + h, labels.add(next, nextTime, nextSoc, label, labels.distance[label] + distance, 0));
+            }
+        }
+        return ChargingRoute.infeasible(labels.size);
+    }
+
+    private int consumptionSteps(double distanceKm, double elevationChangeM, double kWhPerStep) {
+        double kWh = distanceKm * energyPerKmKWh + (elevationChangeM > 0
+                ? elevationChangeM * CLIMB_KWH_PER_METER
+                : elevationChangeM * CLIMB_KWH_PER_METER * REGEN_EFFICIENCY);
+        double steps = kWh / kWhPerStep;
+        return steps >= 0 ? (int) Math.ceil(steps) : -(int) Math.floor(-steps);
+    }
+
+    private double chargingHours(int fromSoc, int toSoc, double powerKw, double kWhPerStep) {
+        int taperStep = (int) (TAPER_START * SOC_STEPS);
+        int fullPowerSteps = Math.max(0, Math.min(toSoc, taperStep) - fromSoc);
+        int taperedSteps = Math.max(0, toSoc - Math.max(fromSoc, taperStep));
+        return (fullPowerSteps * kWhPerStep) / powerKw + (taperedSteps * kWhPerStep) / (powerKw / 2);
+    }
+
+    private ChargingRoute buildRoute(Labels labels, int last, double kWhPerStep, int startSoc) {
+        List<Integer> chain = new ArrayList<>();
+        for (int at = last; at >= 0; at = labels.parent[at]) chain.add(at);
+        Collections.reverse(chain);
+
+        List<Integer> nodes = new ArrayList<>();
+        List<ChargingStop> stops = new ArrayList<>();
+        double chargingHours = 0;
+        int chargedSteps = 0;
+        for (int label : chain) {
+            int node = labels.node[label];
+            if (labels.charged[label] > 0) {
+                double hours = labels.time[label] - labels.time[labels.parent[label]];
+                chargingHours += hours;
+                chargedSteps += labels.charged[label];
+                stops.add(new ChargingStop(node, labels.charged[label] * kWhPerStep, hours,
+                        labels.soc[label] * 100.0 / SOC_STEPS));
+            } else {
+                nodes.add(node);
+            }
+        }
+        int[] path = nodes.stream().mapToInt(Integer::intValue).toArray();
+        double totalHours = labels.time[last];
+        double energyUsed = (startSoc + chargedSteps - labels.soc[last]) * kWhPerStep;
+        return new ChargingRoute(path, stops, labels.distance[last], totalHours - chargingHours, chargingHours,
+                Math.max(0, energyUsed), labels.soc[last] * 100.0 / SOC_STEPS, labels.size);
+    }
+
+    public static class ChargingStop {
+        private final int node;
+        private final double energyKWh;
+        private final double hours;
+        private final double departureSocPercent;
+
+        ChargingStop(int node, double energyKWh, double hours, double departureSocPercent) {
+            this.node = node;
+            this.energyKWh = energyKWh;
+            this.hours = hours;
+            this.departureSocPercent = departureSocPercent;
+        }
+
+        public int getNode() { return node; }
+        public double getEnergyKWh() { return energyKWh; }
+        public double getHours() { return hours; }
+        public double getDepartureSocPercent() { return departureSocPercent; }
+    }
+
+    public static class ChargingRoute {
+        private final int[] path;
+        private final List<ChargingStop> stops;
+        private final double distanceKm;
+        private final double drivingHours;
+        private final double chargingHours;
+        private final double energyUsedKWh;
+        private final double arrivalSocPercent;
+        private final int labelsCreated;
+
+        ChargingRoute(int[] path, List<ChargingStop> stops, double distanceKm, double drivingHours,
+                      double chargingHours, double energyUsedKWh, double arrivalSocPercent, int labelsCreated) {
+            this.path = path;
+            this.stops = stops;
+            this.distanceKm = distanceKm;
+            this.drivingHours = drivingHours;
+            this.chargingHours = chargingHours;
+            this.energyUsedKWh = energyUsedKWh;
+            this.arrivalSocPercent = arrivalSocPercent;
+            this.labelsCreated = labelsCreated;
+        }
+
+        static ChargingRoute infeasible(int labelsCreated) {
+            return new ChargingRoute(new int[0], Collections.emptyList(), 0, 0, 0, 0, 0, labelsCreated);
+        }
+
+        public boolean isFeasible() { return path.length > 0; }
+        public int[] getPath() { return path.clone(); }
+        public List<ChargingStop> getStops() { return Collections.unmodifiableList(stops); }
+        public double getDistanceKm() { return distanceKm; }
+        public double getDrivingHours() { return drivingHours; }
+        public double getChargingHours() { return chargingHours; }
+        public double getTotalHours() { return drivingHours + chargingHours; }
+        public double getEnergyUsedKWh() { return energyUsedKWh; }
+        public double getArrivalSocPercent() { return arrivalSocPercent; }
+        public int getLabelsCreated() { return labelsCreated; }
+    }
+
+    // Label storage as parallel primitive arrays
+    private static class Labels {
+        int[] node = new int[256];
+        double[] time = new double[256];
+        int[] soc = new int[256];
+        int[] parent = new int[256];
+        double[] distance = new double[256];
+        int[] charged = new int[256];
+        int size;
+
+        int add(int atNode, double atTime, int atSoc, int from, double atDistance, int chargedSteps) {
+            if (size == node.length) {
+                int capacity = size * 2;
+                node = Arrays.copyOf(node, capacity);
+                time = Arrays.copyOf(time, capacity);
+                soc = Arrays.copyOf(soc, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                distance = Arrays.copyOf(distance, capacity);
+                charged = Arrays.copyOf(charged, capacity);
+            }
+            node[size] = atNode;
+            time[size] = atTime;
+            soc[size] = atSoc;
+            parent[size] = from;
+            distance[size] = atDistance;
+            charged[size] = chargedSteps;
+            return size++;
+        }
+    }
+}
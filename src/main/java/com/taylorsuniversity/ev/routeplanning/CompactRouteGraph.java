@@ -0,0 +1,269 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import com.taylorsuniversity.ev.util.GeoMath;
+import com.taylorsuniversity.ev.util.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable road graph in compressed-sparse-row form. Node i's outgoing arcs occupy
+ * targets[offsets[i]] .. targets[offsets[i + 1] - 1], sorted by target id, with distance and
+ * elevation in the parallel float arrays. Costs roughly 12 bytes per arc instead of a HashMap
+ * entry plus an Edge object. Safe to share between threads once built.
+ */
+public class CompactRouteGraph implements RoutingGraph {
+    private final double[] coordinates; // lat, lon interleaved
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] distances; // km
+    private final float[] elevations; // meters
+    private final Location[] locations; // null for nodes added by coordinates only
+    private final Map<Location, Integer> nodeIds;
+    private final double heuristicScale;
+    private volatile RouteSearchEngine searchEngine = new RouteSearchEngine(RouteSearchEngine.Algorithm.A_STAR);
+
+    private CompactRouteGraph(double[] coordinates, int[] offsets, int[] targets, float[] distances,
+                              float[] elevations, Location[] locations, Map<Location, Integer> nodeIds) {
+        this.coordinates = coordinates;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.distances = distances;
+        this.elevations = elevations;
+        this.locations = locations;
+        this.nodeIds = nodeIds;
+        this.heuristicScale = computeHeuristicScale();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int nodeCount() { return offsets.length - 1; }
+
+    public int arcCount() { return targets.length; }
+
+    @Override
+    public double latitude(int node) { return coordinates[2 * node]; }
+
+    @Override
+    public double longitude(int node) { return coordinates[2 * node + 1]; }
+
+    @Override
+    public int degree(int node) { return offsets[node + 1] - offsets[node]; }
+
+    @Override
+    public int neighbor(int node, int index) { return targets[offsets[node] + index]; }
+
+    @Override
+    public double edgeDistance(int node, int index) { return distances[offsets[node] + index]; }
+
+    @Override
+    public double edgeElevation(int node, int index) { return elevations[offsets[node] + index]; }
+
+    @Override
+    public double heuristicScale() { return heuristicScale; }
+
+    // Node id for a location that was added to the builder, or -1
+    public int nodeId(Location location) {
+        Integer id = location != null ? nodeIds.get(location) : null;
+        return id != null ? id : -1;
+    }
+
+    public Location location(int node) {
+        Location location = locations[node];
+        return location != null ? location : new Location("Node " + node, latitude(node), longitude(node));
+    }
+
+    public void setSearchAlgorithm(RouteSearchEngine.Algorithm algorithm) {
+        this.searchEngine = new RouteSearchEngine(algorithm);
+    }
+
+    public RouteSearchEngine.PathResult findShortestPath(int source, int target) {
+        return searchEngine.search(this, source, target);
+    }
+
+    public List<Location> findShortestPath(Location start, Location end) {
+        int source = nodeId(start);
+        int target = nodeId(end);
+        if (source < 0 || target < 0 || source == target) return Collections.emptyList();
+        RouteSearchEngine.PathResult result = findShortestPath(source, target);
+        if (!result.isFound()) return Collections.emptyList();
+        List<Location> path = new ArrayList<>();
+        for (int node : result.getPath()) path.add(location(node));
+        return path;
+    }
+
+    public double calculatePathDistance(List<Location> path) {
+        if (path == null || path.size() < 2) return 0.0;
+        double totalDistance = 0.0;
+        for (int i = 0; i < path.size() - 1; i++) {
+            double distance = getDistance(nodeId(path.get(i)), nodeId(path.get(i + 1)));
+            if (distance == Double.MAX_VALUE) return Double.MAX_VALUE; // Path broken
+            totalDistance += distance;
+        }
+        return totalDistance;
+    }
+
+    public double getDistance(Location src, Location dest) {
+        return getDistance(nodeId(src), nodeId(dest));
+    }
+
+    public double getDistance(int src, int dest) {
+        int arc = findArc(src, dest);
+        return arc >= 0 ? distances[arc] : Double.MAX_VALUE;
+    }
+
+    public double getElevationChange(Location src, Location dest) {
+        int arc = findArc(nodeId(src), nodeId(dest));
+        return arc >= 0 ? elevations[arc] : 0;
+    }
+
+    private int findArc(int src, int dest) {
+        if (src < 0 || dest < 0 || src >= nodeCount()) return -1;
+        int arc = Arrays.binarySearch(targets, offsets[src], offsets[src + 1], dest);
+        return arc >= 0 ? arc : -1;
+    }
+
+    private double computeHeuristicScale() {
+        double scale = 1.0;
+        for (int node = 0; node < nodeCount(); node++) {
+            for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+                int target = targets[arc];
+                double straightLine = GeoMath.haversine(latitude(node), longitude(node), latitude(target), longitude(target));
+                if (straightLine > 0 && distances[arc] < straightLine * scale) {
+                    scale = distances[arc] / straightLine;
+                }
+            }
+        }
+        return scale;
+    }
+
+    /**
+     * Collects nodes and edges in growable primitive arrays. Adding the same edge again replaces
+     * it, matching RouteGraph.addEdge.
+     */
+    public static class Builder {
+        private double[] coordinates = new double[64];
+        private Location[] locations = new Location[32];
+        private final Map<Location, Integer> nodeIds = new HashMap<>();
+        private int nodeCount;
+        private int[] arcSources = new int[64];
+        private int[] arcTargets = new int[64];
+        private float[] arcDistances = new float[64];
+        private float[] arcElevations = new float[64];
+        private int arcCount;
+
+        public int addNode(double latitude, double longitude) {
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                throw new IllegalArgumentException("Invalid latitude or longitude values");
+            }
+            if (nodeCount == locations.length) {
+                locations = Arrays.copyOf(locations, nodeCount * 2);
+                coordinates = Arrays.copyOf(coordinates, nodeCount * 4);
+            }
+            coordinates[2 * nodeCount] = latitude;
+            coordinates[2 * nodeCount + 1] = longitude;
+            return nodeCount++;
+        }
+
+        // Returns the existing id if the location was already added
+        public int addNode(Location location) {
+            if (location == null) throw new IllegalArgumentException("Location cannot be null");
+            Integer existing = nodeIds.get(location);
+            if (existing != null) return existing;
+            int id = addNode(location.getLatitude(), location.getLongitude());
+            locations[id] = location;
+            nodeIds.put(location, id);
+            return id;
+        }
+
+        public Builder addEdge(Location src, Location dest, double distance, double elevationChange) {
+            if (src == null || dest == null || src.equals(dest)) {
+                throw new IllegalArgumentException("Edge needs two distinct locations");
+            }
+            return addEdge(addNode(src), addNode(dest), distance, elevationChange);
+        }
+
+        public Builder addEdge(int src, int dest, double distance, double elevationChange) {
+            if (src == dest) throw new IllegalArgumentException("Edge needs two distinct nodes");
+            addArc(src, dest, distance, elevationChange);
+            addArc(dest, src, distance, -elevationChange);
+            return this;
+        }
+
+        void addArc(int src, int dest, double distance, double elevationChange) {
+            if (src < 0 || src >= nodeCount || dest < 0 || dest >= nodeCount) {
+                throw new IllegalArgumentException("Unknown node id: " + src + " -> " + dest);
+            }
+            if (distance < 0) throw new IllegalArgumentException("Distance cannot be negative");
+            if (arcCount == arcSources.length) {
+                int capacity = arcCount * 2;
+                arcSources = Arrays.copyOf(arcSources, capacity);
+                arcTargets = Arrays.copyOf(arcTargets, capacity);
+                arcDistances = Arrays.copyOf(arcDistances, capacity);
+                arcElevations = Arrays.copyOf(arcElevations, capacity);
+            }
+            arcSources[arcCount] = src;
+            arcTargets[arcCount] = dest;
+            arcDistances[arcCount] = (float) distance;
+            arcElevations[arcCount] = (float) elevationChange;
+            arcCount++;
+        }
+
+        public CompactRouteGraph build() {
+            // Bucket arcs by source, keeping insertion order inside each bucket
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < arcCount; i++) offsets[arcSources[i] + 1]++;
+            for (int i = 0; i < nodeCount; i++) offsets[i + 1] += offsets[i];
+            int[] order = new int[arcCount];
+            int[] cursor = Arrays.copyOf(offsets, nodeCount);
+            for (int i = 0; i < arcCount; i++) order[cursor[arcSources[i]]++] = i;
+
+            int[] targets = new int[arcCount];
+            float[] distances = new float[arcCount];
+            float[] elevations = new float[arcCount];
+            int[] compactOffsets = new int[nodeCount + 1];
+            int out = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                compactOffsets[node] = out;
+                int from = offsets[node];
+                int to = offsets[node + 1];
+                sortByTarget(order, from, to);
+                for (int i = from; i < to; i++) {
+                    int arc = order[i];
+                    // A repeated target replaces the earlier arc, so only the last one survives
+                    if (i + 1 < to && arcTargets[order[i + 1]] == arcTargets[arc]) continue;
+                    targets[out] = arcTargets[arc];
+                    distances[out] = arcDistances[arc];
+                    elevations[out] = arcElevations[arc];
+                    out++;
+                }
+            }
+            compactOffsets[nodeCount] = out;
+
+            return new CompactRouteGraph(Arrays.copyOf(coordinates, 2 * nodeCount), compactOffsets,
+                    Arrays.copyOf(targets, out), Arrays.copyOf(distances, out), Arrays.copyOf(elevations, out),
+                    Arrays.copyOf(locations, nodeCount), new HashMap<>(nodeIds));
+        }
+
+        // Stable insertion sort; road-network degrees are small
+        private void sortByTarget(int[] order, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                int arc = order[i];
+                int target = arcTargets[arc];
+                int j = i - 1;
+                while (j >= from && arcTargets[order[j]] > target) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = arc;
+            }
+        }
+    }
+}
@@ -0,0 +1,662 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Contraction hierarchy over a {@link RoutingGraph}. Preprocessing removes nodes one at a time,
+ * least important first (edge difference, contracted neighbours and depth), and adds a shortcut
+ * u -> w through the removed node v whenever a bounded witness search finds no path from u to w
+ * that avoids v and is as short. A query then runs Dijkstra from both ends using only arcs that
+ * lead to more important nodes, which settles a few dozen nodes where A* settles a large part of
+ * the graph. Each shortcut keeps the node it bypasses so the path can be unpacked to graph arcs.
+ * Immutable once built or loaded, and safe to share between threads; query arrays come from a
+ * small shared pool, as in RouteSearchEngine.
+ *
+ * Saved files hold:
+ * <pre>
+ *   header  int magic, int version, long graph fingerprint, int nodeCount
+ *   rank    int[nodeCount]
+ *   up      int[nodeCount + 1] offsets, int arcCount, then per arc int target, int middle, double weight
+ *   down    the same layout
+ *   trailer int CRC32 of everything before it
+ * </pre>
+ * "up" arcs at u lead to higher-ranked nodes; "down" arcs at u are graph arcs from a higher-ranked
+ * node into u, stored with that node as target. middle is -1 for an original arc. The fingerprint
+ * covers node coordinates and every arc, so a file built for a different graph is rejected.
+ */
+public final class ContractionHierarchy {
+    private static final Logger LOGGER = Logger.getLogger(ContractionHierarchy.class.getName());
+    private static final int MAGIC = 0x45564348; // "EVCH"
+    private static final int VERSION = 2; // 2 adds the CRC32 trailer
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int MAX_IDLE_STATES = 64;
+    private static final ConcurrentLinkedQueue<QueryState> IDLE_STATES = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger IDLE_COUNT = new AtomicInteger();
+
+    private final long fingerprint;
+    private final int[] rank;
+    private final ArcTable up;
+    private final ArcTable down;
+
+    private ContractionHierarchy(long fingerprint, int[] rank, ArcTable up, ArcTable down) {
+        this.fingerprint = fingerprint;
+        this.rank = rank;
+        this.up = up;
+        this.down = down;
+    }
+
+    /** Contracts every node of the graph. Cost grows with graph size; meant to run offline or once at startup. */
+    public static ContractionHierarchy build(RoutingGraph graph) {
+        if (graph == null) throw new IllegalArgumentException("Graph cannot be null");
+        long startNanos = System.nanoTime();
+        ContractionHierarchy hierarchy = new Contractor(graph).contract(fingerprint(graph));
+        LOGGER.log(Level.INFO, "Contracted {0} nodes in {1} ms: {2} upward and {3} downward arcs",
+                new Object[]{graph.nodeCount(), String.format("%.1f", (System.nanoTime() - startNanos) / 1e6),
+                        hierarchy.up.arcCount(), hierarchy.down.arcCount()});
+        return hierarchy;
+    }
+
+    /**
+     * Loads the hierarchy saved at file if it was built for this graph; otherwise contracts the
+     * graph and saves the result there for the next start. A failed save is logged, not thrown.
+     */
+    public static ContractionHierarchy loadOrBuild(RoutingGraph graph, Path file) {
+        if (graph == null || file == null) throw new IllegalArgumentException("Graph and file cannot be null");
+        long expected = fingerprint(graph);
+        if (Files.exists(file)) {
+            try {
+                ContractionHierarchy loaded = read(file);
+                if (loaded.fingerprint == expected && loaded.nodeCount() == graph.nodeCount()) {
+                    LOGGER.log(Level.INFO, "Loaded contraction hierarchy for {0} nodes from {1}",
+                            new Object[]{loaded.nodeCount(), file});
+                    return loaded;
+                }
+                LOGGER.log(Level.INFO, "Contraction hierarchy in {0} was built for a different graph, rebuilding", file);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Ignoring unreadable contraction hierarchy " + file, e);
+            }
+        }
+        ContractionHierarchy built = build(graph);
+        try {
+            built.write(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error writing contraction hierarchy " + file, e);
+        }
+        return built;
+    }
+
+    public int nodeCount() {
+        return rank.length;
+    }
+
+    // True if this hierarchy was built from a graph with the same nodes and arcs
+    public boolean matches(RoutingGraph graph) {
+        return graph != null && graph.nodeCount() == nodeCount() && fingerprint(graph) == fingerprint;
+    }
+
+    /** Shortest path between two node ids, unpacked to graph nodes; same result type as RouteSearchEngine. */
+    public RouteSearchEngine.PathResult findShortestPath(int source, int target) {
+        checkNodes(source, target);
+        if (source == target) return new RouteSearchEngine.PathResult(new int[]{source}, 0.0, 0);
+        QueryState state = borrowState();
+        try {
+            int meet = search(source, target, state);
+            if (meet < 0) return RouteSearchEngine.PathResult.notFound(state.settled);
+            return new RouteSearchEngine.PathResult(unpack(state.forward, state.backward, source, target, meet),
+                    state.best, state.settled);
+        } finally {
+            returnState(state);
+        }
+    }
+
+    // Shortest distance only, without unpacking the path; Double.MAX_VALUE if unreachable
+    public double distance(int source, int target) {
+        checkNodes(source, target);
+        if (source == target) return 0.0;
+        QueryState state = borrowState();
+        try {
+            return search(source, target, state) >= 0 ? state.best : Double.MAX_VALUE;
+        } finally {
+            returnState(state);
+        }
+    }
+
+    private static QueryState borrowState() {
+        QueryState state = IDLE_STATES.poll();
+        if (state == null) return new QueryState();
+        IDLE_COUNT.decrementAndGet();
+        return state;
+    }
+
+    // Keeps at most MAX_IDLE_STATES for reuse; a burst beyond that leaves the extras to the collector
+    private static void returnState(QueryState state) {
+        if (IDLE_COUNT.incrementAndGet() <= MAX_IDLE_STATES) IDLE_STATES.offer(state);
+        else IDLE_COUNT.decrementAndGet();
+    }
+
+    private void checkNodes(int source, int target) {
+        int n = nodeCount();
+        if (source < 0 || source >= n || target < 0 || target >= n) {
+            throw new IllegalArgumentException("Node id out of range: source=" + source + ", target=" + target);
+        }
+    }
+
+    // Upward Dijkstra from both ends; returns the meeting node of the shortest path, or -1
+    private int search(int source, int target, QueryState state) {
+        state.begin(nodeCount());
+        Side forward = state.forward;
+        Side backward = state.backward;
+        int gen = state.generation;
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        int settled = 0;
+
+        forward.reach(source, 0.0, -1, -1, gen);
+        forward.heap.push(0.0, source);
+        backward.reach(target, 0.0, -1, -1, gen);
+        backward.heap.push(0.0, target);
+        // Each side may stop once its smallest key reaches the best meeting distance
+        while (true) {
+            boolean forwardOpen = !forward.heap.isEmpty() && forward.heap.peekKey() < best;
+            boolean backwardOpen = !backward.heap.isEmpty() && backward.heap.peekKey() < best;
+            if (!forwardOpen && !backwardOpen) break;
+            boolean expandForward = forwardOpen && (!backwardOpen || forward.heap.peekKey() <= backward.heap.peekKey());
+            Side side = expandForward ? forward : backward;
+            Side other = expandForward ? backward : forward;
+            ArcTable arcs = expandForward ? up : down;
+            ArcTable reverse = expandForward ? down : up;
+
+            int u = side.heap.pop();
+            if (side.done[u] == gen) continue;
+            side.done[u] = gen;
+            settled++;
+            double du = side.dist[u];
+            if (other.seen[u] == gen && du + other.dist[u] < best) {
+                best = du + other.dist[u];
+                meet = u;
+            }
+            if (stalled(side, reverse, u, du, gen)) continue;
+            for (int arc = arcs.offsets[u]; arc < arcs.offsets[u + 1]; arc++) {
+                int v = arcs.targets[arc];
+                double nd = du + arcs.weights[arc];
+                if (side.seen[v] != gen || nd < side.dist[v]) {
+                    side.reach(v, nd, u, arc, gen);
+                    side.heap.push(nd, v);
+                }
+            }
+        }
+        state.best = best;
+        state.settled = settled;
+        return meet;
+    }
+
+    /**
+     * Stall-on-demand: u need not be expanded if a higher node already reached by this side has an
+     * arc into u that gives a shorter distance, since no shortest path can then pass through u.
+     */
+    private static boolean stalled(Side side, ArcTable reverse, int u, double du, int gen) {
+        for (int arc = reverse.offsets[u]; arc < reverse.offsets[u + 1]; arc++) {
+            int v = reverse.targets[arc];
+            if (side.seen[v] == gen && side.dist[v] + reverse.weights[arc] < du) return true;
+        }
+        return false;
+    }
+
+    private int[] unpack(Side forward, Side backward, int source, int target, int meet) {
+        IntList path = new IntList();
+        path.add(source);
+        // Forward parents give source .. meet in reverse; collect the arcs and expand them in order
+        IntList forwardArcs = new IntList();
+        for (int at = meet; at != source; at = forward.parent[at]) forwardArcs.add(forward.parentArc[at]);
+        for (int i = forwardArcs.size - 1, from = source; i >= 0; i--) {
+            int arc = forwardArcs.values[i];
+            int to = up.targets[arc];
+            expand(from, to, up.middles[arc], path);
+            from = to;
+        }
+        // Backward parents run target .. meet; each down arc stands for graph arc parent -> child
+        for (int at = meet; at != target; at = backward.parent[at]) {
+            int arc = backward.parentArc[at];
+            int child = backward.parent[at];
+            expand(at, child, down.middles[arc], path);
+        }
+        return Arrays.copyOf(path.values, path.size);
+    }
+
+    // Appends the graph nodes of arc from -> to after from, expanding shortcuts without recursion
+    private void expand(int from, int to, int middle, IntList path) {
+        IntList stack = new IntList(); // Pending (from, to, middle) triples, last pushed is expanded first
+        stack.add(from);
+        stack.add(to);
+        stack.add(middle);
+        while (stack.size > 0) {
+            int m = stack.values[--stack.size];
+            int b = stack.values[--stack.size];
+            int a = stack.values[--stack.size];
+            if (m < 0) {
+                path.add(b);
+                continue;
+            }
+            // Second half pushed first so the first half comes out first
+            stack.add(m);
+            stack.add(b);
+            stack.add(middleOf(m, b));
+            stack.add(a);
+            stack.add(m);
+            stack.add(middleOf(a, m));
+        }
+    }
+
+    // Middle node of the arc a -> b, which is an up arc of a or a down arc of b depending on rank
+    private int middleOf(int a, int b) {
+        ArcTable table = rank[b] > rank[a] ? up : down;
+        int owner = rank[b] > rank[a] ? a : b;
+        int other = owner == a ? b : a;
+        for (int arc = table.offsets[owner]; arc < table.offsets[owner + 1]; arc++) {
+            if (table.targets[arc] == other) return table.middles[arc];
+        }
+        throw new IllegalStateException("Contraction hierarchy has no arc " + a + " -> " + b);
+    }
+
+    // Writes to a temp file of its own and moves it into place, so two processes saving at once do not mix their bytes
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16), new CRC32())) {
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint);
+                out.writeInt(rank.length);
+                for (int value : rank) out.writeInt(value);
+                up.writeTo(out);
+                down.writeTo(out);
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Rejects files whose checksum does not match or that carry bytes past the trailer
+    public static ContractionHierarchy read(Path path) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) throw new IOException("Not a contraction hierarchy file");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported contraction hierarchy version " + version);
+            long fingerprint = in.readLong();
+            int n = in.readInt();
+            if (n < 0) throw new IOException("Corrupt contraction hierarchy file");
+            int[] rank = new int[n];
+            for (int i = 0; i < n; i++) rank[i] = in.readInt();
+            ArcTable up = ArcTable.readFrom(in, n);
+            ArcTable down = ArcTable.readFrom(in, n);
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) throw new IOException("Contraction hierarchy checksum mismatch");
+            if (in.read() != -1) throw new IOException("Trailing data after contraction hierarchy");
+            return new ContractionHierarchy(fingerprint, rank, up, down);
+        } catch (EOFException e) {
+            throw new IOException("Truncated contraction hierarchy file", e);
+        }
+    }
+
+    // Hash of node coordinates and every arc's target and distance
+    static long fingerprint(RoutingGraph graph) {
+        long hash = 0xcbf29ce484222325L;
+        int n = graph.nodeCount();
+        hash = mix(hash, n);
+        for (int node = 0; node < n; node++) {
+            hash = mix(hash, Double.doubleToLongBits(graph.latitude(node)));
+            hash = mix(hash, Double.doubleToLongBits(graph.longitude(node)));
+            int degree = graph.degree(node);
+            hash = mix(hash, degree);
+            for (int i = 0; i < degree; i++) {
+                hash = mix(hash, graph.neighbor(node, i));
+                hash = mix(hash, Double.doubleToLongBits(graph.edgeDistance(node, i)));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /** Arcs per node in CSR form, with the bypassed node for shortcuts. */
+    private static final class ArcTable {
+        final int[] offsets;
+        final int[] targets;
+        final int[] middles;
+        final double[] weights;
+
+        ArcTable(int[] offsets, int[] targets, int[] middles, double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.middles = middles;
+            this.weights = weights;
+        }
+
+        int arcCount() {
+            return targets.length;
+        }
+
+        static ArcTable of(List<List<WorkArc>> arcsByNode, boolean outgoing) {
+            int n = arcsByNode.size();
+            int[] offsets = new int[n + 1];
+            for (int node = 0; node < n; node++) offsets[node + 1] = offsets[node] + arcsByNode.get(node).size();
+            int[] targets = new int[offsets[n]];
+            int[] middles = new int[offsets[n]];
+            double[] weights = new double[offsets[n]];
+            for (int node = 0; node < n; node++) {
+                int at = offsets[node];
+                for (WorkArc arc : arcsByNode.get(node)) {
+                    targets[at] = outgoing ? arc.to : arc.from;
+                    middles[at] = arc.middle;
+                    weights[at] = arc.weight;
+                    at++;
+                }
+            }
+            return new ArcTable(offsets, targets, middles, weights);
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            for (int offset : offsets) out.writeInt(offset);
+            out.writeInt(targets.length);
+            for (int i = 0; i < targets.length; i++) {
+                out.writeInt(targets[i]);
+                out.writeInt(middles[i]);
+                out.writeDouble(weights[i]);
+            }
+        }
+
+        static ArcTable readFrom(DataInput in, int nodeCount) throws IOException {
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i <= nodeCount; i++) offsets[i] = in.readInt();
+            int count = in.readInt();
+            if (count < 0 || offsets[0] != 0 || offsets[nodeCount] != count) throw new IOException("Corrupt contraction hierarchy file");
+            for (int i = 0; i < nodeCount; i++) {
+                if (offsets[i + 1] < offsets[i]) throw new IOException("Corrupt contraction hierarchy file");
+            }
+            int[] targets = new int[count];
+            int[] middles = new int[count];
+            double[] weights = new double[count];
+            for (int i = 0; i < count; i++) {
+                targets[i] = in.readInt();
+                middles[i] = in.readInt();
+                weights[i] = in.readDouble();
+                if (targets[i] < 0 || targets[i] >= nodeCount || middles[i] < -1 || middles[i] >= nodeCount) {
+                    throw new IOException("Corrupt contraction hierarchy file");
+                }
+            }
+            return new ArcTable(offsets, targets, middles, weights);
+        }
+    }
+
+    /** An arc of the graph being contracted; shared by the out list of from and the in list of to. */
+    private static final class WorkArc {
+        final int from;
+        final int to;
+        double weight;
+        int middle; // -1 for an original arc
+
+        WorkArc(int from, int to, double weight, int middle) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.middle = middle;
+        }
+    }
+
+    /** Contracts nodes in priority order, keeping only arcs between nodes not yet contracted. */
+    private static final class Contractor {
+        private final int n;
+        private final List<List<WorkArc>> out;
+        private final List<List<WorkArc>> in;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final int[] level;
+        // Witness search state, stamped so it is not cleared between searches
+        private final double[] dist;
+        private final int[] seen;
+        private final int[] done;
+        private final IndexMinHeap heap = new IndexMinHeap();
+        private int generation;
+
+        Contractor(RoutingGraph graph) {
+            n = graph.nodeCount();
+            out = new ArrayList<>(n);
+            in = new ArrayList<>(n);
+            for (int node = 0; node < n; node++) {
+                out.add(new ArrayList<>());
+                in.add(new ArrayList<>());
+            }
+            for (int node = 0; node < n; node++) {
+                int degree = graph.degree(node);
+                for (int i = 0; i < degree; i++) {
+                    int target = graph.neighbor(node, i);
+                    if (target != node) addArc(node, target, graph.edgeDistance(node, i), -1);
+                }
+            }
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            level = new int[n];
+            dist = new double[n];
+            seen = new int[n];
+            done = new int[n];
+        }
+
+        ContractionHierarchy contract(long fingerprint) {
+            List<List<WorkArc>> upArcs = new ArrayList<>(n);
+            List<List<WorkArc>> downArcs = new ArrayList<>(n);
+            for (int node = 0; node < n; node++) {
+                upArcs.add(null);
+                downArcs.add(null);
+            }
+            int[] rank = new int[n];
+            IndexMinHeap queue = new IndexMinHeap();
+            for (int node = 0; node < n; node++) queue.push(priority(node, shortcuts(node)), node);
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                int node = queue.pop();
+                if (contracted[node]) continue;
+                // Lazy update: the stored priority may be stale, so recheck before contracting
+                List<Shortcut> needed = shortcuts(node);
+                double current = priority(node, needed);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.push(current, node);
+                    continue;
+                }
+                for (Shortcut shortcut : needed) addArc(shortcut.from, shortcut.to, shortcut.weight, node);
+                // Every remaining neighbour is contracted later, so these are exactly the node's upward arcs
+                upArcs.set(node, new ArrayList<>(out.get(node)));
+                downArcs.set(node, new ArrayList<>(in.get(node)));
+                detach(node);
+                rank[node] = nextRank++;
+            }
+            return new ContractionHierarchy(fingerprint, rank, ArcTable.of(upArcs, true), ArcTable.of(downArcs, false));
+        }
+
+        // Edge difference, weighted up, plus contracted neighbours and depth, which spread contraction evenly
+        private double priority(int node, List<Shortcut> shortcuts) {
+            return 2.0 * (shortcuts.size() - out.get(node).size() - in.get(node).size()) + contractedNeighbors[node] + level[node];
+        }
+
+        // Shortcuts needed to keep distances if node were removed now
+        private List<Shortcut> shortcuts(int node) {
+            List<Shortcut> shortcuts = new ArrayList<>();
+            List<WorkArc> outgoing = out.get(node);
+            if (outgoing.isEmpty()) return shortcuts;
+            double maxOut = 0;
+            for (WorkArc arc : outgoing) maxOut = Math.max(maxOut, arc.weight);
+            for (WorkArc incoming : in.get(node)) {
+                int source = incoming.from;
+                witnessSearch(source, node, incoming.weight + maxOut);
+                for (WorkArc arc : outgoing) {
+                    int target = arc.to;
+                    if (target == source) continue;
+                    double via = incoming.weight + arc.weight;
+                    if (seen[target] != generation || dist[target] > via) {
+                        shortcuts.add(new Shortcut(source, target, via));
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        // Dijkstra from source that skips the node being contracted and stops past maxDistance
+        private void witnessSearch(int source, int skipped, double maxDistance) {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(done, 0);
+                generation = 1;
+            }
+            heap.clear();
+            dist[source] = 0.0;
+            seen[source] = generation;
+            heap.push(0.0, source);
+            int settled = 0;
+            while (!heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (heap.peekKey() > maxDistance) break;
+                int u = heap.pop();
+                if (done[u] == generation) continue;
+                done[u] = generation;
+                settled++;
+                for (WorkArc arc : out.get(u)) {
+                    int v = arc.to;
+                    if (v == skipped) continue;
+                    double nd = dist[u] + arc.weight;
+                    if (seen[v] != generation || nd < dist[v]) {
+                        dist[v] = nd;
+                        seen[v] = generation;
+                        heap.push(nd, v);
+                    }
+                }
+            }
+        }
+
+        // Adds the arc, or lowers the weight of an existing one between the same nodes
+        private void addArc(int from, int to, double weight, int middle) {
+            for (WorkArc arc : out.get(from)) {
+                if (arc.to == to) {
+                    if (weight < arc.weight) {
+                        arc.weight = weight;
+                        arc.middle = middle;
+                    }
+                    return;
+                }
+            }
+            WorkArc arc = new WorkArc(from, to, weight, middle);
+            out.get(from).add(arc);
+            in.get(to).add(arc);
+        }
+
+        private void detach(int node) {
+            contracted[node] = true;
+            for (WorkArc arc : out.get(node)) {
+                in.get(arc.to).remove(arc);
+                contractedNeighbors[arc.to]++;
+                level[arc.to] = Math.max(level[arc.to], level[node] + 1);
+            }
+            for (WorkArc arc : in.get(node)) {
+                out.get(arc.from).remove(arc);
+                contractedNeighbors[arc.from]++;
+                level[arc.from] = Math.max(level[arc.from], level[node] + 1);
+            }
+        }
+    }
+
+    private static final class Shortcut {
+        final int from;
+        final int to;
+        final double weight;
+
+        Shortcut(int from, int to, double weight) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    private static final class QueryState {
+        final Side forward = new Side();
+        final Side backward = new Side();
+        int generation;
+        double best; // Results of the last search
+        int settled;
+
+        void begin(int nodeCount) {
+            forward.ensureCapacity(nodeCount);
+            backward.ensureCapacity(nodeCount);
+            forward.heap.clear();
+            backward.heap.clear();
+            if (++generation == Integer.MAX_VALUE) {
+                forward.resetStamps();
+                backward.resetStamps();
+                generation = 1;
+            }
+        }
+    }
+
+    private static final class Side {
+        double[] dist = new double[0];
+        int[] parent = new int[0];
+        int[] parentArc = new int[0];
+        int[] seen = new int[0];
+        int[] done = new int[0];
+        final IndexMinHeap heap = new IndexMinHeap();
+
+        void ensureCapacity(int n) {
+            if (dist.length >= n) return;
+            int capacity = Math.max(n, dist.length * 2);
+            dist = Arrays.copyOf(dist, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            parentArc = Arrays.copyOf(parentArc, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            done = Arrays.copyOf(done, capacity);
+        }
+
+        void resetStamps() {
+            Arrays.fill(seen, 0);
+            Arrays.fill(done, 0);
+        }
+
+        void reach(int node, double distance, int from, int arc, int gen) {
+            dist[node] = distance;
+            parent[node] = from;
+            parentArc[node] = arc;
+            seen[node] = gen;
+        }
+    }
+}
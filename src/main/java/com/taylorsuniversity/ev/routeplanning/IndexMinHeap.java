@@ -0,0 +1,54 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import java.util.Arrays;
+
+// Binary min-heap of (key, int value) pairs; stale entries are skipped by the caller
+class IndexMinHeap {
+    private double[] keys = new double[64];
+    private int[] values = new int[64];
+    private int size;
+
+    boolean isEmpty() { return size == 0; }
+    int size() { return size; }
+    void clear() { size = 0; }
+    double peekKey() { return keys[0]; }
+
+    void push(double key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (keys[p] <= key) break;
+            keys[i] = keys[p];
+            values[i] = values[p];
+            i = p;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    int pop() {
+        int top = values[0];
+        size--;
+        if (size > 0) {
+            double key = keys[size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return top;
+    }
+}
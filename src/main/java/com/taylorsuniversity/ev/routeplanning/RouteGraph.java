@@ -1,54 +1,55 @@
 package com.taylorsuniversity.ev.routeplanning;
 
+import com.taylorsuniversity.ev.util.GeoMath;
 import com.taylorsuniversity.ev.util.Location;
 
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
-public class RouteGraph {
+public class RouteGraph implements RoutingGraph {
     private static final Logger LOGGER = Logger.getLogger(RouteGraph.class.getName());
     private Map<Location, Map<Location, Edge>> graph = new HashMap<>();
+    // Dense ids for the search engine, kept in step with graph
+    private final Map<Location, Integer> nodeIds = new HashMap<>();
+    private final List<Location> nodes = new ArrayList<>();
+    private final List<List<Edge>> adjacency = new ArrayList<>();
+    private double heuristicScale = 1.0;
+    private volatile long version; // Bumped on every edge change so cached routes can tell they are stale
+    private RouteSearchEngine searchEngine = new RouteSearchEngine(RouteSearchEngine.Algorithm.A_STAR);
 
     public List<Location> findShortestPath(Location start, Location end) {
+        return findShortestPath(start, end, searchEngine);
+    }
+
+    public List<Location> findShortestPath(Location start, Location end, RouteSearchEngine.Algorithm algorithm) {
+        return findShortestPath(start, end, new RouteSearchEngine(algorithm));
+    }
+
+    private List<Location> findShortestPath(Location start, Location end, RouteSearchEngine engine) {
         if (start == null || end == null || !graph.containsKey(start) || !graph.containsKey(end)) {
             LOGGER.log(Level.WARNING, "Invalid path input: start={0}, end={1}", new Object[]{start, end});
             return Collections.emptyList();
         }
+        if (start.equals(end)) return Collections.emptyList();
 
-        Map<Location, Double> distances = new HashMap<>();
-        Map<Location, Location> previous = new HashMap<>();
-        PriorityQueue<Location> pq = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<Location> visited = new HashSet<>();
-
-        for (Location node : graph.keySet()) distances.put(node, Double.MAX_VALUE);
-        distances.put(start, 0.0);
-        pq.add(start);
-
-        while (!pq.isEmpty()) {
-            Location current = pq.poll();
-            if (visited.contains(current)) continue;
-            visited.add(current);
-
-            if (current.equals(end)) break;
-
-            Map<Location, Edge> neighbors = graph.getOrDefault(current, Collections.emptyMap());
-            for (Map.Entry<Location, Edge> entry : neighbors.entrySet()) {
-                Location neighbor = entry.getKey();
-                Edge edge = entry.getValue();
-                double newDist = distances.get(current) + edge.distance;
-                if (newDist < distances.getOrDefault(neighbor, Double.MAX_VALUE)) {
-                    distances.put(neighbor, newDist);
-                    previous.put(neighbor, current);
-                    pq.add(neighbor);
-                }
-            }
-        }
-
+        RouteSearchEngine.PathResult result = engine.search(this, nodeIds.get(start), nodeIds.get(end));
+        if (!result.isFound()) return Collections.emptyList();
         List<Location> path = new ArrayList<>();
-        for (Location at = end; at != null; at = previous.get(at)) path.add(at);
-        Collections.reverse(path);
-        return path.size() > 1 && path.get(0).equals(start) ? path : Collections.emptyList();
+        for (int node : result.getPath()) path.add(nodes.get(node));
+        return path;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public RouteSearchEngine.Algorithm getSearchAlgorithm() {
+        return searchEngine.getAlgorithm();
+    }
+
+    public void setSearchAlgorithm(RouteSearchEngine.Algorithm algorithm) {
+        this.searchEngine = new RouteSearchEngine(algorithm);
     }
 
     public double calculatePathDistance(List<Location> path) {
@@ -66,6 +67,7 @@ public class RouteGraph {
 
     public static class Edge {
         Location destination;
+        int destinationId;
         double distance; // km
         double elevationChange; // meters
 
@@ -86,14 +88,67 @@ public class RouteGraph {
             LOGGER.log(Level.WARNING, "Invalid edge: src={0}, dest={1}", new Object[]{src, dest});
             return;
         }
-        graph.computeIfAbsent(src, k -> new HashMap<>()).put(dest, new Edge(dest, distance, elevationChange));
-        graph.computeIfAbsent(dest, k -> new HashMap<>()).put(src, new Edge(src, distance, -elevationChange));
-        LOGGER.log(Level.INFO, "Added edge: {0} -> {1}, distance={2}km, elevation={3}m",
+        putEdge(src, new Edge(dest, distance, elevationChange));
+        putEdge(dest, new Edge(src, distance, -elevationChange));
+        version++;
+        double straightLine = GeoMath.haversine(src, dest);
+        if (straightLine > 0 && distance < straightLine * heuristicScale) {
+            heuristicScale = distance / straightLine; // Keep the A* lower bound admissible
+        }
+        LOGGER.log(Level.FINE, "Added edge: {0} -> {1}, distance={2}km, elevation={3}m",
                 new Object[]{src.getName(), dest.getName(), distance, elevationChange});
     }
 
+    private void putEdge(Location src, Edge edge) {
+        int srcId = nodeId(src);
+        edge.destinationId = nodeId(edge.destination);
+        Edge previous = graph.computeIfAbsent(src, k -> new HashMap<>()).put(edge.destination, edge);
+        List<Edge> edges = adjacency.get(srcId);
+        if (previous == null) {
+            edges.add(edge);
+        } else {
+            for (int i = 0; i < edges.size(); i++) {
+                if (edges.get(i) == previous) {
+                    edges.set(i, edge);
+                    break;
+                }
+            }
+        }
+    }
+
+    private int nodeId(Location location) {
+        Integer id = nodeIds.get(location);
+        if (id != null) return id;
+        nodeIds.put(location, nodes.size());
+        nodes.add(location);
+        adjacency.add(new ArrayList<>());
+        return nodes.size() - 1;
+    }
+
+    // Dense id used by RoutingGraph methods, or -1 if the location is not a node
+    public int getNodeId(Location location) {
+        Integer id = location != null ? nodeIds.get(location) : null;
+        return id != null ? id : -1;
+    }
+
+    public Location getNode(int nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    // Immutable CSR copy of the current edges; node ids are preserved
+    public CompactRouteGraph toCompactGraph() {
+        CompactRouteGraph.Builder builder = CompactRouteGraph.builder();
+        for (Location node : nodes) builder.addNode(node);
+        for (int src = 0; src < adjacency.size(); src++) {
+            for (Edge edge : adjacency.get(src)) {
+                builder.addArc(src, edge.destinationId, edge.distance, edge.elevationChange);
+            }
+        }
+        return builder.build();
+    }
+
     public List<Location> dijkstra(Location start, Location end) {
-        return findShortestPath(start, end);
+        return findShortestPath(start, end, RouteSearchEngine.Algorithm.DIJKSTRA);
     }
 
     public double getDistance(Location src, Location dest) {
@@ -101,6 +156,30 @@ public class RouteGraph {
         return edge != null ? edge.distance : Double.MAX_VALUE;
     }
 
+    @Override
+    public int nodeCount() { return nodes.size(); }
+
+    @Override
+    public double latitude(int node) { return nodes.get(node).getLatitude(); }
+
+    @Override
+    public double longitude(int node) { return nodes.get(node).getLongitude(); }
+
+    @Override
+    public int degree(int node) { return adjacency.get(node).size(); }
+
+    @Override
+    public int neighbor(int node, int index) { return adjacency.get(node).get(index).destinationId; }
+
+    @Override
+    public double edgeDistance(int node, int index) { return adjacency.get(node).get(index).distance; }
+
+    @Override
+    public double edgeElevation(int node, int index) { return adjacency.get(node).get(index).elevationChange; }
+
+    @Override
+    public double heuristicScale() { return heuristicScale; }
+
     public double getElevationChange(Location src, Location dest) {
         Edge edge = graph.getOrDefault(src, Collections.emptyMap()).get(dest);
         return edge != null ? edge.elevationChange : 0;
@@ -0,0 +1,396 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import com.taylorsuniversity.ev.util.GeoGridIndex;
+import com.taylorsuniversity.ev.util.GeoMath;
+import com.taylorsuniversity.ev.util.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Links graph nodes by proximity: every node gets an edge to its k nearest neighbours and to the
+ * nodes within rangeKm (capped at maxRangeEdges per node, nearest first). The neighbour searches
+ * run on a grid index in parallel workers, each over its own slice of nodes; the index is only
+ * read once built, so the workers share it without locking. Edges are then added to the graph on
+ * the calling thread, each undirected pair once. Clusters left unconnected, such as cities further
+ * apart than the range, are joined through a mutually nearest pair of nodes so every node can
+ * reach every other; those searches run on the same workers. Logs one summary line per build
+ * instead of one line per edge.
+ */
+public class RouteGraphBuilder {
+    private static final Logger LOGGER = Logger.getLogger(RouteGraphBuilder.class.getName());
+    public static final int DEFAULT_NEIGHBORS = 6;
+    public static final double DEFAULT_RANGE_KM = 25.0;
+    public static final int DEFAULT_MAX_RANGE_EDGES = 12;
+    private static final int SLICES_PER_THREAD = 4; // Smaller slices even out dense and sparse regions
+    private static final int SEED_NEIGHBORS = DEFAULT_NEIGHBORS * 2; // Per-node search that spots nodes near another cluster
+
+    private final int neighbors;
+    private final double rangeKm;
+    private final int maxRangeEdges;
+    private final int threads;
+
+    public RouteGraphBuilder() {
+        this(DEFAULT_NEIGHBORS, DEFAULT_RANGE_KM, DEFAULT_MAX_RANGE_EDGES, Runtime.getRuntime().availableProcessors());
+    }
+
+    public RouteGraphBuilder(int neighbors, double rangeKm, int maxRangeEdges, int threads) {
+        if (neighbors < 1 || rangeKm < 0 || maxRangeEdges < 0 || threads < 1) {
+            throw new IllegalArgumentException("Neighbours and threads must be positive, range and range edges non-negative");
+        }
+        this.neighbors = neighbors;
+        this.rangeKm = rangeKm;
+        this.maxRangeEdges = maxRangeEdges;
+        this.threads = threads;
+    }
+
+    // Adds proximity edges between the nodes to the graph; straight-line distances, no elevation
+    public BuildStats build(List<Location> nodes, RouteGraph graph) {
+        if (nodes == null || graph == null) throw new IllegalArgumentException("Nodes and graph cannot be null");
+        long startNanos = System.nanoTime();
+        int n = nodes.size();
+        GeoGridIndex<Integer> index = new GeoGridIndex<>();
+        for (int i = 0; i < n; i++) index.put(i, nodes.get(i).getLatitude(), nodes.get(i).getLongitude());
+        int workers = Math.min(threads, Math.max(1, n));
+        ExecutorService executor = workers > 1 ? newExecutor(workers) : null;
+        try {
+            return build(nodes, graph, index, executor, workers, startNanos);
+        } finally {
+            if (executor != null) executor.shutdown();
+        }
+    }
+
+    private BuildStats build(List<Location> nodes, RouteGraph graph, GeoGridIndex<Integer> index,
+                             ExecutorService executor, int workers, long startNanos) {
+        int n = nodes.size();
+        List<EdgeList> slices = inSlices(n, workers, (from, to) -> neighboursOf(nodes, index, from, to), executor);
+        long searchNanos = System.nanoTime() - startNanos;
+
+        Set<Long> linked = new HashSet<>();
+        UnionFind components = new UnionFind(n);
+        int knnEdges = 0;
+        int rangeEdges = 0;
+        for (EdgeList slice : slices) {
+            for (int e = 0; e < slice.size; e++) {
+                int a = slice.from[e];
+                int b = slice.to[e];
+                if (!linked.add(pairKey(a, b, n))) continue;
+                graph.addEdge(nodes.get(a), nodes.get(b), slice.distance[e], 0.0);
+                components.union(a, b);
+                if (slice.nearest[e]) knnEdges++;
+                else rangeEdges++;
+            }
+        }
+        int clusters = components.count();
+        int connectorEdges = connectClusters(nodes, index, components, graph, linked, workers, executor);
+
+        BuildStats stats = new BuildStats(n, knnEdges, rangeEdges, connectorEdges, clusters,
+                workers, searchNanos / 1e6, (System.nanoTime() - startNanos) / 1e6);
+        LOGGER.log(Level.INFO, "Built route graph: {0}", stats);
+        return stats;
+    }
+
+    private static ExecutorService newExecutor(int workers) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "graph-builder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs the task over slices of node ids [0, n), on the executor when there is one; results in slice order
+    private static <T> List<T> inSlices(int n, int workers, SliceTask<T> task, ExecutorService executor) {
+        List<T> results = new ArrayList<>();
+        if (n == 0) return results;
+        if (executor == null) {
+            results.add(task.run(0, n));
+            return results;
+        }
+        int sliceCount = Math.min(n, workers * SLICES_PER_THREAD);
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int s = 0; s < sliceCount; s++) {
+            int from = (int) ((long) n * s / sliceCount);
+            int to = (int) ((long) n * (s + 1) / sliceCount);
+            futures.add(CompletableFuture.supplyAsync(() -> task.run(from, to), executor));
+        }
+        for (CompletableFuture<T> future : futures) results.add(future.join());
+        return results;
+    }
+
+    private interface SliceTask<T> {
+        T run(int from, int to);
+    }
+
+    private EdgeList neighboursOf(List<Location> nodes, GeoGridIndex<Integer> index, int from, int to) {
+        EdgeList edges = new EdgeList((to - from) * (neighbors + maxRangeEdges));
+        boolean linkInRange = maxRangeEdges > 0 && rangeKm > 0;
+        for (int i = from; i < to; i++) {
+            Location node = nodes.get(i);
+            // Both lists are nearest first, so when enough nodes are in range they already hold the nearest ones
+            List<Integer> inRange = linkInRange
+                    ? index.withinRadius(node.getLatitude(), node.getLongitude(), rangeKm) : List.of();
+            List<Integer> nearest = inRange.size() > neighbors
+                    ? inRange : index.nearest(node.getLatitude(), node.getLongitude(), neighbors + 1);
+            int linked = 0;
+            int next = 0;
+            for (; next < nearest.size() && linked < neighbors; next++) {
+                int j = nearest.get(next);
+                if (j == i) continue;
+                edges.add(i, j, GeoMath.haversine(node, nodes.get(j)), true);
+                linked++;
+            }
+            if (nearest != inRange) next = 0;
+            int added = 0;
+            for (; next < inRange.size() && added < maxRangeEdges; next++) {
+                int j = inRange.get(next);
+                if (j == i || (nearest != inRange && nearest.contains(j))) continue;
+                edges.add(i, j, GeoMath.haversine(node, nodes.get(j)), false);
+                added++;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Joins clusters until one is left. Each round, every cluster except the largest links to
+     * another cluster, so each round at least halves the number of clusters. The link starts from
+     * the closest outside node any member finds among its SEED_NEIGHBORS nearest, or from any
+     * member when none does, and is then shortened by nearest-node searches from alternating
+     * sides until neither end has a closer partner. The result is a mutually nearest pair: never
+     * longer than the start and usually the closest pair, though not guaranteed to be. No node
+     * searches beyond its own short list except the two ends of each link.
+     */
+    private int connectClusters(List<Location> nodes, GeoGridIndex<Integer> index, UnionFind components,
+                                RouteGraph graph, Set<Long> linked, int workers, ExecutorService executor) {
+        int n = nodes.size();
+        int added = 0;
+        while (components.count() > 1) {
+            int largest = components.largest();
+            int[] rootOf = new int[n]; // Read by the workers, so find() with its path compression is not
+            for (int i = 0; i < n; i++) rootOf[i] = components.find(i);
+
+            int[] bestFrom = new int[n];
+            int[] bestTo = new int[n];
+            double[] bestDistance = new double[n];
+            Arrays.fill(bestDistance, Double.POSITIVE_INFINITY);
+            for (EdgeList seeds : inSlices(n, workers, (from, to) -> seedLinks(nodes, index, rootOf, largest, from, to), executor)) {
+                for (int e = 0; e < seeds.size; e++) {
+                    int root = rootOf[seeds.from[e]];
+                    if (seeds.distance[e] < bestDistance[root]) {
+                        bestDistance[root] = seeds.distance[e];
+                        bestFrom[root] = seeds.from[e];
+                        bestTo[root] = seeds.to[e];
+                    }
+                }
+            }
+
+            List<Integer> roots = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (rootOf[i] == i && i != largest) roots.add(i);
+            }
+            List<EdgeList> links = inSlices(roots.size(), workers, (from, to) -> {
+                EdgeList slice = new EdgeList(to - from);
+                for (int r = from; r < to; r++) {
+                    int root = roots.get(r);
+                    boolean seeded = bestDistance[root] != Double.POSITIVE_INFINITY;
+                    shorten(nodes, index, rootOf, root, seeded ? bestFrom[root] : root, seeded ? bestTo[root] : -1, slice);
+                }
+                return slice;
+            }, executor);
+            for (EdgeList slice : links) {
+                for (int e = 0; e < slice.size; e++) {
+                    int a = slice.from[e];
+                    int b = slice.to[e];
+                    if (components.find(a) == components.find(b) || !linked.add(pairKey(a, b, n))) continue;
+                    graph.addEdge(nodes.get(a), nodes.get(b), slice.distance[e], 0.0);
+                    components.union(a, b);
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    // For each node outside the largest cluster, the nearest node of another cluster among its few nearest
+    private static EdgeList seedLinks(List<Location> nodes, GeoGridIndex<Integer> index, int[] rootOf, int largest,
+                                      int from, int to) {
+        EdgeList seeds = new EdgeList(0);
+        for (int i = from; i < to; i++) {
+            if (rootOf[i] == largest) continue;
+            Location node = nodes.get(i);
+            for (int j : index.nearest(node.getLatitude(), node.getLongitude(), SEED_NEIGHBORS + 1)) {
+                if (rootOf[j] != rootOf[i]) {
+                    seeds.add(i, j, GeoMath.haversine(node, nodes.get(j)), false);
+                    break;
+                }
+            }
+        }
+        return seeds;
+    }
+
+    // Moves each end of the link to the other end's nearest partner while that makes it shorter; to < 0 means no link yet
+    private static void shorten(List<Location> nodes, GeoGridIndex<Integer> index, int[] rootOf, int root,
+                                int from, int to, EdgeList out) {
+        int n = nodes.size();
+        if (to < 0) to = nearestWhere(nodes.get(from), index, n, j -> rootOf[j] != root);
+        double distance = GeoMath.haversine(nodes.get(from), nodes.get(to));
+        while (true) {
+            int closerFrom = nearestWhere(nodes.get(to), index, n, j -> rootOf[j] == root);
+            int closerTo = nearestWhere(nodes.get(closerFrom), index, n, j -> rootOf[j] != root);
+            double closer = GeoMath.haversine(nodes.get(closerFrom), nodes.get(closerTo));
+            if (closer >= distance) break;
+            from = closerFrom;
+            to = closerTo;
+            distance = closer;
+        }
+        out.add(from, to, distance, false);
+    }
+
+    // Closest node that passes the test, widening the search until one turns up
+    private static int nearestWhere(Location point, GeoGridIndex<Integer> index, int n, IntPredicate test) {
+        for (int k = SEED_NEIGHBORS * 2; ; k = Math.min(n, k * 4)) {
+            for (int j : index.nearest(point.getLatitude(), point.getLongitude(), k)) {
+                if (test.test(j)) return j;
+            }
+            if (k >= n) throw new IllegalStateException("No node passes the test");
+        }
+    }
+
+    private static long pairKey(int a, int b, int n) {
+        return a < b ? (long) a * n + b : (long) b * n + a;
+    }
+
+    /** Edges found by one worker, in parallel primitive arrays. */
+    private static final class EdgeList {
+        private int[] from;
+        private int[] to;
+        private double[] distance;
+        private boolean[] nearest;
+        private int size;
+
+        EdgeList(int capacity) {
+            capacity = Math.max(capacity, 8);
+            from = new int[capacity];
+            to = new int[capacity];
+            distance = new double[capacity];
+            nearest = new boolean[capacity];
+        }
+
+        void add(int a, int b, double km, boolean isNearest) {
+            if (size == from.length) {
+                int capacity = size * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                distance = Arrays.copyOf(distance, capacity);
+                nearest = Arrays.copyOf(nearest, capacity);
+            }
+            from[size] = a;
+            to[size] = b;
+            distance[size] = km;
+            nearest[size] = isNearest;
+            size++;
+        }
+    }
+
+    private static final class UnionFind {
+        private final int[] parent;
+        private final int[] size;
+        private int count;
+
+        UnionFind(int n) {
+            parent = new int[n];
+            size = new int[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+            count = n;
+        }
+
+        int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        void union(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) return;
+            if (size[ra] < size[rb]) {
+                int swap = ra;
+                ra = rb;
+                rb = swap;
+            }
+            parent[rb] = ra;
+            size[ra] += size[rb];
+            count--;
+        }
+
+        int count() {
+            return count;
+        }
+
+        // Root of the biggest cluster
+        int largest() {
+            int best = -1;
+            for (int i = 0; i < parent.length; i++) {
+                if (parent[i] == i && (best < 0 || size[i] > size[best])) best = i;
+            }
+            return best;
+        }
+    }
+
+    public static class BuildStats {
+        private final int nodes;
+        private final int nearestEdges;
+        private final int rangeEdges;
+        private final int connectorEdges;
+        private final int clusters;
+        private final int workers;
+        private final double searchMillis;
+        private final double buildMillis;
+
+        BuildStats(int nodes, int nearestEdges, int rangeEdges, int connectorEdges, int clusters, int workers,
+                   double searchMillis, double buildMillis) {
+            this.nodes = nodes;
+            this.nearestEdges = nearestEdges;
+            this.rangeEdges = rangeEdges;
+            this.connectorEdges = connectorEdges;
+            this.clusters = clusters;
+            this.workers = workers;
+            this.searchMillis = searchMillis;
+            this.buildMillis = buildMillis;
+        }
+
+        public int getNodes() { return nodes; }
+        public int getNearestEdges() { return nearestEdges; }
+        public int getRangeEdges() { return rangeEdges; }
+        public int getConnectorEdges() { return connectorEdges; }
+        public int getEdges() { return nearestEdges + rangeEdges + connectorEdges; }
+        public int getClusters() { return clusters; }
+        public int getWorkers() { return workers; }
+        public double getSearchMillis() { return searchMillis; }
+        public double getBuildMillis() { return buildMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("nodes=%d edges=%d (nearest=%d inRange=%d connectors=%d) clusters=%d workers=%d "
+                            + "search=%.1f ms total=%.1f ms",
+                    nodes, getEdges(), nearestEdges, rangeEdges, connectorEdges, clusters, workers, searchMillis, buildMillis);
+        }
+    }
+}
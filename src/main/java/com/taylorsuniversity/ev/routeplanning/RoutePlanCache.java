@@ -0,0 +1,171 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Bounded cache of planned routes, so planning a popular corridor again skips the path search
+ * and the charging-stop scan. Once maxEntries is reached the least recently used plan is evicted,
+ * and a plan expires ttlMillis after it was computed. Everything is dropped when the route graph
+ * or the set of stations changes (both versions are checked on every lookup) or when
+ * invalidateAll() is called.
+ *
+ * A plan computed while the cache was being invalidated must not be stored, so callers read
+ * generation() after a miss and pass it back to put(), which ignores the plan if it has moved on.
+ */
+public final class RoutePlanCache<V> {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order, guarded by this
+    private long graphVersion; // Guarded by this
+    private long stationVersion; // Guarded by this
+    private long generation; // Guarded by this
+    private long hits; // Guarded by this
+    private long misses; // Guarded by this
+    private long evictions; // Guarded by this
+    private long expirations; // Guarded by this
+    private long invalidations; // Guarded by this
+
+    RoutePlanCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) throw new IllegalArgumentException("Cache size and TTL must be positive");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    // Cached plan for the key, or null; first drops every plan if the graph or stations changed since the last call
+    synchronized V get(Key key, long currentGraphVersion, long currentStationVersion) {
+        if (currentGraphVersion != graphVersion || currentStationVersion != stationVersion) {
+            graphVersion = currentGraphVersion;
+            stationVersion = currentStationVersion;
+            if (!entries.isEmpty()) invalidations++;
+            entries.clear();
+            generation++;
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdNanos > ttlNanos) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    // Stores a plan computed after generation() returned planGeneration, unless the cache was invalidated since
+    synchronized void put(Key key, V value, long planGeneration) {
+        if (planGeneration != generation || value == null) return;
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+        invalidations++;
+    }
+
+    synchronized Stats getStats() {
+        return new Stats(entries.size(), maxEntries, hits, misses, evictions, expirations, invalidations);
+    }
+
+    /** Start and end graph nodes, the vehicle (model and full-charge range) and the charge bucket. */
+    static final class Key {
+        private final int startNode;
+        private final int endNode;
+        private final String vehicleModel;
+        private final double batteryRangeKm;
+        private final int chargeBucket;
+
+        Key(int startNode, int endNode, String vehicleModel, double batteryRangeKm, int chargeBucket) {
+            this.startNode = startNode;
+            this.endNode = endNode;
+            this.vehicleModel = vehicleModel;
+            this.batteryRangeKm = batteryRangeKm;
+            this.chargeBucket = chargeBucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return startNode == other.startNode && endNode == other.endNode && chargeBucket == other.chargeBucket
+                    && Double.compare(batteryRangeKm, other.batteryRangeKm) == 0
+                    && Objects.equals(vehicleModel, other.vehicleModel);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startNode, endNode, vehicleModel, batteryRangeKm, chargeBucket);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdNanos;
+
+        Entry(V value, long createdNanos) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    public static class Stats {
+        private final int size;
+        private final int maxEntries;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        Stats(int size, int maxEntries, long hits, long misses, long evictions, long expirations, long invalidations) {
+            this.size = size;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        // Combined figures for several caches, e.g. greedy and time-optimal plans
+        Stats plus(Stats other) {
+            return new Stats(size + other.size, maxEntries + other.maxEntries, hits + other.hits, misses + other.misses,
+                    evictions + other.evictions, expirations + other.expirations, invalidations + other.invalidations);
+        }
+
+        public int getSize() { return size; }
+        public int getMaxEntries() { return maxEntries; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups > 0 ? (double) hits / lookups : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d/%d hits=%d misses=%d hitRate=%.1f%% evicted=%d expired=%d invalidated=%d",
+                    size, maxEntries, hits, misses, getHitRate() * 100, evictions, expirations, invalidations);
+        }
+    }
+}
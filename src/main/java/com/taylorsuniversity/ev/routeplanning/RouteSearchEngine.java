@@ -0,0 +1,242 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import com.taylorsuniversity.ev.util.GeoMath;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Point-to-point shortest path search over a {@link RoutingGraph}. Supports plain Dijkstra,
+ * A* with a great-circle lower bound and bidirectional Dijkstra. Search arrays are borrowed from
+ * a shared pool for each query and reset with a generation stamp, so repeated queries do not
+ * allocate per node, even from threads that live for a single request.
+ */
+public class RouteSearchEngine {
+    public enum Algorithm { DIJKSTRA, A_STAR, BIDIRECTIONAL }
+
+    private static final int MAX_IDLE_STATES = 64;
+    private static final ConcurrentLinkedQueue<SearchState> IDLE_STATES = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger IDLE_COUNT = new AtomicInteger();
+
+    private final Algorithm algorithm;
+
+    public RouteSearchEngine(Algorithm algorithm) {
+        if (algorithm == null) throw new IllegalArgumentException("Algorithm cannot be null");
+        this.algorithm = algorithm;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public PathResult search(RoutingGraph graph, int source, int target) {
+        if (graph == null) throw new IllegalArgumentException("Graph cannot be null");
+        int n = graph.nodeCount();
+        if (source < 0 || source >= n || target < 0 || target >= n) {
+            throw new IllegalArgumentException("Node id out of range: source=" + source + ", target=" + target);
+        }
+        if (source == target) return new PathResult(new int[]{source}, 0.0, 0);
+        SearchState state = borrowState();
+        try {
+            state.begin(n);
+            switch (algorithm) {
+                case BIDIRECTIONAL:
+                    return bidirectional(graph, source, target, state);
+                case A_STAR:
+                    return directed(graph, source, target, state, true);
+                default:
+                    return directed(graph, source, target, state, false);
+            }
+        } finally {
+            returnState(state);
+        }
+    }
+
+    private static SearchState borrowState() {
+        SearchState state = IDLE_STATES.poll();
+        if (state == null) return new SearchState();
+        IDLE_COUNT.decrementAndGet();
+        return state;
+    }
+
+    // Keeps at most MAX_IDLE_STATES for reuse; a burst beyond that leaves the extras to the collector
+    private static void returnState(SearchState state) {
+        if (IDLE_COUNT.incrementAndGet() <= MAX_IDLE_STATES) IDLE_STATES.offer(state);
+        else IDLE_COUNT.decrementAndGet();
+    }
+
+    private PathResult directed(RoutingGraph graph, int source, int target, SearchState state, boolean useHeuristic) {
+        Side side = state.forward;
+        int gen = state.generation;
+        double scale = useHeuristic ? graph.heuristicScale() : 0.0;
+        double targetLatRad = Math.toRadians(graph.latitude(target));
+        double targetCos = Math.cos(targetLatRad);
+        double targetLon = graph.longitude(target);
+        int settled = 0;
+
+        side.reach(source, 0.0, -1, gen);
+        side.heap.push(0.0, source);
+        while (!side.heap.isEmpty()) {
+            int u = side.heap.pop();
+            if (side.done[u] == gen) continue;
+            side.done[u] = gen;
+            settled++;
+            if (u == target) break;
+
+            double du = side.dist[u];
+            int degree = graph.degree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.neighbor(u, i);
+                if (side.done[v] == gen) continue;
+                double nd = du + graph.edgeDistance(u, i);
+                if (side.seen[v] != gen || nd < side.dist[v]) {
+                    side.reach(v, nd, u, gen);
+                    double h = scale > 0
+                            ? scale * greatCircle(graph.latitude(v), graph.longitude(v), targetLatRad, targetCos, targetLon)
+                            : 0.0;
+                    side.heap.push(nd + h, v);
+                }
+            }
+        }
+
+        if (side.done[target] != gen) return PathResult.notFound(settled);
+        return new PathResult(side.pathTo(target), side.dist[target], settled);
+    }
+
+    // Relies on edges being undirected so the backward search can walk the same adjacency
+    private PathResult bidirectional(RoutingGraph graph, int source, int target, SearchState state) {
+        Side forward = state.forward;
+        Side backward = state.backward;
+        int gen = state.generation;
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        int settled = 0;
+
+        forward.reach(source, 0.0, -1, gen);
+        forward.heap.push(0.0, source);
+        backward.reach(target, 0.0, -1, gen);
+        backward.heap.push(0.0, target);
+
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            if (forward.heap.peekKey() + backward.heap.peekKey() >= best) break;
+            boolean expandForward = forward.heap.size() <= backward.heap.size();
+            Side side = expandForward ? forward : backward;
+            Side other = expandForward ? backward : forward;
+
+            int u = side.heap.pop();
+            if (side.done[u] == gen) continue;
+            side.done[u] = gen;
+            settled++;
+
+            double du = side.dist[u];
+            int degree = graph.degree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.neighbor(u, i);
+                double nd = du + graph.edgeDistance(u, i);
+                if (side.done[v] != gen && (side.seen[v] != gen || nd < side.dist[v])) {
+                    side.reach(v, nd, u, gen);
+                    side.heap.push(nd, v);
+                }
+                if (other.seen[v] == gen && side.seen[v] == gen) {
+                    double total = side.dist[v] + other.dist[v];
+                    if (total < best) {
+                        best = total;
+                        meet = v;
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) return PathResult.notFound(settled);
+        int[] head = forward.pathTo(meet);
+        int[] tail = backward.pathTo(meet);
+        int[] path = Arrays.copyOf(head, head.length + tail.length - 1);
+        for (int i = tail.length - 2, j = head.length; i >= 0; i--, j++) path[j] = tail[i];
+        return new PathResult(path, best, settled);
+    }
+
+    private static double greatCircle(double lat, double lon, double targetLatRad, double targetCos, double targetLon) {
+        double latRad = Math.toRadians(lat);
+        double sinLat = Math.sin((targetLatRad - latRad) / 2);
+        double sinLon = Math.sin(Math.toRadians(targetLon - lon) / 2);
+        double a = sinLat * sinLat + Math.cos(latRad) * targetCos * sinLon * sinLon;
+        return 2 * GeoMath.EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static class PathResult {
+        private static final int[] EMPTY = new int[0];
+        private final int[] path;
+        private final double distance;
+        private final int settledNodes;
+
+        PathResult(int[] path, double distance, int settledNodes) {
+            this.path = path;
+            this.distance = distance;
+            this.settledNodes = settledNodes;
+        }
+
+        static PathResult notFound(int settledNodes) {
+            return new PathResult(EMPTY, Double.MAX_VALUE, settledNodes);
+        }
+
+        public boolean isFound() { return path.length > 0; }
+        public int[] getPath() { return path.clone(); }
+        public double getDistance() { return distance; }
+        public int getSettledNodes() { return settledNodes; }
+    }
+
+    private static class SearchState {
+        final Side forward = new Side();
+        final Side backward = new Side();
+        int generation;
+
+        void begin(int nodeCount) {
+            forward.ensureCapacity(nodeCount);
+            backward.ensureCapacity(nodeCount);
+            forward.heap.clear();
+            backward.heap.clear();
+            if (++generation == Integer.MAX_VALUE) {
+                forward.resetStamps();
+                backward.resetStamps();
+                generation = 1;
+            }
+        }
+    }
+
+    private static class Side {
+        double[] dist = new double[0];
+        int[] parent = new int[0];
+        int[] seen = new int[0];
+        int[] done = new int[0];
+        final IndexMinHeap heap = new IndexMinHeap();
+
+        void ensureCapacity(int n) {
+            if (dist.length >= n) return;
+            int capacity = Math.max(n, dist.length * 2);
+            dist = Arrays.copyOf(dist, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            done = Arrays.copyOf(done, capacity);
+        }
+
+        void resetStamps() {
+            Arrays.fill(seen, 0);
+            Arrays.fill(done, 0);
+        }
+
+        void reach(int node, double distance, int from, int gen) {
+            dist[node] = distance;
+            parent[node] = from;
+            seen[node] = gen;
+        }
+
+        int[] pathTo(int node) {
+            int length = 0;
+            for (int at = node; at >= 0; at = parent[at]) length++;
+            int[] path = new int[length];
+            for (int at = node, i = length - 1; at >= 0; at = parent[at], i--) path[i] = at;
+            return path;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+/**
+ * Read-only view of a road graph addressed by dense int node ids, as consumed by
+ * {@link RouteSearchEngine}. Edges are undirected: every edge u-v is also listed as v-u
+ * with the same distance.
+ */
+public interface RoutingGraph {
+    int nodeCount();
+
+    double latitude(int node);
+
+    double longitude(int node);
+
+    int degree(int node);
+
+    int neighbor(int node, int index);
+
+    double edgeDistance(int node, int index);
+
+    // Elevation change in meters along the edge, positive when climbing
+    double edgeElevation(int node, int index);
+
+    // Factor in (0, 1] such that scale * great-circle distance never exceeds the road distance
+    double heuristicScale();
+}
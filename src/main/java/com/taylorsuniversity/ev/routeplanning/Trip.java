@@ -2,7 +2,10 @@ package com.taylorsuniversity.ev.routeplanning;
 
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStation;
 import com.taylorsuniversity.ev.util.Location;
+import com.taylorsuniversity.ev.util.BinaryCodec;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
@@ -57,6 +60,9 @@ public class Trip implements Serializable {
         this.averageSpeed = 0.0;
     }
 
+    private Trip() {
+    }
+
     private void validateInputs(double distance, double energyConsumption, double batteryRange, double currentChargeLevel) {
         if (distance < 0) throw new IllegalArgumentException("Distance cannot be negative");
         if (energyConsumption < 0) throw new IllegalArgumentException("Energy consumption cannot be negative");
@@ -166,4 +172,41 @@ public class Trip implements Serializable {
     public double getEnergyConsumed() {
         return energyConsumption;
     }
-}
\ No newline at end of file
+
+    // Binary form used by BinaryCodec; unlike Java serialization this keeps the waypoints
+    public void writeTo(DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, tripId);
+        BinaryCodec.writeString(out, userEmail);
+        BinaryCodec.writeNullable(out, startLocation, Location::writeTo);
+        BinaryCodec.writeNullable(out, endLocation, Location::writeTo);
+        BinaryCodec.writeList(out, waypoints, Location::writeTo);
+        BinaryCodec.writeList(out, chargingStops, ChargingStation::writeTo);
+        out.writeDouble(distance);
+        out.writeDouble(energyConsumption);
+        BinaryCodec.writeDateTime(out, startTime);
+        BinaryCodec.writeDateTime(out, endTime);
+        out.writeDouble(averageSpeed);
+        BinaryCodec.writeString(out, vehicleModel);
+        out.writeDouble(batteryRange);
+        out.writeDouble(currentChargeLevel);
+    }
+
+    public static Trip readFrom(DataInput in, int version) throws IOException {
+        Trip trip = new Trip();
+        trip.tripId = BinaryCodec.readString(in);
+        trip.userEmail = BinaryCodec.readString(in);
+        trip.startLocation = BinaryCodec.readNullable(in, version, Location::readFrom);
+        trip.endLocation = BinaryCodec.readNullable(in, version, Location::readFrom);
+        trip.waypoints = BinaryCodec.readList(in, version, Location::readFrom);
+        trip.chargingStops = BinaryCodec.readList(in, version, ChargingStation::readFrom);
+        trip.distance = in.readDouble();
+        trip.energyConsumption = in.readDouble();
+        trip.startTime = BinaryCodec.readDateTime(in);
+        trip.endTime = BinaryCodec.readDateTime(in);
+        trip.averageSpeed = in.readDouble();
+        trip.vehicleModel = BinaryCodec.readString(in);
+        trip.batteryRange = in.readDouble();
+        trip.currentChargeLevel = in.readDouble();
+        return trip;
+    }
+}
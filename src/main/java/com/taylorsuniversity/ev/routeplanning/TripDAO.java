@@ -5,48 +5,72 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 
 public class TripDAO {
-    private static final String FILE_NAME = "trips.dat";
+    private static final String FILE_NAME = "trips.dat"; // Legacy whole-list file, migrated into the journal once
+    private static final String JOURNAL_FILE_NAME = "trips.log";
     private static final Logger LOGGER = Logger.getLogger(TripDAO.class.getName());
 
     public List<Trip> loadTrips() {
-        List<Trip> trips = new ArrayList<>();
-        File file = new File(FILE_NAME);
-        if (!file.exists()) return trips;
-
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            trips = (List<Trip>) ois.readObject();
-        } catch (EOFException e) {
-            LOGGER.info("Empty or corrupted trips.dat file");
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            return journal().readAll();
+        } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error loading trips", e);
+            return new ArrayList<>();
         }
-        return trips;
     }
 
     public void saveTrip(Trip trip) throws IOException {
         if (trip == null) throw new IllegalArgumentException("Trip cannot be null");
-        List<Trip> trips = loadTrips();
-        trips.removeIf(t -> t.getTripId().equals(trip.getTripId()));
-        trips.add(trip);
-        saveTrips(trips);
+        try {
+            journal().append(trip);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error saving trip", e);
+            throw e;
+        }
+    }
+
+    // Saves several trips with one journal write
+    public void appendTrips(List<Trip> trips) throws IOException {
+        if (trips == null) throw new IllegalArgumentException("Trips list cannot be null");
+        List<byte[]> records = new ArrayList<>(trips.size());
+        for (Trip trip : trips) records.add(encode(trip));
+        appendEncoded(trips, records);
+    }
+
+    // Journal record for a trip, so batch planners can encode on their worker threads
+    byte[] encode(Trip trip) throws IOException {
+        if (trip == null) throw new IllegalArgumentException("Trip cannot be null");
+        return TripJournal.encodeRecord(trip);
+    }
+
+    void appendEncoded(List<Trip> trips, List<byte[]> records) throws IOException {
+        try {
+            journal().appendEncoded(trips, records);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error saving trips", e);
+            throw e;
+        }
     }
 
     public Trip findTripById(String tripId) {
         if (tripId == null) return null;
-        return loadTrips().stream()
-                .filter(t -> t.getTripId().equals(tripId))
-                .findFirst()
-                .orElse(null);
+        try {
+            return journal().read(tripId);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading trip " + tripId, e);
+            return null;
+        }
     }
 
     public List<Trip> getTripsByUser(String userEmail) {
         if (userEmail == null) return new ArrayList<>();
-        return loadTrips().stream()
-                .filter(t -> t.getUserEmail() != null && t.getUserEmail().equals(userEmail))
-                .collect(Collectors.toList());
+        try {
+            return journal().readByUser(userEmail);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading trips for " + userEmail, e);
+            return new ArrayList<>();
+        }
     }
 
     public List<Trip> readTrips() {
@@ -55,11 +79,38 @@ public class TripDAO {
 
     public void saveTrips(List<Trip> trips) throws IOException {
         if (trips == null) throw new IllegalArgumentException("Trips list cannot be null");
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_NAME))) {
-            oos.writeObject(new ArrayList<>(trips));
+        try {
+            journal().replaceAll(trips);
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error saving trips", e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    private TripJournal journal() throws IOException {
+        TripJournal journal = TripJournal.forFile(new File(JOURNAL_FILE_NAME));
+        synchronized (journal) {
+            if (journal.isEmpty()) migrateLegacyFile(journal);
+        }
+        return journal;
+    }
+
+    // Copies trips.dat into an empty journal and renames it so the import runs only once
+    private void migrateLegacyFile(TripJournal journal) throws IOException {
+        File legacy = new File(FILE_NAME);
+        if (!legacy.exists()) return;
+        List<Trip> trips = new ArrayList<>();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacy))) {
+            trips = (List<Trip>) ois.readObject();
+        } catch (EOFException e) {
+            LOGGER.info("Empty or corrupted trips.dat file");
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable trips.dat file", e);
+        }
+        journal.replaceAll(trips);
+        if (!legacy.renameTo(new File(FILE_NAME + ".migrated"))) {
+            LOGGER.warning("Could not rename " + FILE_NAME + " after migrating it to " + JOURNAL_FILE_NAME);
+        }
+        LOGGER.log(Level.INFO, "Migrated {0} trips from {1} to {2}", new Object[]{trips.size(), FILE_NAME, JOURNAL_FILE_NAME});
+    }
+}
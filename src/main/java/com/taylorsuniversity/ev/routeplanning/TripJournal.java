@@ -0,0 +1,311 @@
+package com.taylorsuniversity.ev.routeplanning;
+
+import com.taylorsuniversity.ev.util.BinaryCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of trip records. Each record is [int bodyLength][int crc32][body] where the
+ * body is [byte type][UTF tripId][boolean hasEmail][UTF userEmail][Trip in BinaryCodec form]. Saving a trip
+ * appends one record and points the in-memory id and user indexes at it; older versions become
+ * garbage that compaction drops once they outnumber the live trips. A torn or corrupt tail left by
+ * a crash is truncated on open. Older record types, which hold a Java-serialized Trip and in
+ * type 1 no email field, are still read and are upgraded by the next compaction.
+ */
+class TripJournal {
+    private static final Logger LOGGER = Logger.getLogger(TripJournal.class.getName());
+    private static final byte RECORD_PUT_V1 = 1; // [UTF tripId][serialized Trip]
+    private static final byte RECORD_PUT_V2 = 2; // [UTF tripId][boolean hasEmail][UTF userEmail][serialized Trip]
+    private static final byte RECORD_PUT = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int MIN_RECORDS_FOR_COMPACTION = 1000;
+    private static final Map<String, TripJournal> OPEN_JOURNALS = new HashMap<>();
+
+    private final Path path;
+    private FileChannel channel;
+    private final Map<String, Long> offsets = new LinkedHashMap<>(); // tripId -> record start, in first-save order
+    private final Map<String, String> ownerByTrip = new HashMap<>();
+    private final Map<String, Set<String>> tripsByUser = new HashMap<>(); // userEmail -> tripIds, in first-save order
+    private long recordCount;
+
+    private TripJournal(Path path) throws IOException {
+        this.path = path;
+        open();
+    }
+
+    // One journal per file so every DAO instance shares the same index and append position
+    static synchronized TripJournal forFile(File file) throws IOException {
+        String key = file.getAbsoluteFile().toPath().normalize().toString();
+        TripJournal journal = OPEN_JOURNALS.get(key);
+        if (journal == null) {
+            journal = new TripJournal(file.getAbsoluteFile().toPath());
+            OPEN_JOURNALS.put(key, journal);
+        }
+        return journal;
+    }
+
+    synchronized boolean isEmpty() {
+        return offsets.isEmpty();
+    }
+
+    synchronized int size() {
+        return offsets.size();
+    }
+
+    synchronized void append(Trip trip) throws IOException {
+        long position = channel.size();
+        try {
+            writeRecord(channel, position, trip);
+        } catch (IOException e) {
+            discardTail(position, e);
+            throw e;
+        }
+        index(trip.getTripId(), trip.getUserEmail(), position);
+        recordCount++;
+        compactIfNeeded();
+    }
+
+    /**
+     * Appends trips whose records were already built with encodeRecord, in one gathering write.
+     * Encoding is most of the cost of saving a trip, so batch callers do it on their own threads
+     * and only the write itself holds the journal lock.
+     */
+    synchronized void appendEncoded(List<Trip> trips, List<byte[]> records) throws IOException {
+        if (trips.size() != records.size()) throw new IllegalArgumentException("Each trip needs exactly one record");
+        long start = channel.size();
+        ByteBuffer[] buffers = new ByteBuffer[records.size()];
+        long[] positions = new long[records.size()];
+        long end = start;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(records.get(i));
+            positions[i] = end;
+            end += buffers[i].remaining();
+        }
+        try {
+            channel.position(start);
+            while (channel.position() < end) channel.write(buffers);
+        } catch (IOException e) {
+            discardTail(start, e); // None of the batch is kept, so callers can report every trip as not saved
+            throw e;
+        }
+        for (int i = 0; i < trips.size(); i++) {
+            Trip trip = trips.get(i);
+            index(trip.getTripId(), trip.getUserEmail(), positions[i]);
+        }
+        recordCount += trips.size();
+        compactIfNeeded();
+    }
+
+    // Cuts a half-written record off the end, otherwise replay would stop at it and drop every later append
+    private void discardTail(long position, IOException cause) {
+        try {
+            channel.truncate(position);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (recordCount >= MIN_RECORDS_FOR_COMPACTION && recordCount > 2L * offsets.size()) {
+            compact();
+        }
+    }
+
+    synchronized Trip read(String tripId) throws IOException {
+        Long position = offsets.get(tripId);
+        return position != null ? readRecord(position).trip() : null;
+    }
+
+    // Reads only the given user's records
+    synchronized List<Trip> readByUser(String userEmail) throws IOException {
+        Set<String> tripIds = tripsByUser.get(userEmail);
+        if (tripIds == null) return new ArrayList<>();
+        List<Trip> trips = new ArrayList<>(tripIds.size());
+        for (String tripId : tripIds) trips.add(readRecord(offsets.get(tripId)).trip());
+        return trips;
+    }
+
+    synchronized List<Trip> readAll() throws IOException {
+        List<Trip> trips = new ArrayList<>(offsets.size());
+        for (long position : offsets.values()) trips.add(readRecord(position).trip());
+        return trips;
+    }
+
+    // Replaces the journal contents with exactly these trips
+    synchronized void replaceAll(List<Trip> trips) throws IOException {
+        Map<String, Trip> latest = new LinkedHashMap<>();
+        for (Trip trip : trips) latest.put(trip.getTripId(), trip);
+        rewrite(new ArrayList<>(latest.values()));
+    }
+
+    // Rewrites the log keeping only the latest record of each trip
+    synchronized void compact() throws IOException {
+        long before = recordCount;
+        rewrite(readAll());
+        LOGGER.log(Level.INFO, "Compacted trip journal from {0} to {1} records", new Object[]{before, recordCount});
+    }
+
+    private void rewrite(List<Trip> trips) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (Trip trip : trips) position += writeRecord(out, position, trip);
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    private void open() throws IOException {
+        Path parent = path.getParent();
+        if (parent != null) Files.createDirectories(parent);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replay();
+    }
+
+    private void replay() throws IOException {
+        offsets.clear();
+        ownerByTrip.clear();
+        tripsByUser.clear();
+        recordCount = 0;
+        long size = channel.size();
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (position < size) {
+                if (size - position < HEADER_BYTES) break;
+                int length = in.readInt();
+                int crc = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES || size - position - HEADER_BYTES < length) break;
+                byte[] body = new byte[length];
+                in.readFully(body);
+                if (checksum(body) != crc) break;
+                Record record = new Record(body);
+                index(record.tripId(), record.userEmail(), position);
+                recordCount++;
+                position += HEADER_BYTES + length;
+            }
+        }
+        if (position < size) {
+            LOGGER.log(Level.WARNING, "Truncating torn or corrupt trip journal tail at byte {0} of {1}",
+                    new Object[]{position, size});
+            channel.truncate(position);
+            channel.force(true);
+        }
+        channel.position(channel.size());
+    }
+
+    private void index(String tripId, String userEmail, long position) {
+        offsets.put(tripId, position); // An existing key keeps its first-save position in the order
+        String previousOwner = ownerByTrip.put(tripId, userEmail);
+        if (previousOwner != null && !previousOwner.equals(userEmail)) {
+            Set<String> previous = tripsByUser.get(previousOwner);
+            previous.remove(tripId);
+            if (previous.isEmpty()) tripsByUser.remove(previousOwner);
+        }
+        if (userEmail != null) tripsByUser.computeIfAbsent(userEmail, k -> new LinkedHashSet<>()).add(tripId);
+    }
+
+    private static long writeRecord(FileChannel out, long position, Trip trip) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(encodeRecord(trip));
+        long written = 0;
+        while (buffer.hasRemaining()) written += out.write(buffer, position + written);
+        return written;
+    }
+
+    // Header and body of the record that saves this trip
+    static byte[] encodeRecord(Trip trip) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream body = new DataOutputStream(bodyBytes)) {
+            body.writeByte(RECORD_PUT);
+            body.writeUTF(trip.getTripId());
+            body.writeBoolean(trip.getUserEmail() != null);
+            body.writeUTF(trip.getUserEmail() != null ? trip.getUserEmail() : "");
+            body.write(BinaryCodec.encode(trip, Trip::writeTo));
+        }
+        byte[] body = bodyBytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        buffer.putInt(body.length).putInt(checksum(body)).put(body);
+        return buffer.array();
+    }
+
+    private Record readRecord(long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, position);
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body, position + HEADER_BYTES);
+        if (checksum(body.array()) != crc) throw new IOException("Corrupt trip record at byte " + position);
+        return new Record(body.array());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new EOFException("Unexpected end of trip journal at byte " + position);
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static class Record {
+        private final byte type;
+        private final String tripId;
+        private final String userEmail;
+        private final DataInputStream fields;
+        private Trip trip;
+
+        Record(byte[] body) throws IOException {
+            fields = new DataInputStream(new ByteArrayInputStream(body));
+            type = fields.readByte();
+            if (type != RECORD_PUT && type != RECORD_PUT_V2 && type != RECORD_PUT_V1) throw new IOException("Unknown trip record type " + type);
+            tripId = fields.readUTF();
+            if (type != RECORD_PUT_V1) {
+                boolean hasEmail = fields.readBoolean();
+                String email = fields.readUTF();
+                userEmail = hasEmail ? email : null;
+            } else {
+                trip = trip(); // Old records only carry the email inside the serialized trip
+                userEmail = trip.getUserEmail();
+            }
+        }
+
+        String tripId() { return tripId; }
+
+        String userEmail() { return userEmail; }
+
+        Trip trip() throws IOException {
+            if (trip != null) return trip;
+            if (type == RECORD_PUT) return BinaryCodec.decode(fields, Trip::readFrom);
+            try (ObjectInputStream ois = new ObjectInputStream(fields)) {
+                return (Trip) ois.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Unreadable trip record", e);
+            }
+        }
+    }
+}
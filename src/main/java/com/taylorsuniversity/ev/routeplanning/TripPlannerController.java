@@ -3,114 +3,510 @@ package com.taylorsuniversity.ev.routeplanning;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStation;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationController;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationDTO;
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationRepository;
+import com.taylorsuniversity.ev.charginginfrastructure.StationEvent;
+import com.taylorsuniversity.ev.charginginfrastructure.StationEventBus;
 import com.taylorsuniversity.ev.usermanagement.User;
 import com.taylorsuniversity.ev.util.Location;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class TripPlannerController {
+    private static final Logger LOGGER = Logger.getLogger(TripPlannerController.class.getName());
     private final RouteGraph routeGraph;
     private final TripDAO tripDAO;
     private final ChargingStationController chargingStationController;
     private static final double DEFAULT_SPEED_KMH = 60.0;
     private static final double ENERGY_PER_KM_KWH = 0.2;
+    private static final double DEFAULT_CHARGER_POWER_KW = 50.0;
+    private static final String HIERARCHY_FILE = "route_hierarchy.ch"; // Contracted route graph, see ContractionHierarchy
+    // Station IDs only; status, power and ports are read live from the repository when planning
+    private final Map<Location, String> stationIdsByNode = new HashMap<>();
+    private final Map<String, Location> nodesByStationId = new HashMap<>();
+    private static final AtomicLong LAST_TRIP_MILLIS = new AtomicLong();
+    private final ChargingAwareRouter chargingAwareRouter = new ChargingAwareRouter(DEFAULT_SPEED_KMH, ENERGY_PER_KM_KWH);
+    // Plans are made for the charge level rounded down to this step, so nearby levels share a cached plan
+    private static final int CHARGE_BUCKET_PERCENT = 5;
+    private static final int PLAN_CACHE_SIZE = 256;
+    private static final long PLAN_CACHE_TTL_MS = 10 * 60 * 1000;
+    private final RoutePlanCache<GreedyPlan> greedyPlans = new RoutePlanCache<>(PLAN_CACHE_SIZE, PLAN_CACHE_TTL_MS);
+    private final RoutePlanCache<ChargingAwareRouter.ChargingRoute> timeOptimalRoutes =
+            new RoutePlanCache<>(PLAN_CACHE_SIZE, PLAN_CACHE_TTL_MS);
+    // Searches run on an immutable copy of routeGraph so any number of threads can share it
+    private volatile RouteView routeView;
+    private ExecutorService batchExecutor; // Guarded by this, created by the first batch
+    private final StationEventBus.Subscription stationEvents;
+    // Status and power of each station as plans last saw them; port counts do not change a plan
+    private final Map<String, String> planningStates = new ConcurrentHashMap<>();
+    private RouteGraphBuilder.BuildStats graphStats;
 
     public TripPlannerController() {
         this.routeGraph = new RouteGraph();
         this.tripDAO = new TripDAO();
         this.chargingStationController = new ChargingStationController();
         initializeGraph();
+        routeView(); // Loads or contracts the hierarchy now, during startup, rather than on the first plan
+        // Cached stops depend on which stations are available and how fast they charge
+        for (ChargingStation station : chargingStationController.getRepository().findAll()) {
+            planningStates.put(station.getStationId(), planningState(station.getStatus(), station.getPowerOutput()));
+        }
+        this.stationEvents = StationEventBus.getInstance().subscribe(this::onStationEvent);
     }
 
     private void initializeGraph() {
         List<ChargingStationDTO> stations = chargingStationController.getAllChargingStations();
-        for (int i = 0; i < stations.size() - 1; i++) {
-            ChargingStationDTO src = stations.get(i);
-            ChargingStationDTO dest = stations.get(i + 1);
-            Location srcLoc = new Location(src.getName(), src.getLatitude(), src.getLongitude());
-            Location destLoc = new Location(dest.getName(), dest.getLatitude(), dest.getLongitude());
-            double distance = chargingStationController.calculateDistance(srcLoc, destLoc);
-            routeGraph.addEdge(srcLoc, destLoc, distance, 0.0);
+        List<Location> locations = new ArrayList<>();
+        for (ChargingStationDTO station : stations) {
+            Location location = new Location(station.getName(), station.getLatitude(), station.getLongitude());
+            locations.add(location);
+            stationIdsByNode.put(location, station.getStationId());
+            nodesByStationId.put(station.getStationId(), location);
         }
+        graphStats = new RouteGraphBuilder().build(locations, routeGraph);
     }
 
     public Trip planTrip(User user, Location start, Location end) {
+        return save(buildTrip(user, start, end));
+    }
+
+    // Plans a greedy trip without saving it
+    private Trip buildTrip(User user, Location start, Location end) {
         if (user == null || start == null || end == null) {
             throw new IllegalArgumentException("User, start, and end locations cannot be null");
         }
-        List<Location> path = routeGraph.findShortestPath(start, end);
-        if (path.isEmpty() || !path.get(0).equals(start) || !path.get(path.size() - 1).equals(end)) {
-            throw new IllegalArgumentException("No valid path found between " + start.getName() + " and " + end.getName());
-        }
-
-        String tripId = "TRIP_" + System.currentTimeMillis();
         String userEmail = user.getEmail();
         double batteryRange = user.getBatteryRange() > 0 ? user.getBatteryRange() : 300.0;
         double currentChargeLevel = user.getCurrentChargeLevel() > 0 ? user.getCurrentChargeLevel() : 100.0;
         String vehicleModel = user.getVehicleModel() != null ? user.getVehicleModel() : "Tata Nexon EV";
 
-        Trip trip = new Trip(tripId, userEmail, start, end, new ArrayList<>());
-        double totalDistanceKm = routeGraph.calculatePathDistance(path);
+        RouteView view = routeView();
+        RoutePlanCache.Key key = planKey(view.graph.nodeId(start), view.graph.nodeId(end),
+                vehicleModel, batteryRange, currentChargeLevel);
+        GreedyPlan plan = key != null ? greedyPlans.get(key, view.version, stationVersion()) : null;
+        if (plan == null) {
+            long generation = greedyPlans.generation();
+            plan = planStops(view, start, end, batteryRange, planningChargeLevel(currentChargeLevel));
+            if (key != null) greedyPlans.put(key, plan, generation);
+        }
+
+        Trip trip = new Trip(nextTripId(), userEmail, start, end, new ArrayList<>());
+        for (ChargingStation stop : plan.chargingStops) {
+            trip.addChargingStop(copyOf(stop));
+        }
+        trip.setRouteDetails(plan.totalDistanceKm, plan.energyConsumptionKWh);
+        trip.setCurrentChargeLevel(currentChargeLevel);
+        trip.setBatteryRange(batteryRange);
+        trip.setVehicleModel(vehicleModel);
+        return trip;
+    }
+
+    private Trip save(Trip trip) {
+        try {
+            tripDAO.saveTrip(trip);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save trip: " + e.getMessage(), e);
+        }
+        return trip;
+    }
+
+    // Route distance and greedy charging stops for the given charge level; the stops are copies, not live stations
+    private GreedyPlan planStops(RouteView view, Location start, Location end, double batteryRange,
+                                 double currentChargeLevel) {
+        CompactRouteGraph graph = view.graph;
+        List<Location> path = shortestPath(view, start, end);
+        if (path.isEmpty() || !path.get(0).equals(start) || !path.get(path.size() - 1).equals(end)) {
+            throw new IllegalArgumentException("No valid path found between " + start.getName() + " and " + end.getName());
+        }
+        double totalDistanceKm = graph.calculatePathDistance(path);
         double energyConsumptionKWh = totalDistanceKm * ENERGY_PER_KM_KWH;
 
         double availableRange = (currentChargeLevel / 100.0) * batteryRange;
         List<ChargingStation> chargingStops = new ArrayList<>();
         if (totalDistanceKm > availableRange) {
-            List<ChargingStationDTO> allStations = chargingStationController.getAllChargingStations();
+            ChargingStationRepository stations = chargingStationController.getRepository();
             double remainingDistance = totalDistanceKm;
             double coveredDistance = 0.0;
-            Location current = start;
+            String currentName = start.getName();
+            String currentStationId = null;
 
             while (remainingDistance > availableRange) {
-                ChargingStationDTO nearestAvailable = null;
-                double minDistance = Double.MAX_VALUE;
-
-                for (ChargingStationDTO station : allStations) {
-                    if (!station.getName().equals(current.getName()) && !station.getName().equals(end.getName()) &&
-                            station.getStatus().equals("AVAILABLE")) {
-                        Location stationLoc = new Location(station.getName(), station.getLatitude(), station.getLongitude());
-                        double distToStation = chargingStationController.calculateDistance(current, stationLoc);
-                        if (distToStation < minDistance && distToStation <= availableRange) {
-                            minDistance = distToStation;
-                            nearestAvailable = station;
-                        }
-                    }
-                }
+                String fromName = currentName;
+                Predicate<ChargingStation> eligible = station -> !station.getName().equals(fromName)
+                        && !station.getName().equals(end.getName()) && "AVAILABLE".equals(station.getStatus());
+                // After the first stop the search starts at a station, so it is a lookup in the neighbour table
+                ChargingStationRepository.NearbyStation nearestAvailable = currentStationId != null
+                        ? stations.findNearestFrom(currentStationId, availableRange, eligible)
+                        : stations.findNearestFrom(start.getLatitude(), start.getLongitude(), availableRange, eligible);
 
                 if (nearestAvailable != null) {
-                    ChargingStation stop = new ChargingStation(
-                            nearestAvailable.getStationId(), nearestAvailable.getName(), nearestAvailable.getStatus(),
-                            nearestAvailable.getChargerType(), nearestAvailable.getPowerOutput(),
-                            nearestAvailable.getAvailablePorts(), nearestAvailable.getLatitude(),
-                            nearestAvailable.getLongitude(), nearestAvailable.getCostPerKWh()
-                    );
+                    ChargingStation stop = copyOf(nearestAvailable.getStation());
+                    double minDistance = nearestAvailable.getDistanceKm();
                     chargingStops.add(stop);
                     coveredDistance += minDistance;
                     remainingDistance -= minDistance;
-                    current = new Location(stop.getName(), stop.getLatitude(), stop.getLongitude());
+                    currentName = stop.getName();
+                    currentStationId = stop.getStationId();
                 } else {
                     throw new IllegalStateException("No available charging station found within range.");
                 }
             }
-            for (ChargingStation stop : chargingStops) {
-                trip.addChargingStop(stop);
+        }
+        return new GreedyPlan(totalDistanceKm, energyConsumptionKWh, chargingStops);
+    }
+
+    // Answered by the contraction hierarchy published with the snapshot, so both use the same node ids
+    private List<Location> shortestPath(RouteView view, Location start, Location end) {
+        CompactRouteGraph graph = view.graph;
+        int source = graph.nodeId(start);
+        int target = graph.nodeId(end);
+        if (source < 0 || target < 0 || source == target) return Collections.emptyList();
+        RouteSearchEngine.PathResult result = view.hierarchy.findShortestPath(source, target);
+        List<Location> path = new ArrayList<>();
+        for (int node : result.getPath()) path.add(graph.location(node));
+        return path;
+    }
+
+    // Minimum total-time route (driving plus charging) given the user's range and charge level
+    public ChargingAwareRouter.ChargingRoute findTimeOptimalRoute(User user, Location start, Location end) {
+        return findTimeOptimalRoute(routeView(), user, start, end);
+    }
+
+    // Node ids in the returned route refer to the view's graph
+    private ChargingAwareRouter.ChargingRoute findTimeOptimalRoute(RouteView view, User user, Location start, Location end) {
+        if (user == null || start == null || end == null) {
+            throw new IllegalArgumentException("User, start, and end locations cannot be null");
+        }
+        CompactRouteGraph graph = view.graph;
+        int source = graph.nodeId(start);
+        int target = graph.nodeId(end);
+        if (source < 0 || target < 0 || source == target) {
+            throw new IllegalArgumentException("No valid path found between " + start.getName() + " and " + end.getName());
+        }
+        double batteryRange = user.getBatteryRange() > 0 ? user.getBatteryRange() : 300.0;
+        double currentChargeLevel = user.getCurrentChargeLevel() > 0 ? user.getCurrentChargeLevel() : 100.0;
+        String vehicleModel = user.getVehicleModel() != null ? user.getVehicleModel() : "Tata Nexon EV";
+        RoutePlanCache.Key key = planKey(source, target, vehicleModel, batteryRange, currentChargeLevel);
+        ChargingAwareRouter.ChargingRoute route = key != null ? timeOptimalRoutes.get(key, view.version, stationVersion()) : null;
+        if (route == null) {
+            long generation = timeOptimalRoutes.generation();
+            route = chargingAwareRouter.route(graph, chargerPowers(graph), source, target,
+                    batteryRange * ENERGY_PER_KM_KWH, planningChargeLevel(currentChargeLevel));
+            if (key != null) timeOptimalRoutes.put(key, route, generation);
+        }
+        return route;
+    }
+
+    // Hit rate and size of the greedy and time-optimal plan caches together
+    public RoutePlanCache.Stats getPlanCacheStats() {
+        return greedyPlans.getStats().plus(timeOptimalRoutes.getStats());
+    }
+
+    // Edge counts and build time of the station graph
+    public RouteGraphBuilder.BuildStats getGraphStats() {
+        return graphStats;
+    }
+
+    /**
+     * Stops listening for station events and shuts down the batch pool. The shared controller lives
+     * as long as the process; call this on controllers created for a single job so the event bus
+     * does not keep them reachable.
+     */
+    public void close() {
+        stationEvents.unsubscribe();
+        synchronized (this) {
+            if (batchExecutor != null) batchExecutor.shutdown();
+            batchExecutor = null;
+        }
+    }
+
+    // Bumped when stations are added, replaced or removed, which status and port events do not cover
+    private long stationVersion() {
+        return chargingStationController.getRepository().getVersion();
+    }
+
+    // Charging sessions publish an event each; only a status or power change drops the cached plans
+    private void onStationEvent(StationEvent event) {
+        String state = planningState(event.getStatus(), event.getPowerOutput());
+        String previous = planningStates.put(event.getStationId(), state);
+        if (previous != null && !previous.equals(state)) invalidatePlanCache();
+        // A station with no previous state was added since; stationVersion() already covers that
+    }
+
+    private static String planningState(String status, String powerOutput) {
+        return status + "|" + powerOutput;
+    }
+
+    public void invalidatePlanCache() {
+        greedyPlans.invalidateAll();
+        timeOptimalRoutes.invalidateAll();
+    }
+
+    // Cache key for a plan, or null when the charge is below the first bucket and the plan is not cached
+    private RoutePlanCache.Key planKey(int startNode, int endNode, String vehicleModel, double batteryRange,
+                                       double currentChargeLevel) {
+        int bucket = (int) (currentChargeLevel / CHARGE_BUCKET_PERCENT);
+        if (bucket == 0 || startNode < 0 || endNode < 0) return null;
+        return new RoutePlanCache.Key(startNode, endNode, vehicleModel, batteryRange, bucket);
+    }
+
+    // Rounded down, so a cached plan never assumes more charge than the user has
+    private double planningChargeLevel(double currentChargeLevel) {
+        double bucketed = Math.floor(currentChargeLevel / CHARGE_BUCKET_PERCENT) * CHARGE_BUCKET_PERCENT;
+        return bucketed > 0 ? bucketed : currentChargeLevel;
+    }
+
+    // Like planTrip, but stops are chosen by the charging-aware search instead of the greedy nearest-station pass
+    public Trip planTimeOptimalTrip(User user, Location start, Location end) {
+        return save(buildTimeOptimalTrip(user, start, end));
+    }
+
+    private Trip buildTimeOptimalTrip(User user, Location start, Location end) {
+        RouteView view = routeView();
+        ChargingAwareRouter.ChargingRoute route = findTimeOptimalRoute(view, user, start, end);
+        if (!route.isFeasible()) {
+            throw new IllegalStateException("No feasible route with charging found between " + start.getName() + " and " + end.getName());
+        }
+
+        List<Location> waypoints = new ArrayList<>();
+        CompactRouteGraph graph = view.graph;
+        for (int node : route.getPath()) waypoints.add(graph.location(node));
+        List<ChargingStation> chargingStops = new ArrayList<>();
+        for (ChargingAwareRouter.ChargingStop stop : route.getStops()) {
+            ChargingStation station = liveStation(stationIdsByNode.get(graph.location(stop.getNode())));
+            if (station != null) chargingStops.add(copyOf(station));
+        }
+
+        double batteryRange = user.getBatteryRange() > 0 ? user.getBatteryRange() : 300.0;
+        double currentChargeLevel = user.getCurrentChargeLevel() > 0 ? user.getCurrentChargeLevel() : 100.0;
+        String vehicleModel = user.getVehicleModel() != null ? user.getVehicleModel() : "Tata Nexon EV";
+        Trip trip = new Trip(nextTripId(), user.getEmail(), start, end, waypoints,
+                chargingStops, route.getDistanceKm(), route.getEnergyUsedKWh(), vehicleModel, batteryRange, currentChargeLevel);
+        LOGGER.log(Level.INFO, "Planned {0} -> {1}: {2} km, {3} h total ({4} h charging, {5} stops)",
+                new Object[]{start.getName(), end.getName(), route.getDistanceKm(), route.getTotalHours(),
+                        route.getChargingHours(), route.getStops().size()});
+        return trip;
+    }
+
+    /**
+     * Plans every request in parallel, one task per request on a pool sized to the machine, and
+     * saves all planned trips with a single journal write. Searches share one immutable snapshot
+     * of the route graph. Results come back in request order; a request that cannot be planned
+     * is reported as FAILED without affecting the others. If the write fails, the journal drops
+     * the whole batch and every planned trip is reported as NOT_SAVED.
+     */
+    public List<BatchResult> planTrips(List<TripRequest> requests) {
+        if (requests == null) throw new IllegalArgumentException("Requests cannot be null");
+        long startNanos = System.nanoTime();
+        routeView(); // Build it once up front rather than racing to build it in every task
+        ExecutorService executor = batchExecutor();
+        List<CompletableFuture<BatchResult>> futures = new ArrayList<>(requests.size());
+        for (TripRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> plan(request), executor));
+        }
+        List<BatchResult> results = new ArrayList<>(requests.size());
+        List<Trip> planned = new ArrayList<>();
+        List<byte[]> records = new ArrayList<>();
+        for (CompletableFuture<BatchResult> future : futures) {
+            BatchResult result = future.join();
+            if (result.record != null) {
+                planned.add(result.getTrip());
+                records.add(result.record);
+                result = new BatchResult(result.getRequest(), result.getStatus(), result.getTrip(), null, null);
             }
+            results.add(result);
         }
 
-        trip.setRouteDetails(totalDistanceKm, energyConsumptionKWh);
-        trip.setCurrentChargeLevel(currentChargeLevel);
-        trip.setBatteryRange(batteryRange);
-        trip.setVehicleModel(vehicleModel);
+        if (!planned.isEmpty()) {
+            try {
+                tripDAO.appendEncoded(planned, records);
+            } catch (IOException e) {
+                for (int i = 0; i < results.size(); i++) {
+                    BatchResult result = results.get(i);
+                    if (result.getStatus() == BatchResult.Status.PLANNED) {
+                        results.set(i, new BatchResult(result.getRequest(), BatchResult.Status.NOT_SAVED, result.getTrip(),
+                                null, "Failed to save trip: " + e.getMessage()));
+                    }
+                }
+            }
+        }
+        LOGGER.log(Level.INFO, "Planned {0} of {1} trips in {2} ms",
+                new Object[]{planned.size(), requests.size(), String.format("%.1f", (System.nanoTime() - startNanos) / 1e6)});
+        return results;
+    }
 
+    // Plans one request and encodes its journal record on the worker thread
+    private BatchResult plan(TripRequest request) {
+        Trip trip;
         try {
-            tripDAO.saveTrip(trip);
+            if (request == null) throw new IllegalArgumentException("Request cannot be null");
+            trip = request.isTimeOptimal()
+                    ? buildTimeOptimalTrip(request.getUser(), request.getStart(), request.getEnd())
+                    : buildTrip(request.getUser(), request.getStart(), request.getEnd());
+        } catch (RuntimeException e) {
+            return new BatchResult(request, BatchResult.Status.FAILED, null, null, e.getMessage());
+        }
+        try {
+            return new BatchResult(request, BatchResult.Status.PLANNED, trip, tripDAO.encode(trip), null);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to save trip: " + e.getMessage(), e);
+            return new BatchResult(request, BatchResult.Status.NOT_SAVED, trip, null, "Failed to save trip: " + e.getMessage());
         }
+    }
 
-        return trip;
+    private synchronized ExecutorService batchExecutor() {
+        if (batchExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            batchExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "trip-batch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return batchExecutor;
+    }
+
+    // Immutable copy of routeGraph and its hierarchy, rebuilt after an edge changes; node ids match routeGraph's
+    private RouteView routeView() {
+        RouteView current = routeView;
+        if (current != null && current.version == routeGraph.getVersion()) return current;
+        synchronized (this) {
+            long version = routeGraph.getVersion();
+            if (routeView == null || routeView.version != version) {
+                CompactRouteGraph snapshot = routeGraph.toCompactGraph();
+                routeView = new RouteView(snapshot, ContractionHierarchy.loadOrBuild(snapshot, Paths.get(HIERARCHY_FILE)), version);
+            }
+            return routeView;
+        }
+    }
+
+    private double[] chargerPowers(CompactRouteGraph graph) {
+        double[] powers = new double[graph.nodeCount()];
+        for (Map.Entry<Location, String> entry : stationIdsByNode.entrySet()) {
+            int node = graph.nodeId(entry.getKey());
+            ChargingStation station = node >= 0 ? liveStation(entry.getValue()) : null;
+            if (station != null && "AVAILABLE".equals(station.getStatus())) {
+                powers[node] = parsePowerKw(station.getPowerOutput());
+            }
+        }
+        return powers;
+    }
+
+    private double parsePowerKw(String powerOutput) {
+        try {
+            return Double.parseDouble(powerOutput.replace("kW", "").trim());
+        } catch (NullPointerException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Invalid power output format: {0}, defaulting to 50kW", powerOutput);
+            return DEFAULT_CHARGER_POWER_KW;
+        }
+    }
+
+    // Current state of the station, or null if it has been removed since the graph was built
+    private ChargingStation liveStation(String stationId) {
+        return stationId != null ? chargingStationController.getRepository().findById(stationId) : null;
+    }
+
+    // Graph node for a station, for callers that identify stations by ID rather than holding a node
+    public Location getStationNode(String stationId) {
+        return stationId != null ? nodesByStationId.get(stationId) : null;
+    }
+
+    // Millisecond IDs as before, bumped past the last one so concurrent plans never share an ID
+    private static String nextTripId() {
+        long now = System.currentTimeMillis();
+        return "TRIP_" + LAST_TRIP_MILLIS.updateAndGet(last -> Math.max(now, last + 1));
+    }
+
+    /** One trip for a batch: the user's registered vehicle, range and charge are planned for. */
+    public static class TripRequest {
+        private final User user;
+        private final Location start;
+        private final Location end;
+        private final boolean timeOptimal;
+
+        public TripRequest(User user, Location start, Location end, boolean timeOptimal) {
+            this.user = user;
+            this.start = start;
+            this.end = end;
+            this.timeOptimal = timeOptimal;
+        }
+
+        public TripRequest(User user, Location start, Location end) {
+            this(user, start, end, false);
+        }
+
+        public User getUser() { return user; }
+        public Location getStart() { return start; }
+        public Location getEnd() { return end; }
+        public boolean isTimeOptimal() { return timeOptimal; }
+    }
+
+    public static class BatchResult {
+        public enum Status { PLANNED, FAILED, NOT_SAVED }
+
+        private final TripRequest request;
+        private final Status status;
+        private final Trip trip;
+        private final byte[] record; // Encoded journal record, until the batch is written
+        private final String error;
+
+        BatchResult(TripRequest request, Status status, Trip trip, byte[] record, String error) {
+            this.request = request;
+            this.status = status;
+            this.trip = trip;
+            this.record = record;
+            this.error = error;
+        }
+
+        public TripRequest getRequest() { return request; }
+        public Status getStatus() { return status; }
+        public Trip getTrip() { return trip; } // Null when FAILED
+        public String getError() { return error; } // Null when PLANNED
+    }
+
+    /** A graph snapshot, the hierarchy contracted from it and the routeGraph version both were taken at. */
+    private static final class RouteView {
+        private final CompactRouteGraph graph;
+        private final ContractionHierarchy hierarchy;
+        private final long version;
+
+        RouteView(CompactRouteGraph graph, ContractionHierarchy hierarchy, long version) {
+            this.graph = graph;
+            this.hierarchy = hierarchy;
+            this.version = version;
+        }
+    }
+
+    private static final class GreedyPlan {
+        private final double totalDistanceKm;
+        private final double energyConsumptionKWh;
+        private final List<ChargingStation> chargingStops;
+
+        GreedyPlan(double totalDistanceKm, double energyConsumptionKWh, List<ChargingStation> chargingStops) {
+            this.totalDistanceKm = totalDistanceKm;
+            this.energyConsumptionKWh = energyConsumptionKWh;
+            this.chargingStops = Collections.unmodifiableList(chargingStops);
+        }
+    }
+
+    // Trips keep their own copy so later edits to the live station do not rewrite trip history
+    private ChargingStation copyOf(ChargingStation station) {
+        return new ChargingStation(station.getStationId(), station.getName(), station.getStatus(),
+                station.getChargerType(), station.getPowerOutput(), station.getAvailablePorts(),
+                station.getLatitude(), station.getLongitude(), station.getCostPerKWh());
     }
 
     public double estimateTripTime(double distanceKm) {
@@ -1,11 +1,15 @@
 package com.taylorsuniversity.ev.routeplanning;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
 import com.taylorsuniversity.ev.analytics.CostAnalysisPanel;
 import com.taylorsuniversity.ev.analytics.EnvironmentalPanel;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStation;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationPanel;
 import com.taylorsuniversity.ev.usermanagement.*;
+import com.taylorsuniversity.ev.util.GeoMath;
+import com.taylorsuniversity.ev.util.GeoPoints;
 import com.taylorsuniversity.ev.util.Location;
+import com.taylorsuniversity.ev.vehiclemanagement.Vehicle;
 import com.taylorsuniversity.ev.vehiclemanagement.VehiclePanel;
 import org.jxmapviewer.JXMapViewer;
 import org.jxmapviewer.OSMTileFactoryInfo;
@@ -20,8 +24,6 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.Point2D;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -35,7 +37,10 @@ public class TripPlanningPanel extends JPanel {
 
     private static final long serialVersionUID = 1L;
     private final User user;
-    private final TripPlannerController tripPlannerController;
+    private final PanelDataLoader loader = PanelDataLoader.getInstance();
+    private final PanelDataLoader.PanelTimer timer;
+    private TripPlannerController tripPlannerController; // Set once the route graph is ready
+    private int pendingLoads = 3; // Vehicles, stations and the planner; touched only on the EDT
     private JXMapViewer mapViewer;
     private JComboBox<String> startComboBox;
     private JComboBox<String> endComboBox;
@@ -44,6 +49,7 @@ public class TripPlanningPanel extends JPanel {
     private JComboBox<String> vehicleComboBox;
     private List<VehicleData> vehicles;
     private List<ChargingStation> chargingStations;
+    private GeoPoints stationPoints; // Same order as chargingStations
     private boolean settingStart = true;
     private GeoPosition startPosition;
     private GeoPosition endPosition;
@@ -62,9 +68,10 @@ public class TripPlanningPanel extends JPanel {
 
     public TripPlanningPanel(User user) {
         this.user = user != null ? user : new User("Guest", "guest@example.com", "1234567890", "GUEST123", "ABC123", "password");
-        this.tripPlannerController = new TripPlannerController();
-        this.vehicles = loadVehiclesFromFile();
-        this.chargingStations = loadChargingStationsFromFile();
+        this.timer = loader.startTimer(this, "Trip Planning");
+        this.vehicles = new ArrayList<>();
+        this.chargingStations = new ArrayList<>();
+        this.stationPoints = GeoPoints.of(new double[0], new double[0]);
         setLayout(new BorderLayout());
         setBackground(new Color(245, 247, 250));
         setBorder(new EmptyBorder(30, 30, 30, 30)); // More breathing room
@@ -76,48 +83,44 @@ public class TripPlanningPanel extends JPanel {
         add(rightPanel, BorderLayout.CENTER);
 
         updateMap(null);
+
+        // Nothing below touches disk on the EDT; each result fills in its part of the panel
+        loader.deliver(loader.vehicles(), this::showVehicles);
+        loader.deliver(loader.allStations(), this::showStations);
+        loader.deliver(loader.tripPlanner(), controller -> {
+            tripPlannerController = controller;
+            loaded();
+        });
     }
 
-    private List<VehicleData> loadVehiclesFromFile() {
+    private void showVehicles(List<Vehicle> loadedVehicles) {
         List<VehicleData> vehicleList = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                getClass().getResourceAsStream("/vehicle_data.txt")))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 5) {
-                    String id = parts[0];
-                    String model = parts[1];
-                    String manufacturer = parts[2];
-                    double batteryCapacity = Double.parseDouble(parts[3]);
-                    double range = Double.parseDouble(parts[4]);
-                    vehicleList.add(new VehicleData(id, model, manufacturer, batteryCapacity, range));
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error loading vehicle data: " + e.getMessage());
+        for (Vehicle vehicle : loadedVehicles) {
+            vehicleList.add(new VehicleData(vehicle.getId(), vehicle.getModel(), vehicle.getManufacturer(),
+                    vehicle.getBatteryCapacity(), vehicle.getBatteryMonitoring().getRemainingRange()));
         }
-        return vehicleList;
+        vehicles = vehicleList;
+        String preferred = user.getVehicleModel();
+        vehicleComboBox.setModel(new DefaultComboBoxModel<>(vehicles.stream().map(v -> v.model).toArray(String[]::new)));
+        vehicleComboBox.setSelectedItem(preferred);
+        updateVehicleDetails();
+        loaded();
     }
 
-    private List<ChargingStation> loadChargingStationsFromFile() {
-        List<ChargingStation> stationList = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                getClass().getResourceAsStream("/charging_stations.txt")))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 3) {
-                    String name = parts[0].trim();
-                    double latitude = Double.parseDouble(parts[1].trim());
-                    double longitude = Double.parseDouble(parts[2].trim());
-                    stationList.add(new ChargingStation(name, latitude, longitude));
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error loading charging stations: " + e.getMessage());
+    private void showStations(List<ChargingStation> stations) {
+        List<ChargingStation> located = new ArrayList<>();
+        for (ChargingStation station : stations) {
+            if (station.getLocation() != null) located.add(station);
         }
-        return stationList;
+        chargingStations = located;
+        stationPoints = GeoPoints.of(located.stream().mapToDouble(ChargingStation::getLatitude).toArray(),
+                located.stream().mapToDouble(ChargingStation::getLongitude).toArray());
+        updateMap(null);
+        loaded();
+    }
+
+    private void loaded() {
+        if (--pendingLoads == 0) timer.dataShown();
     }
 
     private JPanel createLeftSidebar() {
@@ -198,19 +201,7 @@ public class TripPlanningPanel extends JPanel {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        try {
-            java.net.URL imgURL = getClass().getResource(path);
-            if (imgURL != null) {
-                ImageIcon icon = new ImageIcon(imgURL);
-                Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            LOGGER.warning("Icon not found: " + path);
-            return null;
-        } catch (Exception e) {
-            LOGGER.severe("Error loading icon " + path + ": " + e.getMessage());
-            return null;
-        }
+        return PanelDataLoader.getInstance().icon(path, width, height);
     }
 
 
@@ -341,6 +332,10 @@ public class TripPlanningPanel extends JPanel {
     }
 
     private void updateVehicleDetails() {
+        if (vehicles.isEmpty()) {
+            vehicleDetailsLabel.setText("Loading vehicles...");
+            return;
+        }
         String selectedModel = (String) vehicleComboBox.getSelectedItem();
         VehicleData selectedVehicle = vehicles.stream()
                 .filter(v -> v.model.equals(selectedModel))
@@ -442,8 +437,13 @@ public class TripPlanningPanel extends JPanel {
             return;
         }
 
+        if (tripPlannerController == null) {
+            JOptionPane.showMessageDialog(this, "Route data is still loading, please try again in a moment.", "Please Wait", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
         try {
-            double distance = calculateDistance(start, end);
+            double distance = GeoMath.haversine(start, end);
             double duration = tripPlannerController.estimateTripTime(distance);
             Trip trip = new Trip(start, end, distance, new ArrayList<ChargingStation>());
             trip.setVehicleModel(user.getVehicleModel());
@@ -494,40 +494,11 @@ public class TripPlanningPanel extends JPanel {
         }
     }
 
-    private double calculateDistance(Location start, Location end) {
-        final int R = 6371; // Earth radius in kilometers
-        double lat1 = Math.toRadians(start.getLatitude());
-        double lon1 = Math.toRadians(start.getLongitude());
-        double lat2 = Math.toRadians(end.getLatitude());
-        double lon2 = Math.toRadians(end.getLongitude());
-
-        double dLat = lat2 - lat1;
-        double dLon = lon2 - lon1;
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-
     private ChargingStation findNearestChargingStation(Location start, Location end) {
-        if (chargingStations.isEmpty()) return null;
-
-        double minDistance = Double.MAX_VALUE;
-        ChargingStation nearest = null;
-
         double midLat = (start.getLatitude() + end.getLatitude()) / 2;
         double midLon = (start.getLongitude() + end.getLongitude()) / 2;
-        Location midpoint = new Location("Midpoint", midLat, midLon);
-
-        for (ChargingStation station : chargingStations) {
-            double distToMid = calculateDistance(midpoint, new Location(station.getName(), station.getLatitude(), station.getLongitude()));
-            if (distToMid < minDistance) {
-                minDistance = distToMid;
-                nearest = station;
-            }
-        }
-        return nearest;
+        int nearest = stationPoints.nearest(midLat, midLon);
+        return nearest >= 0 ? chargingStations.get(nearest) : null;
     }
 
     private void updateMap(Trip trip) {
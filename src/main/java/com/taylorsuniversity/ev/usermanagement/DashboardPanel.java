@@ -1,5 +1,6 @@
 package com.taylorsuniversity.ev.usermanagement;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
 import com.taylorsuniversity.ev.analytics.AnalysisController;
 import com.taylorsuniversity.ev.analytics.CostAnalysisPanel;
 import com.taylorsuniversity.ev.analytics.EnvironmentalImpact;
@@ -137,19 +138,7 @@ public class DashboardPanel extends JPanel implements Observer {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        try {
-            java.net.URL imgURL = getClass().getResource(path);
-            if (imgURL != null) {
-                ImageIcon icon = new ImageIcon(imgURL);
-                Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            LOGGER.warning("Icon not found: " + path);
-            return null;
-        } catch (Exception e) {
-            LOGGER.severe("Error loading icon " + path + ": " + e.getMessage());
-            return null;
-        }
+        return PanelDataLoader.getInstance().icon(path, width, height);
     }
 
     private JPanel createMainContent() {
@@ -1,5 +1,7 @@
 package com.taylorsuniversity.ev.usermanagement;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
@@ -7,6 +9,8 @@ import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class LoginPanel extends JPanel {
     private UserController userController;
@@ -240,46 +244,36 @@ public class LoginPanel extends JPanel {
     }
 
     private void handleLogin() {
+        String email = emailField.getText();
+        String password = new String(passwordField.getPassword());
+        if (email.equals("Email") || password.equals("Password")) {
+            JOptionPane.showMessageDialog(LoginPanel.this, "Please enter your email and password.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         loginButton.setEnabled(false);
         loginButton.setText("Logging in...");
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                try {
-                    String email = emailField.getText();
-                    String password = new String(passwordField.getPassword());
-                    if (email.equals("Email") || password.equals("Password")) {
-                        SwingUtilities.invokeLater(() -> {
-                            JOptionPane.showMessageDialog(LoginPanel.this, "Please enter your email and password.", "Error", JOptionPane.ERROR_MESSAGE);
-                            loginButton.setEnabled(true);
-                            loginButton.setText("Log In");
-                        });
-                        return null;
-                    }
-                    UserDTO userDTO = userController.login(email, password);
-                    if (userDTO != null) {
-                        SwingUtilities.invokeLater(() -> {
-                            JOptionPane.showMessageDialog(LoginPanel.this, "Login successful! Welcome " + userDTO.getFullName());
-                            onLoginSuccess.run();
-                        });
-                    } else {
-                        SwingUtilities.invokeLater(() -> {
-                            JOptionPane.showMessageDialog(LoginPanel.this, "Invalid email or password", "Error", JOptionPane.ERROR_MESSAGE);
-                            loginButton.setEnabled(true);
-                            loginButton.setText("Log In");
-                        });
-                    }
-                } catch (Exception e) {
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(LoginPanel.this, "An unexpected error occurred: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                        loginButton.setEnabled(true);
-                        loginButton.setText("Log In");
-                    });
-                    e.printStackTrace();
+        // The check runs on the verification pool; every outcome is reported back on the EDT
+        userController.loginAsync(email, password).whenComplete((userDTO, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null && userDTO != null) {
+                // Start reading panel data while the welcome dialog is up
+                PanelDataLoader.getInstance().prefetch(userController.getCurrentUser());
+                JOptionPane.showMessageDialog(LoginPanel.this, "Login successful! Welcome " + userDTO.getFullName());
+                onLoginSuccess.run();
+                return;
+            }
+            if (error == null) {
+                JOptionPane.showMessageDialog(LoginPanel.this, "Invalid email or password", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof RejectedExecutionException) {
+                    JOptionPane.showMessageDialog(LoginPanel.this, "Too many login attempts in progress, please try again in a moment.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(LoginPanel.this, "An unexpected error occurred: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
                 }
-                return null;
             }
-        };
-        worker.execute();
+            loginButton.setEnabled(true);
+            loginButton.setText("Log In");
+        }));
     }
-}
\ No newline at end of file
+}
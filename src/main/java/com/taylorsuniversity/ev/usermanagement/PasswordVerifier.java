@@ -0,0 +1,139 @@
+package com.taylorsuniversity.ev.usermanagement;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs bcrypt checks on a fixed pool with one thread per core. The wait queue is bounded, and a
+ * check submitted while it is full fails fast with a RejectedExecutionException instead of
+ * piling up behind work that already cannot finish in time.
+ */
+public class PasswordVerifier {
+    private static final int QUEUE_PER_THREAD = 16;
+    private static PasswordVerifier instance;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+    private final AtomicLong totalVerifyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public PasswordVerifier(int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) throw new IllegalArgumentException("Threads and queue capacity must be positive");
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-verifier-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static synchronized PasswordVerifier getInstance() {
+        if (instance == null) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            instance = new PasswordVerifier(cores, cores * QUEUE_PER_THREAD);
+        }
+        return instance;
+    }
+
+    public CompletableFuture<Boolean> verify(String password, String hash) {
+        return submit(() -> password != null && hash != null && BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * Runs a task that performs a password check on the pool, so callers can fold the user lookup
+     * and follow-up work into the same slot. The future fails with RejectedExecutionException when
+     * the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    long finishedAt = System.nanoTime();
+                    record(startedAt - queuedAt, finishedAt - startedAt);
+                }
+            });
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                    "Password verification queue is full (" + executor.getQueue().size() + " waiting)"));
+        }
+        return future;
+    }
+
+    private void record(long queueNanos, long verifyNanos) {
+        totalQueueNanos.addAndGet(queueNanos);
+        totalVerifyNanos.addAndGet(verifyNanos);
+        maxLatencyNanos.accumulateAndGet(queueNanos + verifyNanos, Math::max);
+        completed.incrementAndGet();
+    }
+
+    public Stats getStats() {
+        long done = completed.get();
+        return new Stats(executor.getQueue().size(), executor.getActiveCount(), submitted.get(), done, rejected.get(),
+                done > 0 ? totalQueueNanos.get() / 1e6 / done : 0.0,
+                done > 0 ? totalVerifyNanos.get() / 1e6 / done : 0.0,
+                maxLatencyNanos.get() / 1e6);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public static class Stats {
+        private final int queueDepth;
+        private final int activeThreads;
+        private final long submitted;
+        private final long completed;
+        private final long rejected;
+        private final double averageQueueMillis;
+        private final double averageVerifyMillis;
+        private final double maxLatencyMillis;
+
+        Stats(int queueDepth, int activeThreads, long submitted, long completed, long rejected,
+              double averageQueueMillis, double averageVerifyMillis, double maxLatencyMillis) {
+            this.queueDepth = queueDepth;
+            this.activeThreads = activeThreads;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.averageQueueMillis = averageQueueMillis;
+            this.averageVerifyMillis = averageVerifyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+        }
+
+        public int getQueueDepth() { return queueDepth; }
+        public int getActiveThreads() { return activeThreads; }
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getRejected() { return rejected; }
+        public double getAverageQueueMillis() { return averageQueueMillis; }
+        public double getAverageVerifyMillis() { return averageVerifyMillis; }
+        public double getMaxLatencyMillis() { return maxLatencyMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("queue=%d active=%d submitted=%d completed=%d rejected=%d avgQueue=%.1fms avgVerify=%.1fms max=%.1fms",
+                    queueDepth, activeThreads, submitted, completed, rejected, averageQueueMillis, averageVerifyMillis, maxLatencyMillis);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.taylorsuniversity.ev.usermanagement;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
 import com.taylorsuniversity.ev.analytics.CostAnalysisPanel;
 import com.taylorsuniversity.ev.analytics.EnvironmentalPanel;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationPanel;
@@ -116,21 +117,9 @@ public class ProfilePanel extends JPanel {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        try {
-            String resourcePath = (path != null && !path.trim().isEmpty()) ? path : "/icons/user.png";
-            java.net.URL imgURL = getClass().getResource(resourcePath);
-            if (imgURL != null) {
-                ImageIcon icon = new ImageIcon(imgURL);
-                Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            } else {
-                LOGGER.log(Level.WARNING, "Icon resource not found: " + resourcePath);
-                return new ImageIcon(new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_ARGB));
-            }
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Error loading icon: " + (path != null ? path : "null"), e);
-            return new ImageIcon(new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_ARGB));
-        }
+        String resourcePath = (path != null && !path.trim().isEmpty()) ? path : "/icons/user.png";
+        ImageIcon icon = PanelDataLoader.getInstance().icon(resourcePath, width, height);
+        return icon != null ? icon : new ImageIcon(new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_ARGB));
     }
 
     private JPanel createRightPanel() {
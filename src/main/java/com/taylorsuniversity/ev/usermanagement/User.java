@@ -4,7 +4,11 @@ import com.taylorsuniversity.ev.routeplanning.Trip;
 import com.taylorsuniversity.ev.vehiclemanagement.Vehicle;
 import com.taylorsuniversity.ev.vehiclemanagement.BatteryMonitoring;
 import com.taylorsuniversity.ev.vehiclemanagement.EmergencySystem;
+import com.taylorsuniversity.ev.util.BinaryCodec;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -56,6 +60,9 @@ public class User implements Serializable {
         this.batteryHealth = 100.0; // Default health synced with BatteryMonitoring
     }
 
+    private User() {
+    }
+
     // Constructor used by UserController.signup
     public User(String fullName, String email, String phoneNumber, String vehicleNumber, String hashedPassword) {
         this(fullName, email, phoneNumber, generateUserId(), vehicleNumber, hashedPassword, "Tata Nexon EV", 300.0, 100.0);
@@ -268,4 +275,45 @@ public class User implements Serializable {
     public int hashCode() {
         return userId.hashCode() + email.hashCode();
     }
-}
\ No newline at end of file
+
+    // Binary form used by BinaryCodec
+    public void writeTo(DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, fullName);
+        BinaryCodec.writeString(out, email);
+        BinaryCodec.writeString(out, phoneNumber);
+        BinaryCodec.writeString(out, userId);
+        BinaryCodec.writeString(out, vehicleNumber);
+        BinaryCodec.writeString(out, password);
+        BinaryCodec.writeString(out, vehicleModel);
+        out.writeDouble(batteryRange);
+        out.writeDouble(currentChargeLevel);
+        BinaryCodec.writeList(out, preferredRoutes, (route, output) -> BinaryCodec.writeString(output, route));
+        BinaryCodec.writeList(out, tripHistory, Trip::writeTo);
+        BinaryCodec.writeString(out, profilePicture);
+        BinaryCodec.writeNullable(out, vehicle, Vehicle::writeTo);
+        out.writeInt(nextServiceMiles);
+        BinaryCodec.writeString(out, tirePressureStatus);
+        out.writeDouble(batteryHealth);
+    }
+
+    public static User readFrom(DataInput in, int version) throws IOException {
+        User user = new User();
+        user.fullName = BinaryCodec.readString(in);
+        user.email = BinaryCodec.readString(in);
+        user.phoneNumber = BinaryCodec.readString(in);
+        user.userId = BinaryCodec.readString(in);
+        user.vehicleNumber = BinaryCodec.readString(in);
+        user.password = BinaryCodec.readString(in);
+        user.vehicleModel = BinaryCodec.readString(in);
+        user.batteryRange = in.readDouble();
+        user.currentChargeLevel = in.readDouble();
+        user.preferredRoutes = BinaryCodec.readList(in, version, (input, v) -> BinaryCodec.readString(input));
+        user.tripHistory = BinaryCodec.readList(in, version, Trip::readFrom);
+        user.profilePicture = BinaryCodec.readString(in);
+        user.vehicle = BinaryCodec.readNullable(in, version, Vehicle::readFrom);
+        user.nextServiceMiles = in.readInt();
+        user.tirePressureStatus = BinaryCodec.readString(in);
+        user.batteryHealth = in.readDouble();
+        return user;
+    }
+}
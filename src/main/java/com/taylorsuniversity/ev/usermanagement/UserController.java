@@ -3,13 +3,23 @@ package com.taylorsuniversity.ev.usermanagement;
 import org.mindrot.jbcrypt.BCrypt;
 
 import javax.swing.*;
+import java.awt.Component;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class UserController {
     private UserDAO userDAO;
-    private User currentUser;
+    private final PasswordVerifier passwordVerifier;
+    private volatile User currentUser;
 
     public UserController() {
+        this(PasswordVerifier.getInstance());
+    }
+
+    public UserController(PasswordVerifier passwordVerifier) {
         this.userDAO = new UserDAO();
+        this.passwordVerifier = passwordVerifier;
     }
 
     public UserDTO signup(String fullName, String email, String phoneNumber, String vehicleNumber, String password) {
@@ -30,12 +40,37 @@ public class UserController {
     }
 
     public UserDTO login(String email, String password) {
-        User user = userDAO.findUserByEmail(email);
-        if (user != null && BCrypt.checkpw(password, user.getPassword())) {
-            this.currentUser = user;
-            return new UserDTO(user.getFullName(), user.getEmail(), user.getPhoneNumber(), user.getVehicleNumber());
+        try {
+            return loginAsync(email, password).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
         }
-        return null;
+    }
+
+    /**
+     * Looks the user up and checks the password on the shared verification pool. Completes with
+     * null for a wrong email or password, and exceptionally with RejectedExecutionException when
+     * too many logins are already waiting.
+     */
+    public CompletableFuture<UserDTO> loginAsync(String email, String password) {
+        return passwordVerifier.submit(() -> {
+            User user = userDAO.findUserByEmail(email);
+            if (user != null && password != null && BCrypt.checkpw(password, user.getPassword())) {
+                this.currentUser = user;
+                return new UserDTO(user.getFullName(), user.getEmail(), user.getPhoneNumber(), user.getVehicleNumber());
+            }
+            return null;
+        });
+    }
+
+    // Opens the user store ahead of the first login; safe to call more than once
+    public void open() {
+        userDAO.open();
+    }
+
+    public PasswordVerifier.Stats getLoginStats() {
+        return passwordVerifier.getStats();
     }
 
     public User getCurrentUser() {
@@ -49,18 +84,24 @@ public class UserController {
     public void updateUser(User user) {
         userDAO.saveUser(user);
     }
-    public void performLogin(JPanel panel, String email, String password, Runnable onSuccess) {
-        try {
-            UserDTO userDTO = login(email, password);
-            if (userDTO != null) {
+    // Verifies off the EDT and reports the outcome back on it. Takes a Component, not a JPanel, so
+    // that verifying this class in a headless run does not load Swing
+    public void performLogin(Component panel, String email, String password, Runnable onSuccess) {
+        loginAsync(email, password).whenComplete((userDTO, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof RejectedExecutionException) {
+                    JOptionPane.showMessageDialog(panel, "Too many login attempts in progress, please try again in a moment.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(panel, "An unexpected error occurred: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            } else if (userDTO != null) {
                 JOptionPane.showMessageDialog(panel, "Login successful! Welcome " + userDTO.getFullName());
                 onSuccess.run();
             } else {
                 JOptionPane.showMessageDialog(panel, "Invalid email or password", "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(panel, "An unexpected error occurred: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+        }));
     }
-}
\ No newline at end of file
+}
@@ -3,124 +3,162 @@ package com.taylorsuniversity.ev.usermanagement;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 public class UserDAO {
-    private static final String FILE_NAME = "users.dat";
-    private static final String COUNTER_FILE_NAME = "user_counter.dat";
+    private static final String FILE_NAME = "users.dat"; // Legacy whole-list file, migrated into the store once
+    private static final String STORE_FILE_NAME = "users.log";
+    private static final String COUNTER_FILE_NAME = "user_counter.dat"; // Legacy counter, read once to seed the allocator
+    private static final String ID_BLOCK_FILE_NAME = "user_id_block.dat";
+    private static final Pattern USER_ID_PATTERN = Pattern.compile("U\\d{1,9}");
     private static final Logger LOGGER = Logger.getLogger(UserDAO.class.getName());
-    private static final Object FILE_LOCK = new Object();
+    private volatile UserStore store; // Resolved on first use
 
-    private File getUsersFile() {
+    private File getAppFile(String name) {
         // Use user's home directory for storing data files
         String userHome = System.getProperty("user.home");
         File appDir = new File(userHome, ".evmanagement");
         if (!appDir.exists()) {
             appDir.mkdir();
         }
-        return new File(appDir, FILE_NAME);
+        return new File(appDir, name);
+    }
+
+    private File getUsersFile() {
+        return getAppFile(FILE_NAME);
     }
 
     private File getCounterFile() {
-        // Use user's home directory for storing data files
-        String userHome = System.getProperty("user.home");
-        File appDir = new File(userHome, ".evmanagement");
-        if (!appDir.exists()) {
-            appDir.mkdir();
-        }
-        return new File(appDir, COUNTER_FILE_NAME);
+        return getAppFile(COUNTER_FILE_NAME);
     }
 
-    private int loadCounter() {
-        synchronized (FILE_LOCK) {
-            File file = getCounterFile();
-            if (!file.exists()) {
-                return 1;
-            }
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                return (int) ois.readObject();
-            } catch (IOException | ClassNotFoundException e) {
-                LOGGER.log(Level.WARNING, "Error loading counter, starting with 1", e);
-                return 1;
-            }
+    /**
+     * First number for a new block file: past both the legacy counter and every id already in the
+     * store, so losing the block file never reissues an existing id. An unreadable counter fails
+     * rather than restarting at 1.
+     */
+    private long firstUnusedId() throws IOException {
+        long next = Math.max(loadLegacyCounter(), highestStoredId() + 1);
+        LOGGER.info("Seeding user ids from " + next);
+        return next;
+    }
+
+    // Next number from the old one-int counter file, or 1 if there never was one
+    private long loadLegacyCounter() throws IOException {
+        File file = getCounterFile();
+        if (!file.exists()) {
+            return 1;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            return (int) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unreadable user counter file " + file, e);
         }
     }
 
-    private void saveCounter(int counter) {
-        synchronized (FILE_LOCK) {
-            File file = getCounterFile();
-            File parentDir = file.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
-            }
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                oos.writeObject(counter);
-            } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "Error saving counter", e);
+    // Highest number among stored ids of the generated form U000123, or 0
+    private long highestStoredId() throws IOException {
+        long highest = 0;
+        for (User user : store().readAll()) {
+            String userId = user.getUserId();
+            if (userId != null && USER_ID_PATTERN.matcher(userId).matches()) {
+                highest = Math.max(highest, Long.parseLong(userId.substring(1)));
             }
         }
+        return highest;
     }
 
     public List<User> loadUsers() {
-        synchronized (FILE_LOCK) {
-            List<User> users = new ArrayList<>();
-            File file = getUsersFile();
-            if (!file.exists()) {
-                LOGGER.info("users.dat does not exist yet, returning empty list");
-                return users;
-            }
-
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Object obj = ois.readObject();
-                if (obj instanceof List) {
-                    users = (List<User>) obj;
-                    users.removeIf(user -> user.getEmail() == null);
-                }
-                LOGGER.info("Loaded " + users.size() + " users from users.dat");
-            } catch (EOFException e) {
-                LOGGER.info("Empty or corrupted users.dat file");
-            } catch (IOException | ClassNotFoundException e) {
-                LOGGER.log(Level.SEVERE, "Error loading users", e);
-            }
+        try {
+            List<User> users = store().readAll();
+            LOGGER.fine("Loaded " + users.size() + " users from " + STORE_FILE_NAME);
             return users;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading users", e);
+            return new ArrayList<>();
         }
     }
 
     public void saveUser(User user) {
-        synchronized (FILE_LOCK) {
-            LOGGER.info("Attempting to save user: " + user.getEmail());
-            List<User> users = loadUsers();
-            users.removeIf(u -> u.getEmail() != null && u.getEmail().equals(user.getEmail()));
-            users.add(user);
-
-            File file = getUsersFile();
-            File parentDir = file.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
-            }
+        LOGGER.info("Attempting to save user: " + user.getEmail());
+        try {
+            store().put(user);
+            LOGGER.info("Successfully saved user: " + user.getEmail() + " to " + STORE_FILE_NAME);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error saving user: " + user.getEmail(), e);
+        }
+    }
+
+    public User findUserByEmail(String email) {
+        if (email == null) return null;
+        try {
+            return store().get(email);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading user: " + email, e);
+            return null;
+        }
+    }
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                oos.writeObject(users);
-                LOGGER.info("Successfully saved user: " + user.getEmail() + " to users.dat");
-            } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "Error saving user: " + user.getEmail(), e);
+    // Opens the user store, migrating users.dat on first run, so the first lookup does not pay for it
+    public void open() {
+        try {
+            store();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error opening user store", e);
+        }
+    }
+
+    // Resolved once, so lookups skip the shared store table and the directory check
+    private UserStore store() throws IOException {
+        UserStore current = store;
+        if (current != null) return current;
+        synchronized (this) {
+            if (store == null) {
+                UserStore opened = UserStore.forFile(getAppFile(STORE_FILE_NAME));
+                synchronized (opened) {
+                    if (opened.isEmpty()) migrateLegacyFile(opened);
+                }
+                store = opened;
             }
+            return store;
         }
     }
 
-    public User findUserByEmail(String email) {
-        return loadUsers().stream()
-                .filter(u -> u.getEmail() != null && u.getEmail().equals(email))
-                .findFirst()
-                .orElse(null);
+    // Copies users.dat into an empty store and renames it so the import runs only once
+    private void migrateLegacyFile(UserStore store) throws IOException {
+        File legacy = getUsersFile();
+        if (!legacy.exists()) return;
+        List<User> users = new ArrayList<>();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacy))) {
+            Object obj = ois.readObject();
+            if (obj instanceof List) {
+                users = (List<User>) obj;
+                users.removeIf(user -> user.getEmail() == null);
+            }
+        } catch (EOFException e) {
+            LOGGER.info("Empty or corrupted users.dat file");
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable users.dat file", e);
+        }
+        store.putAll(users);
+        if (!legacy.renameTo(new File(legacy.getParentFile(), FILE_NAME + ".migrated"))) {
+            LOGGER.warning("Could not rename " + FILE_NAME + " after migrating it to " + STORE_FILE_NAME);
+        }
+        LOGGER.info("Migrated " + users.size() + " users from " + FILE_NAME + " to " + STORE_FILE_NAME);
     }
 
     public String generateUserId() {
-        int counter = loadCounter();
-        String userId = "U" + String.format("%06d", counter); // e.g., "U000001"
-        saveCounter(counter + 1);
-        return userId;
+        try {
+            UserIdAllocator allocator = UserIdAllocator.forFile(getAppFile(ID_BLOCK_FILE_NAME),
+                    UserIdAllocator.DEFAULT_BLOCK_SIZE, this::firstUnusedId);
+            return "U" + String.format("%06d", allocator.nextId()); // e.g., "U000001"
+        } catch (IOException e) {
+            // Never fall back to a guess: a reused id would attach two accounts to one identity
+            LOGGER.log(Level.SEVERE, "Error reserving user ids", e);
+            throw new IllegalStateException("Unable to allocate a user id", e);
+        }
     }
 
     public void debugUsers() {
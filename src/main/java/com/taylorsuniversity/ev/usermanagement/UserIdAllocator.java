@@ -0,0 +1,104 @@
+package com.taylorsuniversity.ev.usermanagement;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands out increasing user numbers from an AtomicLong. Numbers are only issued below a
+ * high-water mark that has already been fsynced, and the mark moves up a whole block at a time,
+ * so the file is touched once per block. After a crash the allocator restarts at the persisted
+ * mark: the unused rest of the last block is skipped, but no number is ever issued twice.
+ */
+class UserIdAllocator {
+    private static final Logger LOGGER = Logger.getLogger(UserIdAllocator.class.getName());
+    static final int DEFAULT_BLOCK_SIZE = 1000;
+    private static final Map<String, UserIdAllocator> OPEN_ALLOCATORS = new HashMap<>();
+
+    private final Path path;
+    private final int blockSize;
+    private final AtomicLong next;
+    private volatile long reservedLimit; // exclusive; durably on disk before any number below it is issued
+
+    private UserIdAllocator(Path path, int blockSize, Seed firstId) throws IOException {
+        this.path = path;
+        this.blockSize = blockSize;
+        long start = Files.exists(path) ? readLimit() : firstId.firstId();
+        this.next = new AtomicLong(start);
+        this.reservedLimit = start;
+    }
+
+    /**
+     * @param firstId lowest number to issue when the file does not exist yet, e.g. past every id
+     *                already stored; if it fails, so does opening the allocator
+     */
+    static synchronized UserIdAllocator forFile(File file, int blockSize, Seed firstId) throws IOException {
+        if (blockSize <= 0) throw new IllegalArgumentException("Block size must be positive");
+        String key = file.getAbsoluteFile().toPath().normalize().toString();
+        UserIdAllocator allocator = OPEN_ALLOCATORS.get(key);
+        if (allocator == null) {
+            allocator = new UserIdAllocator(file.getAbsoluteFile().toPath(), blockSize, firstId);
+            OPEN_ALLOCATORS.put(key, allocator);
+        }
+        return allocator;
+    }
+
+    long nextId() throws IOException {
+        long id = next.getAndIncrement();
+        if (id < reservedLimit) return id;
+        synchronized (this) {
+            while (id >= reservedLimit) reserveBlock();
+        }
+        return id;
+    }
+
+    /** Where numbering starts when there is no block file yet. */
+    interface Seed {
+        long firstId() throws IOException;
+    }
+
+    private void reserveBlock() throws IOException {
+        long limit = reservedLimit + blockSize;
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.writeLong(limit);
+            out.writeLong(~limit); // Lets a damaged file be told apart from a valid one
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        reservedLimit = limit;
+        LOGGER.log(Level.FINE, "Reserved user ids up to {0}", limit);
+    }
+
+    private long readLimit() throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            long limit = in.readLong();
+            if (in.readLong() != ~limit || limit < 0) throw new IOException("Corrupt user id block file " + path);
+            return limit;
+        } catch (EOFException e) {
+            throw new IOException("Truncated user id block file " + path, e);
+        }
+    }
+
+    // Makes the rename itself durable; not supported on every platform
+    private void syncDirectory() {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Directory sync not supported for " + dir, e);
+        }
+    }
+}
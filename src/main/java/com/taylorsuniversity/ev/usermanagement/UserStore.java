@@ -0,0 +1,298 @@
+package com.taylorsuniversity.ev.usermanagement;
+
+import com.taylorsuniversity.ev.util.BinaryCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Users keyed by email in an append-only log, with an in-memory email -> offset index so a
+ * lookup reads exactly one record. Log records are [int bodyLength][int crc32][body], where the
+ * body is [UTF email][User in BinaryCodec form]; bodies written before the codec hold a
+ * Java-serialized User instead and are told apart by the serialization magic. The index is snapshotted to a side file together with the
+ * log length it covers, so opening a large store only replays records appended since the last
+ * snapshot. Superseded records are compacted away once they outnumber the live users. Lookups
+ * take only the offset under the store's lock and read the record with a positional read
+ * outside it, so logins on several threads read in parallel.
+ */
+class UserStore {
+    private static final Logger LOGGER = Logger.getLogger(UserStore.class.getName());
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int MIN_RECORDS_FOR_COMPACTION = 10_000;
+    private static final int SNAPSHOT_AFTER_REPLAYED_RECORDS = 10_000;
+    private static final int SERIALIZED_FIRST_BYTE = 0xAC; // ObjectOutputStream header; codec bodies start with a small version int
+    private static final int SNAPSHOT_MAGIC = 0x55534958; // "USIX"
+    private static final Map<String, UserStore> OPEN_STORES = new HashMap<>();
+
+    private final Path logPath;
+    private final Path snapshotPath;
+    private volatile FileChannel channel; // Replaced by compaction; written under the lock
+    private final Map<String, Long> offsets = new LinkedHashMap<>(); // email -> record start, in first-save order
+    private long recordCount;
+
+    private UserStore(Path logPath) throws IOException {
+        this.logPath = logPath;
+        this.snapshotPath = logPath.resolveSibling(logPath.getFileName() + ".idx");
+        open();
+    }
+
+    // One store per file so every DAO instance shares the same index
+    static synchronized UserStore forFile(File file) throws IOException {
+        String key = file.getAbsoluteFile().toPath().normalize().toString();
+        UserStore store = OPEN_STORES.get(key);
+        if (store == null) {
+            store = new UserStore(file.getAbsoluteFile().toPath());
+            OPEN_STORES.put(key, store);
+        }
+        return store;
+    }
+
+    synchronized boolean isEmpty() {
+        return offsets.isEmpty();
+    }
+
+    synchronized int size() {
+        return offsets.size();
+    }
+
+    synchronized boolean contains(String email) {
+        return offsets.containsKey(email);
+    }
+
+    User get(String email) throws IOException {
+        if (email == null) return null;
+        while (true) {
+            Long position;
+            FileChannel reader;
+            synchronized (this) {
+                position = offsets.get(email);
+                reader = channel;
+            }
+            if (position == null) return null;
+            try {
+                return readUser(reader, position);
+            } catch (ClosedChannelException e) {
+                // Compaction holds the lock until the new log is open, so a changed channel means it swapped the log mid-read
+                synchronized (this) {
+                    if (reader == channel) throw e;
+                }
+            }
+        }
+    }
+
+    synchronized List<User> readAll() throws IOException {
+        List<User> users = new ArrayList<>(offsets.size());
+        for (long position : offsets.values()) users.add(readUser(channel, position));
+        return users;
+    }
+
+    synchronized void put(User user) throws IOException {
+        if (user.getEmail() == null) throw new IllegalArgumentException("User email cannot be null");
+        long position = channel.size();
+        writeRecord(channel, position, user);
+        channel.force(false);
+        offsets.put(user.getEmail(), position);
+        recordCount++;
+        if (recordCount >= MIN_RECORDS_FOR_COMPACTION && recordCount > 2L * offsets.size()) {
+            compact();
+        }
+    }
+
+    // Appends many users with a single fsync, used for imports
+    synchronized void putAll(List<User> users) throws IOException {
+        long position = channel.size();
+        for (User user : users) {
+            if (user.getEmail() == null) continue;
+            long start = position;
+            position += writeRecord(channel, position, user);
+            offsets.put(user.getEmail(), start);
+            recordCount++;
+        }
+        channel.force(false);
+    }
+
+    synchronized void compact() throws IOException {
+        long before = recordCount;
+        Path temp = logPath.resolveSibling(logPath.getFileName() + ".compact");
+        Map<String, Long> compacted = new LinkedHashMap<>();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                byte[] body = readBody(channel, entry.getValue());
+                compacted.put(entry.getKey(), position);
+                position += writeBody(out, position, body);
+            }
+            out.force(true);
+        }
+        // The old snapshot describes offsets in the old log, so it must go before the log is swapped
+        Files.deleteIfExists(snapshotPath);
+        channel.close();
+        Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsets.clear();
+        offsets.putAll(compacted);
+        recordCount = offsets.size();
+        writeSnapshot();
+        LOGGER.log(Level.INFO, "Compacted user store from {0} to {1} records", new Object[]{before, recordCount});
+    }
+
+    private void open() throws IOException {
+        Path parent = logPath.getParent();
+        if (parent != null) Files.createDirectories(parent);
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long covered = loadSnapshot();
+        long replayed = replay(covered);
+        if (replayed >= SNAPSHOT_AFTER_REPLAYED_RECORDS) writeSnapshot();
+    }
+
+    // Returns the log length the snapshot covers, or 0 when there is no usable snapshot
+    private long loadSnapshot() {
+        if (!Files.exists(snapshotPath)) return 0;
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Bad snapshot header");
+            long covered = in.readLong();
+            long records = in.readLong();
+            int count = in.readInt();
+            if (covered > channel.size()) throw new IOException("Snapshot is ahead of the log");
+            Map<String, Long> loaded = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) loaded.put(in.readUTF(), in.readLong());
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) throw new IOException("Snapshot checksum mismatch");
+            offsets.putAll(loaded);
+            recordCount = records;
+            return covered;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unusable user index snapshot, replaying the full log", e);
+            offsets.clear();
+            recordCount = 0;
+            return 0;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16), new CRC32())) {
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(channel.size());
+            out.writeLong(recordCount);
+            out.writeInt(offsets.size());
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Indexes records from the given offset on, truncating a torn or corrupt tail
+    private long replay(long from) throws IOException {
+        long size = channel.size();
+        long position = from;
+        long replayed = 0;
+        try (FileChannel reader = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader.position(from)), 1 << 16));
+            while (size - position >= HEADER_BYTES) {
+                int length = in.readInt();
+                int crc = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES || size - position - HEADER_BYTES < length) break;
+                byte[] body = new byte[length];
+                in.readFully(body);
+                if (checksum(body) != crc) break;
+                String email = new DataInputStream(new ByteArrayInputStream(body)).readUTF();
+                offsets.put(email, position);
+                recordCount++;
+                replayed++;
+                position += HEADER_BYTES + length;
+            }
+        }
+        if (position < size) {
+            LOGGER.log(Level.WARNING, "Truncating torn or corrupt user store tail at byte {0} of {1}",
+                    new Object[]{position, size});
+            channel.truncate(position);
+            channel.force(true);
+        }
+        return replayed;
+    }
+
+    private static long writeRecord(FileChannel out, long position, User user) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream body = new DataOutputStream(bodyBytes)) {
+            body.writeUTF(user.getEmail());
+            body.write(BinaryCodec.encode(user, User::writeTo));
+        }
+        return writeBody(out, position, bodyBytes.toByteArray());
+    }
+
+    private static long writeBody(FileChannel out, long position, byte[] body) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        buffer.putInt(body.length).putInt(checksum(body)).put(body).flip();
+        long written = 0;
+        while (buffer.hasRemaining()) written += out.write(buffer, position + written);
+        return written;
+    }
+
+    private static User readUser(FileChannel reader, long position) throws IOException {
+        byte[] body = readBody(reader, position);
+        DataInputStream fields = new DataInputStream(new ByteArrayInputStream(body));
+        int emailBytes = fields.readUnsignedShort(); // writeUTF length prefix
+        fields.skipBytes(emailBytes);
+        if ((body[2 + emailBytes] & 0xFF) != SERIALIZED_FIRST_BYTE) return BinaryCodec.decode(fields, User::readFrom);
+        try (ObjectInputStream ois = new ObjectInputStream(fields)) {
+            return (User) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable user record at byte " + position, e);
+        }
+    }
+
+    private static byte[] readBody(FileChannel reader, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(reader, header, position);
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) throw new IOException("Corrupt user record at byte " + position);
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(reader, body, position + HEADER_BYTES);
+        if (checksum(body.array()) != crc) throw new IOException("Corrupt user record at byte " + position);
+        return body.array();
+    }
+
+    // Positional reads leave the channel position alone, so any number of threads can read at once
+    private static void readFully(FileChannel reader, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = reader.read(buffer, position + buffer.position());
+            if (read < 0) throw new EOFException("Unexpected end of user store at byte " + position);
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
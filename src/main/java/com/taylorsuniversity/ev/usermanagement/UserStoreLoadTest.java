@@ -0,0 +1,136 @@
+package com.taylorsuniversity.ev.usermanagement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Load harness for UserStore, run against a store in a temporary directory so ~/.evmanagement is
+ * never touched. Bulk-loads the users in batches of 10,000 with one fsync each, then times random
+ * lookups on one thread and on the given number of threads, and single saves with their fsync.
+ * Prints throughput and p50/p99 latency for each, then deletes the directory; exits with status 1
+ * if a lookup returns the wrong user.
+ *
+ * Usage: UserStoreLoadTest [users] [threads] [lookupsPerThread]
+ */
+public class UserStoreLoadTest {
+    private static final int BATCH = 10_000;
+    private static final int SAVES = 200;
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int lookupsPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+        if (userCount < 1 || threads < 1 || lookupsPerThread < 1) {
+            System.err.println("Usage: UserStoreLoadTest [users >= 1] [threads] [lookupsPerThread]");
+            System.exit(1);
+        }
+
+        Path directory = Files.createTempDirectory("user-store-load");
+        AtomicLong wrong = new AtomicLong();
+        try {
+            UserStore store = UserStore.forFile(directory.resolve("users.log").toFile());
+            long startNanos = System.nanoTime();
+            List<User> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < userCount; i++) {
+                batch.add(user(i));
+                if (batch.size() == BATCH || i == userCount - 1) {
+                    store.putAll(batch);
+                    batch.clear();
+                }
+            }
+            double loadSeconds = (System.nanoTime() - startNanos) / 1e9;
+            System.out.printf("loaded %d users in %.1f s (%.0f users/s), log %d MB%n", userCount, loadSeconds,
+                    userCount / loadSeconds, Files.size(directory.resolve("users.log")) / (1024 * 1024));
+
+            lookups(store, userCount, 1, lookupsPerThread, wrong);
+            if (threads > 1) lookups(store, userCount, threads, lookupsPerThread, wrong);
+
+            long[] saves = new long[SAVES];
+            Random random = new Random(SAVES);
+            for (int i = 0; i < SAVES; i++) {
+                User user = user(random.nextInt(userCount));
+                long sent = System.nanoTime();
+                store.put(user);
+                saves[i] = System.nanoTime() - sent;
+            }
+            Arrays.sort(saves);
+            System.out.printf("%d saves: p50 %.2f ms, p99 %.2f ms%n", SAVES,
+                    percentile(saves, 0.50) / 1e6, percentile(saves, 0.99) / 1e6);
+        } finally {
+            deleteRecursively(directory);
+        }
+        System.out.printf("wrong lookups: %d%n", wrong.get());
+        if (wrong.get() > 0) System.exit(1);
+    }
+
+    private static void lookups(UserStore store, int userCount, int threads, int lookupsPerThread, AtomicLong wrong)
+            throws Exception {
+        long[][] latencies = new long[threads][lookupsPerThread];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < lookupsPerThread; i++) {
+                    int index = random.nextInt(userCount);
+                    long sent = System.nanoTime();
+                    User user = store.get(email(index));
+                    latencies[thread][i] = System.nanoTime() - sent;
+                    if (user == null || !userId(index).equals(user.getUserId())) wrong.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        pool.shutdown();
+
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d lookups on %d threads: %.0f lookups/s, p50 %.1f us, p99 %.1f us%n", sorted.length,
+                threads, sorted.length / elapsedSeconds, percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.99) / 1e3);
+    }
+
+    private static User user(int index) {
+        return new User("Load Test " + index, email(index), "98" + String.format("%08d", index), userId(index),
+                "BA" + index, "loadtest-password");
+    }
+
+    private static String email(int index) {
+        return "user" + index + "@loadtest.example.com";
+    }
+
+    private static String userId(int index) {
+        return "U" + String.format("%06d", index + 1);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
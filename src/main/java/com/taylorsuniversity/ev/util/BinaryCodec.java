@@ -0,0 +1,189 @@
+package com.taylorsuniversity.ev.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hand-written binary encoding for the persisted model classes, replacing Java serialization.
+ * Each class writes its own fields in a fixed order through writeTo(DataOutput) and reads them
+ * back in a static readFrom(DataInput, int version), branching on the schema version when a
+ * field is added. A stream is [int magic][int version] followed by records, each preceded by a
+ * marker byte, so it can be written and read one object at a time without knowing the count.
+ */
+public final class BinaryCodec {
+    public static final int MAGIC = 0x45564243; // "EVBC"
+    public static final int VERSION = 1;
+    private static final int SERIALIZATION_MAGIC = 0xACED; // First two bytes of any ObjectOutputStream
+    private static final byte MORE = 1;
+    private static final byte END = 0;
+
+    @FunctionalInterface
+    public interface Encoder<T> {
+        void encode(T value, DataOutput out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T decode(DataInput in, int version) throws IOException;
+    }
+
+    private BinaryCodec() {
+    }
+
+    /** Streams records to a file, one at a time, as they are encoded. */
+    public static final class Writer<T> implements Closeable {
+        private final DataOutputStream out;
+        private final Encoder<T> encoder;
+
+        public Writer(OutputStream stream, Encoder<T> encoder) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            this.encoder = encoder;
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public void write(T value) throws IOException {
+            out.writeByte(MORE);
+            encoder.encode(value, out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeByte(END);
+            out.close();
+        }
+    }
+
+    public static <T> void writeAll(OutputStream stream, Encoder<T> encoder, Iterable<? extends T> values) throws IOException {
+        try (Writer<T> writer = new Writer<>(stream, encoder)) {
+            for (T value : values) writer.write(value);
+        }
+    }
+
+    /**
+     * Decodes records one by one, handing each to the consumer before the next is read. Returns
+     * the number of records read.
+     */
+    public static <T> int forEach(InputStream stream, Decoder<T> decoder, Consumer<? super T> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        if (in.readInt() != MAGIC) throw new IOException("Not an encoded stream");
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported schema version " + version);
+        int count = 0;
+        while (in.readByte() == MORE) {
+            consumer.accept(decoder.decode(in, version));
+            count++;
+        }
+        return count;
+    }
+
+    public static <T> List<T> readAll(InputStream stream, Decoder<T> decoder) throws IOException {
+        List<T> values = new ArrayList<>();
+        forEach(stream, decoder, values::add);
+        return values;
+    }
+
+    /**
+     * Reads a file written either by this codec or, for migration, by ObjectOutputStream holding a
+     * single List. The format is told apart by the first bytes.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> readFile(File file, Decoder<T> decoder) throws IOException {
+        try (InputStream raw = new BufferedInputStream(new FileInputStream(file))) {
+            raw.mark(2);
+            int first = raw.read();
+            int second = raw.read();
+            raw.reset();
+            if (first >= 0 && ((first << 8) | second) == SERIALIZATION_MAGIC) {
+                try (ObjectInputStream ois = new ObjectInputStream(raw)) {
+                    Object obj = ois.readObject();
+                    return obj instanceof List ? new ArrayList<>((List<T>) obj) : new ArrayList<>();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unreadable legacy file " + file, e);
+                }
+            }
+            return readAll(raw, decoder);
+        }
+    }
+
+    public static <T> byte[] encode(T value, Encoder<T> encoder) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(VERSION);
+            encoder.encode(value, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reads a single value written by encode
+    public static <T> T decode(DataInput in, Decoder<T> decoder) throws IOException {
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported schema version " + version);
+        return decoder.decode(in, version);
+    }
+
+    // Field helpers shared by the model classes
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    public static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    public static <T> void writeNullable(DataOutput out, T value, Encoder<T> encoder) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) encoder.encode(value, out);
+    }
+
+    public static <T> T readNullable(DataInput in, int version, Decoder<T> decoder) throws IOException {
+        return in.readBoolean() ? decoder.decode(in, version) : null;
+    }
+
+    public static <T> void writeList(DataOutput out, List<T> values, Encoder<T> encoder) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (T value : values) writeNullable(out, value, encoder);
+    }
+
+    // Returns an empty list for a null list, matching how the model getters treat null
+    public static <T> List<T> readList(DataInput in, int version, Decoder<T> decoder) throws IOException {
+        int size = in.readInt();
+        List<T> values = new ArrayList<>(Math.max(size, 0));
+        for (int i = 0; i < size; i++) values.add(readNullable(in, version, decoder));
+        return values;
+    }
+}
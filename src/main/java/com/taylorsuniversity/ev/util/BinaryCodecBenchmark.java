@@ -0,0 +1,139 @@
+package com.taylorsuniversity.ev.util;
+
+import com.taylorsuniversity.ev.charginginfrastructure.ChargingStation;
+import com.taylorsuniversity.ev.routeplanning.Trip;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares BinaryCodec with Java serialization on generated trips, each with waypoints and
+ * charging stops. Per record, every trip is encoded and decoded on its own, as the journal
+ * writes them; per list, all trips go through one stream, as the data files are written. Prints
+ * the bytes and the mean encode and decode time for each. Java serialization leaves waypoints
+ * out because the field is transient, so its sizes are for less data; the binary side is checked
+ * to bring every waypoint back and exits with status 1 if it does not.
+ *
+ * Usage: BinaryCodecBenchmark [trips] [waypointsPerTrip]
+ */
+public class BinaryCodecBenchmark {
+    private static final int ROUNDS = 3; // The first round warms up
+
+    public static void main(String[] args) throws Exception {
+        int tripCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int waypointCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        if (tripCount < 1 || waypointCount < 0) {
+            System.err.println("Usage: BinaryCodecBenchmark [trips >= 1] [waypointsPerTrip >= 0]");
+            System.exit(1);
+        }
+        List<Trip> trips = trips(tripCount, waypointCount);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean report = round == ROUNDS - 1;
+
+            long startNanos = System.nanoTime();
+            long binaryBytes = 0;
+            byte[][] encoded = new byte[tripCount][];
+            for (int i = 0; i < tripCount; i++) {
+                encoded[i] = BinaryCodec.encode(trips.get(i), Trip::writeTo);
+                binaryBytes += encoded[i].length;
+            }
+            double binaryEncode = (System.nanoTime() - startNanos) / 1e3 / tripCount;
+            startNanos = System.nanoTime();
+            int decodedWaypoints = 0;
+            for (byte[] bytes : encoded) {
+                Trip trip = BinaryCodec.decode(new DataInputStream(new ByteArrayInputStream(bytes)), Trip::readFrom);
+                decodedWaypoints += trip.getWaypoints().size();
+            }
+            double binaryDecode = (System.nanoTime() - startNanos) / 1e3 / tripCount;
+            if (decodedWaypoints != tripCount * waypointCount) {
+                System.out.printf("binary records lost waypoints: %d of %d%n", decodedWaypoints, tripCount * waypointCount);
+                System.exit(1);
+            }
+
+            startNanos = System.nanoTime();
+            long serializedBytes = 0;
+            for (int i = 0; i < tripCount; i++) {
+                encoded[i] = serialize(trips.get(i));
+                serializedBytes += encoded[i].length;
+            }
+            double serializedEncode = (System.nanoTime() - startNanos) / 1e3 / tripCount;
+            startNanos = System.nanoTime();
+            for (byte[] bytes : encoded) deserialize(bytes);
+            double serializedDecode = (System.nanoTime() - startNanos) / 1e3 / tripCount;
+
+            if (report) {
+                System.out.printf("per record, %d trips with %d waypoints:%n", tripCount, waypointCount);
+                System.out.printf("  binary        %4d bytes/trip, encode %.2f us, decode %.2f us%n",
+                        binaryBytes / tripCount, binaryEncode, binaryDecode);
+                System.out.printf("  serialization %4d bytes/trip, encode %.2f us, decode %.2f us%n",
+                        serializedBytes / tripCount, serializedEncode, serializedDecode);
+            }
+
+            ByteArrayOutputStream binaryList = new ByteArrayOutputStream();
+            startNanos = System.nanoTime();
+            BinaryCodec.writeAll(binaryList, Trip::writeTo, trips);
+            double binaryListEncode = (System.nanoTime() - startNanos) / 1e6;
+            startNanos = System.nanoTime();
+            List<Trip> binaryRead = BinaryCodec.readAll(new ByteArrayInputStream(binaryList.toByteArray()), Trip::readFrom);
+            double binaryListDecode = (System.nanoTime() - startNanos) / 1e6;
+            if (binaryRead.size() != tripCount) {
+                System.out.printf("binary list read %d of %d trips%n", binaryRead.size(), tripCount);
+                System.exit(1);
+            }
+
+            startNanos = System.nanoTime();
+            byte[] serializedList = serialize(new ArrayList<>(trips));
+            double serializedListEncode = (System.nanoTime() - startNanos) / 1e6;
+            startNanos = System.nanoTime();
+            deserialize(serializedList);
+            double serializedListDecode = (System.nanoTime() - startNanos) / 1e6;
+
+            if (report) {
+                System.out.printf("one list of %d trips:%n", tripCount);
+                System.out.printf("  binary        %6.1f MB, encode %.0f ms, decode %.0f ms%n",
+                        binaryList.size() / 1e6, binaryListEncode, binaryListDecode);
+                System.out.printf("  serialization %6.1f MB, encode %.0f ms, decode %.0f ms%n",
+                        serializedList.length / 1e6, serializedListEncode, serializedListDecode);
+            }
+        }
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private static List<Trip> trips(int count, int waypointCount) {
+        Random random = new Random(count);
+        List<Trip> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Location> waypoints = new ArrayList<>(waypointCount);
+            for (int w = 0; w < waypointCount; w++) waypoints.add(location(random, "Waypoint " + w));
+            List<ChargingStation> stops = new ArrayList<>();
+            for (int s = random.nextInt(3); s > 0; s--) {
+                stops.add(new ChargingStation("BM" + random.nextInt(10_000), "Benchmark Station", "AVAILABLE", "CCS",
+                        "50kW", "2/4", 26.3 + random.nextDouble() * 4.2, 80.0 + random.nextDouble() * 8.2, 15));
+            }
+            trips.add(new Trip("TRIP_" + i, "user" + (i % 1000) + "@benchmark.example.com", location(random, "Start"),
+                    location(random, "End"), waypoints, stops, 50 + random.nextDouble() * 400, random.nextDouble() * 60,
+                    "Benchmark EV", 300.0, 20 + random.nextDouble() * 80));
+        }
+        return trips;
+    }
+
+    private static Location location(Random random, String name) {
+        return new Location(26.3 + random.nextDouble() * 4.2, 80.0 + random.nextDouble() * 8.2, name);
+    }
+}
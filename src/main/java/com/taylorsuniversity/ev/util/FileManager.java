@@ -119,6 +119,40 @@ public class FileManager {
         }
     }
 
+    // Reads a list written by writeEncodedObjects, or a legacy writeSerializedObjects file
+    public static <T> List<T> readEncodedObjects(String filePath, BinaryCodec.Decoder<T> decoder) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            LOGGER.warning("Encoded file not found: " + filePath);
+            return new ArrayList<>();
+        }
+        try {
+            List<T> objects = BinaryCodec.readFile(file, decoder);
+            LOGGER.info("Loaded " + objects.size() + " objects from " + filePath);
+            return objects;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error reading encoded file: " + filePath, e);
+            return new ArrayList<>();
+        }
+    }
+
+    public static <T> void writeEncodedObjects(String filePath, List<T> objects, BinaryCodec.Encoder<T> encoder) {
+        synchronized (FILE_LOCK) {
+            File file = new File(filePath);
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                parentDir.mkdirs();
+            }
+
+            try {
+                BinaryCodec.writeAll(new FileOutputStream(file), encoder, objects);
+                LOGGER.info("Saved " + objects.size() + " objects to " + filePath);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Error writing encoded file: " + filePath, e);
+            }
+        }
+    }
+
     // Example usage: Load initial charging stations if file is empty
     public static void initializeChargingStationsFile() {
         File file = new File(CHARGING_STATIONS_FILE);
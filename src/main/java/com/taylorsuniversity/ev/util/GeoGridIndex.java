@@ -0,0 +1,210 @@
+package com.taylorsuniversity.ev.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform latitude/longitude grid over point items. Radius and k-nearest queries only visit
+ * the cells overlapping the query's bounding box, reject candidates on the box first and run
+ * the exact distance check on the rest, comparing squared chords (see GeoPoints) so no trig is
+ * evaluated per candidate. Not thread-safe; callers synchronize externally.
+ */
+public class GeoGridIndex<T> {
+    public static final double DEFAULT_CELL_SIZE_DEG = 0.25; // roughly 28 km north-south
+
+    private final double cellSizeDeg;
+    private final int rows;
+    private final int cols;
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+
+    public GeoGridIndex() {
+        this(DEFAULT_CELL_SIZE_DEG);
+    }
+
+    public GeoGridIndex(double cellSizeDeg) {
+        if (cellSizeDeg <= 0 || cellSizeDeg > 90) throw new IllegalArgumentException("Cell size must be in (0, 90] degrees");
+        this.cellSizeDeg = cellSizeDeg;
+        this.rows = (int) Math.ceil(180.0 / cellSizeDeg);
+        this.cols = (int) Math.ceil(360.0 / cellSizeDeg);
+    }
+
+    // Inserts the item, or moves it if it is already indexed
+    public void put(T item, double latitude, double longitude) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid latitude or longitude values");
+        }
+        Entry<T> existing = entries.get(item);
+        if (existing != null) {
+            if (existing.latitude == latitude && existing.longitude == longitude) return;
+            removeFromCell(existing);
+        }
+        Entry<T> entry = new Entry<>(item, latitude, longitude);
+        entries.put(item, entry);
+        cells.computeIfAbsent(cellKey(rowOf(latitude), colOf(longitude)), k -> new ArrayList<>()).add(entry);
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) return false;
+        removeFromCell(entry);
+        return true;
+    }
+
+    public void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    // Items within radiusKm of the point, nearest first
+    public List<T> withinRadius(double latitude, double longitude, double radiusKm) {
+        if (radiusKm < 0) throw new IllegalArgumentException("Radius cannot be negative");
+        List<Hit<T>> hits = collect(latitude, longitude, radiusKm);
+        hits.sort((a, b) -> Double.compare(a.chordSquared, b.chordSquared));
+        List<T> result = new ArrayList<>(hits.size());
+        for (Hit<T> hit : hits) result.add(hit.entry.item);
+        return result;
+    }
+
+    // The k items closest to the point, nearest first
+    public List<T> nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || entries.isEmpty()) return new ArrayList<>();
+        int wanted = Math.min(k, entries.size());
+        double maxRadiusKm = Math.PI * GeoMath.EARTH_RADIUS_KM;
+        double radiusKm = cellSizeDeg * GeoMath.KM_PER_DEGREE_LAT;
+        List<Hit<T>> hits;
+        // Everything inside an exact radius query is a complete candidate set once it holds k items
+        while (true) {
+            hits = collect(latitude, longitude, radiusKm);
+            if (hits.size() >= wanted || radiusKm >= maxRadiusKm) break;
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+        }
+        hits.sort((a, b) -> Double.compare(a.chordSquared, b.chordSquared));
+        List<T> result = new ArrayList<>(wanted);
+        for (int i = 0; i < wanted && i < hits.size(); i++) result.add(hits.get(i).entry.item);
+        return result;
+    }
+
+    private List<Hit<T>> collect(double latitude, double longitude, double radiusKm) {
+        List<Hit<T>> hits = new ArrayList<>();
+        if (entries.isEmpty()) return hits;
+        double[] origin = GeoPoints.unitVector(latitude, longitude, new double[3]);
+        double maxChordSquared = GeoPoints.chordSquaredForKm(radiusKm);
+
+        double dLat = radiusKm / GeoMath.KM_PER_DEGREE_LAT;
+        double minLat = Math.max(-90, latitude - dLat);
+        double maxLat = Math.min(90, latitude + dLat);
+        double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        // Widest longitude gap any point within the radius can have inside this latitude band
+        double sinHalf = Math.sin(Math.min(radiusKm / (2 * GeoMath.EARTH_RADIUS_KM), Math.PI / 2))
+                / Math.cos(Math.toRadians(maxAbsLat));
+        boolean allLongitudes = maxAbsLat >= 90 || sinHalf >= 1;
+        double dLon = allLongitudes ? 180 : Math.toDegrees(2 * Math.asin(sinHalf));
+
+        int rowStart = rowOf(minLat);
+        int rowEnd = rowOf(maxLat);
+        int colStart;
+        int colCount;
+        if (allLongitudes || 2 * dLon >= 360) {
+            allLongitudes = true;
+            colStart = 0;
+            colCount = cols;
+        } else {
+            colStart = (int) Math.floor((longitude - dLon + 180) / cellSizeDeg);
+            int colEnd = (int) Math.floor((longitude + dLon + 180) / cellSizeDeg);
+            colCount = Math.min(cols, colEnd - colStart + 1);
+        }
+
+        if ((long) (rowEnd - rowStart + 1) * colCount > cells.size()) {
+            // Query box spans more cells than are occupied; walking the occupied ones is cheaper
+            for (List<Entry<T>> cell : cells.values()) {
+                addHits(cell, latitude, longitude, origin, maxChordSquared, dLat, dLon, allLongitudes, hits);
+            }
+        } else {
+            for (int row = rowStart; row <= rowEnd; row++) {
+                for (int i = 0; i < colCount; i++) {
+                    List<Entry<T>> cell = cells.get(cellKey(row, Math.floorMod(colStart + i, cols)));
+                    if (cell != null) addHits(cell, latitude, longitude, origin, maxChordSquared, dLat, dLon, allLongitudes, hits);
+                }
+            }
+        }
+        return hits;
+    }
+
+    private void addHits(List<Entry<T>> cell, double latitude, double longitude, double[] origin, double maxChordSquared,
+                         double dLat, double dLon, boolean allLongitudes, List<Hit<T>> hits) {
+        for (Entry<T> entry : cell) {
+            if (Math.abs(entry.latitude - latitude) > dLat) continue;
+            if (!allLongitudes) {
+                double lonGap = Math.abs(entry.longitude - longitude);
+                if (lonGap > 180) lonGap = 360 - lonGap;
+                if (lonGap > dLon) continue;
+            }
+            double dx = entry.x - origin[0];
+            double dy = entry.y - origin[1];
+            double dz = entry.z - origin[2];
+            double chordSquared = dx * dx + dy * dy + dz * dz;
+            if (chordSquared <= maxChordSquared) hits.add(new Hit<>(entry, chordSquared));
+        }
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        long key = cellKey(rowOf(entry.latitude), colOf(entry.longitude));
+        List<Entry<T>> cell = cells.get(key);
+        if (cell == null) return;
+        cell.remove(entry);
+        if (cell.isEmpty()) cells.remove(key);
+    }
+
+    private int rowOf(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellSizeDeg));
+    }
+
+    private int colOf(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSizeDeg), cols);
+    }
+
+    private long cellKey(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    private static class Entry<T> {
+        final T item;
+        final double latitude;
+        final double longitude;
+        final double x;
+        final double y;
+        final double z;
+
+        Entry(T item, double latitude, double longitude) {
+            this.item = item;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            double[] unit = GeoPoints.unitVector(latitude, longitude, new double[3]);
+            this.x = unit[0];
+            this.y = unit[1];
+            this.z = unit[2];
+        }
+    }
+
+    private static class Hit<T> {
+        final Entry<T> entry;
+        final double chordSquared; // Orders the same way as the great-circle distance
+
+        Hit(Entry<T> entry, double chordSquared) {
+            this.entry = entry;
+            this.chordSquared = chordSquared;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.taylorsuniversity.ev.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares GeoGridIndex with a linear haversine scan. Most points sit in a national-registry
+ * sized box and 2% are spread over the whole globe, so the checks also reach the poles and the
+ * antimeridian. First runs 300 queries through both and compares the results: 100 radius and 100
+ * k-nearest queries inside the box, 50 near the antimeridian and 50 near a pole, half of each of
+ * those radius and half k-nearest. Exits with status 1 on any difference. Then prints the mean
+ * time per radius and k-nearest query for each.
+ *
+ * Usage: GeoGridIndexBenchmark [points] [radiusKm] [k]
+ */
+public class GeoGridIndexBenchmark {
+    private static final int CHECKS = 300;
+    private static final int GRID_QUERIES = 20_000;
+    private static final int LINEAR_QUERIES = 500;
+    private static final double BOUNDARY_KM = 1e-6; // Points this close to the radius may fall either side by rounding
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        double radiusKm = args.length > 1 ? Double.parseDouble(args[1]) : 25.0;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        if (count < 1 || radiusKm < 0 || k < 1) {
+            System.err.println("Usage: GeoGridIndexBenchmark [points >= 1] [radiusKm >= 0] [k >= 1]");
+            System.exit(1);
+        }
+
+        Random random = new Random(count);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        GeoGridIndex<Integer> index = new GeoGridIndex<>();
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(50) == 0) {
+                latitudes[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)); // Uniform over the sphere
+                longitudes[i] = -180 + random.nextDouble() * 360;
+            } else {
+                latitudes[i] = 26.3 + random.nextDouble() * 4.2;
+                longitudes[i] = 80.0 + random.nextDouble() * 8.2;
+            }
+            index.put(i, latitudes[i], longitudes[i]);
+        }
+
+        int mismatches = 0;
+        for (int q = 0; q < CHECKS; q++) {
+            double[] point = checkPoint(q, random);
+            boolean radiusQuery = q < 100 || (q >= 200 && q % 2 == 0);
+            double queryRadius = q >= 200 ? radiusKm * 20 : radiusKm; // Sparse global points need a wider circle
+            boolean same = radiusQuery
+                    ? sameRadius(index.withinRadius(point[0], point[1], queryRadius),
+                            linearWithin(latitudes, longitudes, point[0], point[1], queryRadius),
+                            latitudes, longitudes, point, queryRadius)
+                    : sameNearest(index.nearest(point[0], point[1], k),
+                            linearNearest(latitudes, longitudes, point[0], point[1], k), latitudes, longitudes, point);
+            if (!same) {
+                mismatches++;
+                System.out.printf("mismatch: %s query at %.4f, %.4f%n", radiusQuery ? "radius" : "nearest", point[0], point[1]);
+            }
+        }
+        System.out.printf("%d points, %d checked queries, %d mismatches%n", count, CHECKS, mismatches);
+        if (mismatches > 0) System.exit(1);
+
+        double[][] queries = new double[GRID_QUERIES][];
+        for (int q = 0; q < GRID_QUERIES; q++) {
+            queries[q] = new double[]{26.3 + random.nextDouble() * 4.2, 80.0 + random.nextDouble() * 8.2};
+        }
+        long sink = 0;
+        for (int round = 0; round < 2; round++) { // The first round warms up
+            long startNanos = System.nanoTime();
+            for (double[] query : queries) sink += index.withinRadius(query[0], query[1], radiusKm).size();
+            double gridRadius = (System.nanoTime() - startNanos) / 1e6 / GRID_QUERIES;
+            startNanos = System.nanoTime();
+            for (int q = 0; q < LINEAR_QUERIES; q++) {
+                sink += linearWithin(latitudes, longitudes, queries[q][0], queries[q][1], radiusKm).size();
+            }
+            double linearRadius = (System.nanoTime() - startNanos) / 1e6 / LINEAR_QUERIES;
+            startNanos = System.nanoTime();
+            for (double[] query : queries) sink += index.nearest(query[0], query[1], k).size();
+            double gridNearest = (System.nanoTime() - startNanos) / 1e6 / GRID_QUERIES;
+            startNanos = System.nanoTime();
+            for (int q = 0; q < LINEAR_QUERIES; q++) {
+                sink += linearNearest(latitudes, longitudes, queries[q][0], queries[q][1], k).size();
+            }
+            double linearNearest = (System.nanoTime() - startNanos) / 1e6 / LINEAR_QUERIES;
+            if (round == 1) {
+                System.out.printf("radius %.0f km: linear %.3f ms/query, grid %.4f ms/query (%.0fx)%n",
+                        radiusKm, linearRadius, gridRadius, linearRadius / gridRadius);
+                System.out.printf("%d nearest: linear %.3f ms/query, grid %.4f ms/query (%.0fx)%n",
+                        k, linearNearest, gridNearest, linearNearest / gridNearest);
+            }
+        }
+        if (sink < 0) System.out.println(sink); // Keeps the queries from being optimised away
+    }
+
+    // 0-199 inside the box, 200-249 astride the antimeridian, 250-299 near a pole
+    private static double[] checkPoint(int q, Random random) {
+        if (q < 200) return new double[]{26.3 + random.nextDouble() * 4.2, 80.0 + random.nextDouble() * 8.2};
+        if (q < 250) {
+            double longitude = random.nextBoolean() ? 180 - random.nextDouble() * 0.5 : -180 + random.nextDouble() * 0.5;
+            return new double[]{-60 + random.nextDouble() * 120, longitude};
+        }
+        double latitude = 89 + random.nextDouble();
+        return new double[]{random.nextBoolean() ? latitude : -latitude, -180 + random.nextDouble() * 360};
+    }
+
+    private static List<Integer> linearWithin(double[] latitudes, double[] longitudes, double latitude, double longitude,
+                                              double radiusKm) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < latitudes.length; i++) {
+            if (GeoMath.haversine(latitude, longitude, latitudes[i], longitudes[i]) <= radiusKm) result.add(i);
+        }
+        result.sort(Comparator.comparingDouble(i -> GeoMath.haversine(latitude, longitude, latitudes[i], longitudes[i])));
+        return result;
+    }
+
+    private static List<Integer> linearNearest(double[] latitudes, double[] longitudes, double latitude, double longitude,
+                                               int k) {
+        double[] distances = new double[latitudes.length];
+        Integer[] order = new Integer[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            distances[i] = GeoMath.haversine(latitude, longitude, latitudes[i], longitudes[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> distances[i]));
+        return Arrays.asList(order).subList(0, Math.min(k, order.length));
+    }
+
+    // Same set, ignoring points that lie on the circle to within rounding
+    private static boolean sameRadius(List<Integer> grid, List<Integer> linear, double[] latitudes, double[] longitudes,
+                                      double[] point, double radiusKm) {
+        List<Integer> onlyGrid = new ArrayList<>(grid);
+        onlyGrid.removeAll(linear);
+        List<Integer> onlyLinear = new ArrayList<>(linear);
+        onlyLinear.removeAll(grid);
+        onlyGrid.addAll(onlyLinear);
+        for (int i : onlyGrid) {
+            double km = GeoMath.haversine(point[0], point[1], latitudes[i], longitudes[i]);
+            if (Math.abs(km - radiusKm) > BOUNDARY_KM) return false;
+        }
+        return true;
+    }
+
+    // Same distances in the same order; ties may pick different points
+    private static boolean sameNearest(List<Integer> grid, List<Integer> linear, double[] latitudes, double[] longitudes,
+                                       double[] point) {
+        if (grid.size() != linear.size()) return false;
+        for (int i = 0; i < grid.size(); i++) {
+            double gridKm = GeoMath.haversine(point[0], point[1], latitudes[grid.get(i)], longitudes[grid.get(i)]);
+            double linearKm = GeoMath.haversine(point[0], point[1], latitudes[linear.get(i)], longitudes[linear.get(i)]);
+            if (Math.abs(gridKm - linearKm) > BOUNDARY_KM) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.taylorsuniversity.ev.util;
+
+public final class GeoMath {
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    public static final double KM_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private GeoMath() {
+    }
+
+    // Great-circle distance in km between two coordinates given in degrees
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLat = phi2 - phi1;
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+
+    public static double haversine(Location a, Location b) {
+        if (a == null || b == null) return Double.MAX_VALUE;
+        return haversine(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+    }
+}
@@ -0,0 +1,120 @@
+package com.taylorsuniversity.ev.util;
+
+/**
+ * Fixed set of coordinates held as primitive columns, for distance queries from one origin to
+ * many points. Each point is converted once to a unit vector (cos lat cos lon, cos lat sin lon,
+ * sin lat), so comparing distances needs only multiplies and adds: the squared chord between two
+ * unit vectors grows with the great-circle distance, and one asin turns it into kilometres. The
+ * result equals GeoMath.haversine up to rounding. The kernel loops are branch-free over plain
+ * arrays so the JIT can unroll and vectorize them.
+ */
+public final class GeoPoints {
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    private GeoPoints(double[] x, double[] y, double[] z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public static GeoPoints of(double[] latitudes, double[] longitudes) {
+        if (latitudes == null || longitudes == null || latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must be non-null and of equal length");
+        }
+        int n = latitudes.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        double[] unit = new double[3];
+        for (int i = 0; i < n; i++) {
+            unitVector(latitudes[i], longitudes[i], unit);
+            x[i] = unit[0];
+            y[i] = unit[1];
+            z[i] = unit[2];
+        }
+        return new GeoPoints(x, y, z);
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    // Distance in km from the origin to every point, written into out
+    public void distancesFrom(double latitude, double longitude, double[] out) {
+        if (out == null || out.length < x.length) throw new IllegalArgumentException("Output array too small");
+        chordsSquaredFrom(latitude, longitude, out);
+        for (int i = 0; i < x.length; i++) out[i] = kmForChordSquared(out[i]);
+    }
+
+    public double[] distancesFrom(double latitude, double longitude) {
+        double[] out = new double[x.length];
+        distancesFrom(latitude, longitude, out);
+        return out;
+    }
+
+    // Index of the point closest to the origin, or -1 when there are none
+    public int nearest(double latitude, double longitude) {
+        double[] origin = unitVector(latitude, longitude, new double[3]);
+        double ox = origin[0];
+        double oy = origin[1];
+        double oz = origin[2];
+        int best = -1;
+        double bestChord = Double.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            double dx = x[i] - ox;
+            double dy = y[i] - oy;
+            double dz = z[i] - oz;
+            double chord = dx * dx + dy * dy + dz * dz;
+            if (chord < bestChord) {
+                bestChord = chord;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    public double distance(int i, int j) {
+        double dx = x[i] - x[j];
+        double dy = y[i] - y[j];
+        double dz = z[i] - z[j];
+        return kmForChordSquared(dx * dx + dy * dy + dz * dz);
+    }
+
+    private void chordsSquaredFrom(double latitude, double longitude, double[] out) {
+        double[] origin = unitVector(latitude, longitude, new double[3]);
+        double ox = origin[0];
+        double oy = origin[1];
+        double oz = origin[2];
+        for (int i = 0; i < x.length; i++) {
+            double dx = x[i] - ox;
+            double dy = y[i] - oy;
+            double dz = z[i] - oz;
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    // Writes the point's position on the unit sphere into xyz and returns it
+    public static double[] unitVector(double latitude, double longitude, double[] xyz) {
+        double latRad = Math.toRadians(latitude);
+        double lonRad = Math.toRadians(longitude);
+        double cosLat = Math.cos(latRad);
+        xyz[0] = cosLat * Math.cos(lonRad);
+        xyz[1] = cosLat * Math.sin(lonRad);
+        xyz[2] = Math.sin(latRad);
+        return xyz;
+    }
+
+    // Squared chord on the unit sphere for a great-circle distance, capped at the antipode
+    public static double chordSquaredForKm(double km) {
+        double halfAngle = km / (2 * GeoMath.EARTH_RADIUS_KM);
+        if (halfAngle >= Math.PI / 2) return 4.0;
+        double chord = 2 * Math.sin(halfAngle);
+        return chord * chord;
+    }
+
+    public static double kmForChordSquared(double chordSquared) {
+        return 2 * GeoMath.EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(chordSquared) / 2));
+    }
+}
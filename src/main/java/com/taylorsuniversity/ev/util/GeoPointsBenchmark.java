@@ -0,0 +1,105 @@
+package com.taylorsuniversity.ev.util;
+
+import java.util.Random;
+
+/**
+ * Compares GeoPoints with calling GeoMath.haversine once per point, for the two loops it
+ * replaced: every distance from one origin, and the nearest point to an origin. Points and
+ * origins are global so the check also covers long and near-antipodal distances. Every distance
+ * must agree with haversine to within a millimetre and every nearest pick must be the same point
+ * or one at the same distance, or the run exits with status 1. Prints the mean time per origin
+ * for each.
+ *
+ * Usage: GeoPointsBenchmark [points] [origins]
+ */
+public class GeoPointsBenchmark {
+    private static final double TOLERANCE_KM = 1e-6;
+    private static final int ROUNDS = 3; // The first rounds warm up
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int origins = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        if (count < 1 || origins < 1) {
+            System.err.println("Usage: GeoPointsBenchmark [points >= 1] [origins >= 1]");
+            System.exit(1);
+        }
+
+        Random random = new Random(count);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            longitudes[i] = -180 + random.nextDouble() * 360;
+        }
+        double[][] queries = new double[origins][];
+        for (int q = 0; q < origins; q++) {
+            queries[q] = new double[]{Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)), -180 + random.nextDouble() * 360};
+        }
+        GeoPoints points = GeoPoints.of(latitudes, longitudes);
+
+        double[] scalar = new double[count];
+        double[] vector = new double[count];
+        double worstKm = 0;
+        int wrongNearest = 0;
+        for (double[] query : queries) {
+            scalarDistances(latitudes, longitudes, query[0], query[1], scalar);
+            points.distancesFrom(query[0], query[1], vector);
+            for (int i = 0; i < count; i++) worstKm = Math.max(worstKm, Math.abs(scalar[i] - vector[i]));
+            int expected = scalarNearest(latitudes, longitudes, query[0], query[1]);
+            int actual = points.nearest(query[0], query[1]);
+            if (actual != expected && Math.abs(scalar[actual] - scalar[expected]) > TOLERANCE_KM) wrongNearest++;
+        }
+        System.out.printf("%d points, %d origins: largest distance difference %.2e km, %d wrong nearest%n",
+                count, origins, worstKm, wrongNearest);
+        if (worstKm > TOLERANCE_KM || wrongNearest > 0) System.exit(1);
+
+        double sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long startNanos = System.nanoTime();
+            for (double[] query : queries) {
+                scalarDistances(latitudes, longitudes, query[0], query[1], scalar);
+                sink += scalar[0];
+            }
+            double scalarAll = (System.nanoTime() - startNanos) / 1e6 / origins;
+            startNanos = System.nanoTime();
+            for (double[] query : queries) {
+                points.distancesFrom(query[0], query[1], vector);
+                sink += vector[0];
+            }
+            double vectorAll = (System.nanoTime() - startNanos) / 1e6 / origins;
+            startNanos = System.nanoTime();
+            for (double[] query : queries) sink += scalarNearest(latitudes, longitudes, query[0], query[1]);
+            double scalarNearest = (System.nanoTime() - startNanos) / 1e6 / origins;
+            startNanos = System.nanoTime();
+            for (double[] query : queries) sink += points.nearest(query[0], query[1]);
+            double vectorNearest = (System.nanoTime() - startNanos) / 1e6 / origins;
+            if (round == ROUNDS - 1) {
+                System.out.printf("all distances: haversine %.3f ms/origin, GeoPoints %.3f ms/origin (%.1fx)%n",
+                        scalarAll, vectorAll, scalarAll / vectorAll);
+                System.out.printf("nearest:       haversine %.3f ms/origin, GeoPoints %.3f ms/origin (%.1fx)%n",
+                        scalarNearest, vectorNearest, scalarNearest / vectorNearest);
+            }
+        }
+        if (sink == Double.MIN_VALUE) System.out.println(sink); // Keeps the loops from being optimised away
+    }
+
+    private static void scalarDistances(double[] latitudes, double[] longitudes, double latitude, double longitude,
+                                        double[] out) {
+        for (int i = 0; i < latitudes.length; i++) {
+            out[i] = GeoMath.haversine(latitude, longitude, latitudes[i], longitudes[i]);
+        }
+    }
+
+    private static int scalarNearest(double[] latitudes, double[] longitudes, double latitude, double longitude) {
+        int best = -1;
+        double bestKm = Double.MAX_VALUE;
+        for (int i = 0; i < latitudes.length; i++) {
+            double km = GeoMath.haversine(latitude, longitude, latitudes[i], longitudes[i]);
+            if (km < bestKm) {
+                bestKm = km;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -1,5 +1,8 @@
 package com.taylorsuniversity.ev.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
 public class Location implements Serializable {
@@ -32,4 +35,17 @@ public class Location implements Serializable {
     public String toString() {
         return name + " (" + latitude + ", " + longitude + ")";
     }
-}
\ No newline at end of file
+
+    // Binary form used by BinaryCodec
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(latitude);
+        out.writeDouble(longitude);
+        BinaryCodec.writeString(out, name);
+    }
+
+    public static Location readFrom(DataInput in, int version) throws IOException {
+        double latitude = in.readDouble();
+        double longitude = in.readDouble();
+        return new Location(latitude, longitude, BinaryCodec.readString(in));
+    }
+}
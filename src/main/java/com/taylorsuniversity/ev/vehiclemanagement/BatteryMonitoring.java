@@ -1,5 +1,10 @@
 package com.taylorsuniversity.ev.vehiclemanagement;
 
+import com.taylorsuniversity.ev.util.BinaryCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.logging.Logger;
 
@@ -72,4 +77,20 @@ public class BatteryMonitoring implements Serializable {
         return String.format("%.1f%% (%.1f km / %.1f km)", chargePercentage, remainingRange, initialRange);
     }
 
-}
\ No newline at end of file
+    // Binary form used by BinaryCodec
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(healthStatus);
+        out.writeDouble(remainingRange);
+        out.writeDouble(initialRange);
+        out.writeInt(chargeCycles);
+    }
+
+    public static BatteryMonitoring readFrom(DataInput in, int version) throws IOException {
+        double healthStatus = in.readDouble();
+        double remainingRange = in.readDouble();
+        BatteryMonitoring monitoring = new BatteryMonitoring(healthStatus, in.readDouble());
+        monitoring.remainingRange = remainingRange;
+        monitoring.chargeCycles = in.readInt();
+        return monitoring;
+    }
+}
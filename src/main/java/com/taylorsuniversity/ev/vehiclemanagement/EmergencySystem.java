@@ -1,5 +1,8 @@
 package com.taylorsuniversity.ev.vehiclemanagement;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.logging.Logger;
 
@@ -51,4 +54,15 @@ public class EmergencySystem implements Serializable {
             LOGGER.info("Eco-mode activated for Vehicle " + vehicle.getId() + " with custom factor to extend range.");
         }
     }
+
+    // Binary form used by BinaryCodec
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(ecoModeActive);
+    }
+
+    public static EmergencySystem readFrom(DataInput in, int version) throws IOException {
+        EmergencySystem system = new EmergencySystem();
+        system.ecoModeActive = in.readBoolean();
+        return system;
+    }
 }
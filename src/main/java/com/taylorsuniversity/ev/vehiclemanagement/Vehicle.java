@@ -1,5 +1,10 @@
 package com.taylorsuniversity.ev.vehiclemanagement;
 
+import com.taylorsuniversity.ev.util.BinaryCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
 public class Vehicle implements Serializable {
@@ -23,6 +28,9 @@ public class Vehicle implements Serializable {
         this.emergencySystem = new EmergencySystem();
     }
 
+    private Vehicle() {
+    }
+
     public void travel(double distance) {
         batteryMonitoring.updateRange(distance);
         emergencySystem.checkStatus(this);
@@ -70,5 +78,24 @@ public class Vehicle implements Serializable {
         return emergencySystem;
     }
 
+    // Binary form used by BinaryCodec
+    public void writeTo(DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, vehicleId);
+        BinaryCodec.writeString(out, model);
+        BinaryCodec.writeString(out, manufacturer);
+        out.writeDouble(batteryCapacity);
+        BinaryCodec.writeNullable(out, batteryMonitoring, BatteryMonitoring::writeTo);
+        BinaryCodec.writeNullable(out, emergencySystem, EmergencySystem::writeTo);
+    }
 
-}
\ No newline at end of file
+    public static Vehicle readFrom(DataInput in, int version) throws IOException {
+        Vehicle vehicle = new Vehicle();
+        vehicle.vehicleId = BinaryCodec.readString(in);
+        vehicle.model = BinaryCodec.readString(in);
+        vehicle.manufacturer = BinaryCodec.readString(in);
+        vehicle.batteryCapacity = in.readDouble();
+        vehicle.batteryMonitoring = BinaryCodec.readNullable(in, version, BatteryMonitoring::readFrom);
+        vehicle.emergencySystem = BinaryCodec.readNullable(in, version, EmergencySystem::readFrom);
+        return vehicle;
+    }
+}
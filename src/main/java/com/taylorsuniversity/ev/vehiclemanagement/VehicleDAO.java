@@ -6,12 +6,15 @@ import java.util.List;
 
 public class VehicleDAO {
     private static final String FILE_PATH = "src/main/resources/vehicle_data.txt";
+    private static final Object FILE_LOCK = new Object(); // Saves read, modify and rewrite the whole file
 
     public void saveVehicle(Vehicle vehicle) {
-        List<Vehicle> vehicles = getAllVehicles();
-        vehicles.removeIf(v -> v.getId().equals(vehicle.getId())); // Remove if exists
-        vehicles.add(vehicle);
-        saveToFile(vehicles);
+        synchronized (FILE_LOCK) {
+            List<Vehicle> vehicles = getAllVehicles();
+            vehicles.removeIf(v -> v.getId().equals(vehicle.getId())); // Remove if exists
+            vehicles.add(vehicle);
+            saveToFile(vehicles);
+        }
     }
 
     public Vehicle getVehicle(String id) {
@@ -24,7 +27,8 @@ public class VehicleDAO {
     public List<Vehicle> getAllVehicles() {
         List<Vehicle> vehicles = new ArrayList<>();
         File file = new File(FILE_PATH);
-        if (file.exists()) {
+        synchronized (FILE_LOCK) {
+            if (!file.exists()) return vehicles;
             try (BufferedReader br = new BufferedReader(new FileReader(file))) {
                 String line;
                 while ((line = br.readLine()) != null) {
@@ -46,9 +50,11 @@ public class VehicleDAO {
     }
 
     public void deleteVehicle(String id) {
-        List<Vehicle> vehicles = getAllVehicles();
-        vehicles.removeIf(v -> v.getId().equals(id));
-        saveToFile(vehicles);
+        synchronized (FILE_LOCK) {
+            List<Vehicle> vehicles = getAllVehicles();
+            vehicles.removeIf(v -> v.getId().equals(id));
+            saveToFile(vehicles);
+        }
     }
 
     private void saveToFile(List<Vehicle> vehicles) {
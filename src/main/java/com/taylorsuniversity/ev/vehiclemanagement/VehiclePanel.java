@@ -1,5 +1,6 @@
 package com.taylorsuniversity.ev.vehiclemanagement;
 
+import com.taylorsuniversity.ev.PanelDataLoader;
 import com.taylorsuniversity.ev.analytics.CostAnalysisPanel;
 import com.taylorsuniversity.ev.analytics.EnvironmentalPanel;
 import com.taylorsuniversity.ev.charginginfrastructure.ChargingStationPanel;
@@ -18,14 +19,17 @@ import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.*;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 public class VehiclePanel extends JPanel {
     private static final long serialVersionUID = 1L;
     private final VehicleController controller;
+    private final PanelDataLoader loader = PanelDataLoader.getInstance();
+    private final PanelDataLoader.PanelTimer timer;
     private final User user; // Added User instance variable
     private JTable vehicleTable;
     private VehicleTableModel tableModel;
@@ -35,6 +39,7 @@ public class VehiclePanel extends JPanel {
     public VehiclePanel(User user) {
         this.user = user != null ? user : new User("Guest", "guest@example.com", "1234567890", "GUEST123", "ABC123", "password");
         this.controller = new VehicleController();
+        this.timer = loader.startTimer(this, "Vehicle Management");
         setLayout(new BorderLayout());
         setBackground(new Color(245, 247, 250));
         setBorder(new EmptyBorder(30, 30, 30, 30)); // More breathing room
@@ -146,19 +151,7 @@ public class VehiclePanel extends JPanel {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        try {
-            java.net.URL imgURL = getClass().getResource(path);
-            if (imgURL != null) {
-                ImageIcon icon = new ImageIcon(imgURL);
-                Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-            LOGGER.warning("Icon not found: " + path);
-            return null;
-        } catch (Exception e) {
-            LOGGER.severe("Error loading icon " + path + ": " + e.getMessage());
-            return null;
-        }
+        return PanelDataLoader.getInstance().icon(path, width, height);
     }
 
 
@@ -211,83 +204,23 @@ public class VehiclePanel extends JPanel {
         }
     }
 
+    // Seeds two sample vehicles when there is no data file yet, then shows the list; all off the EDT
     private void initializeSampleData() {
-        File file = new File(VEHICLE_DATA_FILE);
-        if (!file.exists()) {
-            if (controller.getAllVehicles().isEmpty()) {
-                controller.addVehicle(new Vehicle("V001", "Tata Nexon EV", "Tata Motors", 30.4, 300));
-                controller.addVehicle(new Vehicle("V002", "Hyundai Kona", "Hyundai", 39.2, 350));
-                appendVehicleToFile(new Vehicle("V001", "Tata Nexon EV", "Tata Motors", 30.4, 300));
-                appendVehicleToFile(new Vehicle("V002", "Hyundai Kona", "Hyundai", 39.2, 350));
-            }
-        } else {
-            loadVehiclesFromFile();
-        }
-        refreshTable();
-    }
-
-    private void loadVehiclesFromFile() {
-        List<Vehicle> vehicles = controller.getAllVehicles();
-        vehicles.clear();
-        try (BufferedReader br = new BufferedReader(new FileReader(VEHICLE_DATA_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 5) {
-                    String id = data[0].trim();
-                    String model = data[1].trim();
-                    String manufacturer = data[2].trim();
-                    double batteryCapacity = Double.parseDouble(data[3].trim());
-                    double initialRange = Double.parseDouble(data[4].trim());
-                    if (controller.getVehicle(id) == null) {
-                        controller.addVehicle(new Vehicle(id, model, manufacturer, batteryCapacity, initialRange));
-                    }
-                }
-            }
-            refreshTable();
-        } catch (IOException | NumberFormatException e) {
-            System.err.println("Error loading vehicle data: " + e.getMessage());
-        }
-    }
-
-    private void appendVehicleToFile(Vehicle vehicle) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(VEHICLE_DATA_FILE, true))) {
-            bw.write(String.format("%s,%s,%s,%.1f,%.1f%n",
-                    vehicle.getId(),
-                    vehicle.getModel(),
-                    vehicle.getManufacturer(),
-                    vehicle.getBatteryCapacity(),
-                    vehicle.getBatteryMonitoring().getRemainingRange()));
-        } catch (IOException e) {
-            System.err.println("Error appending vehicle data: " + e.getMessage());
-        }
+        CompletableFuture<List<Vehicle>> vehicles = loader.vehicles().thenCompose(loaded -> loaded.isEmpty()
+                ? loader.updateVehicles(this::addSampleVehicles).thenCompose(ignored -> loader.vehicles())
+                : CompletableFuture.completedFuture(loaded));
+        loader.deliver(vehicles, loaded -> {
+            showVehicles(loaded);
+            timer.dataShown();
+        });
     }
 
-    private void deleteVehicleFromFile(String vehicleId) {
-        File inputFile = new File(VEHICLE_DATA_FILE);
-        File tempFile = new File("src/main/resources/vehicle_data_temp.txt");
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 5 && !data[0].trim().equals(vehicleId)) {
-                    writer.write(line + System.lineSeparator());
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error deleting vehicle from file: " + e.getMessage());
-            return;
-        }
-
-        if (inputFile.delete()) {
-            if (!tempFile.renameTo(inputFile)) {
-                System.err.println("Error renaming temp file to original file.");
-            }
-        } else {
-            System.err.println("Error deleting original file.");
+    private Void addSampleVehicles() {
+        if (!new File(VEHICLE_DATA_FILE).exists() && controller.getAllVehicles().isEmpty()) {
+            controller.addVehicle(new Vehicle("V001", "Tata Nexon EV", "Tata Motors", 30.4, 300));
+            controller.addVehicle(new Vehicle("V002", "Hyundai Kona", "Hyundai", 39.2, 350));
         }
+        return null;
     }
 
     private JPanel createMainPanel() {
@@ -452,17 +385,26 @@ public class VehiclePanel extends JPanel {
                     return;
                 }
 
-                if (controller.getVehicle(id) != null) {
-                    JOptionPane.showMessageDialog(dialog, "Vehicle ID already exists.", "Validation Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-
                 Vehicle newVehicle = new Vehicle(id, model, manufacturer, batteryCapacity, initialRange);
-                appendVehicleToFile(newVehicle);
-                controller.addVehicle(newVehicle);
-                refreshTable();
-                dialog.dispose();
-                JOptionPane.showMessageDialog(this, "Vehicle added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                addButton.setEnabled(false);
+                CompletableFuture<Boolean> added = loader.updateVehicles(() -> {
+                    if (controller.getVehicle(id) != null) return false;
+                    controller.addVehicle(newVehicle);
+                    return true;
+                });
+                loader.deliver(added, success -> {
+                    addButton.setEnabled(true);
+                    if (!success) {
+                        JOptionPane.showMessageDialog(dialog, "Vehicle ID already exists.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    refreshTable();
+                    dialog.dispose();
+                    JOptionPane.showMessageDialog(this, "Vehicle added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                }, error -> {
+                    addButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(dialog, "Could not save vehicle: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(dialog, "Invalid number format.", "Validation Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -492,15 +434,22 @@ public class VehiclePanel extends JPanel {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
-            controller.deleteVehicle(vehicleId);
-            deleteVehicleFromFile(vehicleId);
-            refreshTable();
-            JOptionPane.showMessageDialog(this, "Vehicle deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            CompletableFuture<Void> deleted = loader.updateVehicles(() -> {
+                controller.deleteVehicle(vehicleId);
+                return null;
+            });
+            loader.deliver(deleted, ignored -> {
+                refreshTable();
+                JOptionPane.showMessageDialog(this, "Vehicle deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            }, error -> JOptionPane.showMessageDialog(this, "Could not delete vehicle: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
     private void refreshTable() {
-        List<Vehicle> vehicles = controller.getAllVehicles();
+        loader.deliver(loader.vehicles(), this::showVehicles);
+    }
+
+    private void showVehicles(List<Vehicle> vehicles) {
         tableModel.setVehicles(vehicles);
         tableModel.fireTableDataChanged();
     }